@@ -0,0 +1,55 @@
+-- Benchmark: paginação por OFFSET x paginação por chave (keyset)
+-- Uso: psql -d M3Gestor -f db/benchmark_paginacao.sql
+--
+-- Cria uma cópia sintética de quotes com 1.000.000 de linhas em um schema
+-- separado, compara o custo de uma página profunda nas duas estratégias e
+-- remove tudo ao final. Os tempos aparecem na saída do EXPLAIN ANALYZE.
+
+DROP SCHEMA IF EXISTS bench CASCADE;
+CREATE SCHEMA bench;
+
+CREATE TABLE bench.quotes (LIKE public.quotes INCLUDING DEFAULTS);
+CREATE INDEX idx_bench_quotes_date_id ON bench.quotes (date DESC, id DESC);
+
+INSERT INTO bench.quotes (id, name, client_id, client_name, date, shipping_value, total_value, discount)
+SELECT g,
+       'Orçamento ' || g,
+       NULL,
+       'Cliente ' || (g % 5000),
+       DATE '2015-01-01' + (g % 3650),
+       0,
+       (g % 100000) / 10.0,
+       0
+FROM generate_series(1, 1000000) AS g;
+
+ANALYZE bench.quotes;
+
+-- Primeira página (referência)
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT id, name, client_id, client_name, date, total_value
+FROM bench.quotes
+ORDER BY date DESC, id DESC
+LIMIT 51;
+
+-- Página profunda com OFFSET: percorre e descarta 900.000 linhas
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT id, name, client_id, client_name, date, total_value
+FROM bench.quotes
+ORDER BY date DESC, id DESC
+LIMIT 51 OFFSET 900000;
+
+-- Mesma posição com keyset: o cursor é a última linha da página anterior
+SELECT date AS cursor_date, id AS cursor_id
+FROM bench.quotes
+ORDER BY date DESC, id DESC
+OFFSET 899999 LIMIT 1
+\gset
+
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT id, name, client_id, client_name, date, total_value
+FROM bench.quotes
+WHERE (date, id) < (:'cursor_date', :cursor_id)
+ORDER BY date DESC, id DESC
+LIMIT 51;
+
+DROP SCHEMA bench CASCADE;
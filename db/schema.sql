@@ -1,5 +1,8 @@
 -- Conecte-se ao banco M3Gestor antes de rodar
 
+-- Extensão para busca aproximada (trigramas)
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
 -- Tabela: clientes
 CREATE TABLE IF NOT EXISTS public.clientes (
     id              INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
@@ -51,7 +54,17 @@ CREATE TABLE IF NOT EXISTS public.quotes (
 CREATE INDEX IF NOT EXISTS idx_quotes_name ON public.quotes (name);
 CREATE INDEX IF NOT EXISTS idx_quotes_date_id ON public.quotes (date DESC, id DESC);
 CREATE INDEX IF NOT EXISTS idx_quotes_client_id ON public.quotes (client_id);
+-- Paginação por chave do histórico de um cliente (client_id, date DESC, id DESC)
+CREATE INDEX IF NOT EXISTS idx_quotes_client_date_id ON public.quotes (client_id, date DESC, id DESC);
+-- Ordenação da lista de orçamentos pelas demais colunas (paginação por chave com id de desempate)
+-- Textos em COLLATE "C", a mesma ordem de OrdemResumo e de String.compareTo no Java
+CREATE INDEX IF NOT EXISTS idx_quotes_name_c_id ON public.quotes ((name COLLATE "C"), id);
+CREATE INDEX IF NOT EXISTS idx_quotes_client_name_c_id ON public.quotes ((COALESCE(client_name, '') COLLATE "C"), id);
+CREATE INDEX IF NOT EXISTS idx_quotes_total_id ON public.quotes (total_value, id);
 CREATE INDEX IF NOT EXISTS idx_quotes_status ON public.quotes (status);
+-- Busca por nome do orçamento e do cliente (ILIKE '%x%' e similaridade)
+CREATE INDEX IF NOT EXISTS idx_quotes_name_trgm ON public.quotes USING gin (name gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_quotes_client_name_trgm ON public.quotes USING gin (client_name gin_trgm_ops);
 
 -- Tabela: quote_items (itens do orçamento)
 CREATE TABLE IF NOT EXISTS public.quote_items (
@@ -152,6 +165,47 @@ CREATE TRIGGER update_produtos_updated_at
 BEFORE UPDATE ON public.produtos
 FOR EACH ROW EXECUTE FUNCTION update_updated_at_column();
 
+-- Notificação de alterações para as outras estações (LISTEN m3gestor_alteracoes)
+-- Payload: "tabela,OPERACAO,id". Para quote_items o id enviado é o quote_id, assim
+-- as notificações repetidas de uma mesma transação são agrupadas pelo servidor.
+CREATE OR REPLACE FUNCTION notificar_alteracao()
+RETURNS TRIGGER AS $$
+DECLARE
+    registro RECORD;
+    chave INTEGER;
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        registro := OLD;
+    ELSE
+        registro := NEW;
+    END IF;
+
+    IF TG_TABLE_NAME = 'quote_items' THEN
+        chave := registro.quote_id;
+    ELSE
+        chave := registro.id;
+    END IF;
+
+    PERFORM pg_notify('m3gestor_alteracoes', TG_TABLE_NAME || ',' || TG_OP || ',' || chave);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS notificar_clientes ON public.clientes;
+CREATE TRIGGER notificar_clientes
+AFTER INSERT OR UPDATE OR DELETE ON public.clientes
+FOR EACH ROW EXECUTE FUNCTION notificar_alteracao();
+
+DROP TRIGGER IF EXISTS notificar_quotes ON public.quotes;
+CREATE TRIGGER notificar_quotes
+AFTER INSERT OR UPDATE OR DELETE ON public.quotes
+FOR EACH ROW EXECUTE FUNCTION notificar_alteracao();
+
+DROP TRIGGER IF EXISTS notificar_quote_items ON public.quote_items;
+CREATE TRIGGER notificar_quote_items
+AFTER INSERT OR UPDATE OR DELETE ON public.quote_items
+FOR EACH ROW EXECUTE FUNCTION notificar_alteracao();
+
 -- Inserir usuário admin padrão (senha: admin123)
 INSERT INTO public.usuarios (nome, email, senha, admin, ativo)
 SELECT 'Administrador', 'admin@m3gestor.com', '$2a$10$8Xov8wH9TQ2Q8XJ5Z8XZQO8XZQO8XZQO8XZQO8XZQO8XZQO8XZQO', TRUE, TRUE
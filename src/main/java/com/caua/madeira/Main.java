@@ -1,5 +1,8 @@
 package com.caua.madeira;
 
+import com.caua.madeira.dao.ExecutorDAO;
+import com.caua.madeira.database.Conexao;
+import com.caua.madeira.database.OuvinteNotificacoes;
 import com.caua.madeira.model.Cliente;
 import com.caua.madeira.view.ClientForm;
 import com.caua.madeira.view.ClientList;
@@ -8,6 +11,7 @@ import com.caua.madeira.view.QuoteList;
 import javafx.application.Application;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
+import javafx.scene.Node;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.image.ImageView;
@@ -17,11 +21,25 @@ import javafx.scene.shape.Circle;
 import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
 import javafx.stage.Stage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Supplier;
 
 public class Main extends Application {
 
+    private static final Logger log = LoggerFactory.getLogger(Main.class);
+
+    private enum Tela { INICIO, CLIENTES, ORCAMENTOS }
+
     private BorderPane root;
     private StackPane contentArea;
+    // Cada tela é criada na primeira visita e reaproveitada depois, com seu estado.
+    // As listas se mantêm atualizadas pelo cache de clientes e pelas notificações.
+    private final Map<Tela, Node> telas = new EnumMap<>(Tela.class);
+    private final Map<Tela, Long> tempoCriacaoNanos = new EnumMap<>(Tela.class);
 
     @Override
     public void start(Stage primaryStage) {
@@ -43,6 +61,9 @@ public class Main extends Application {
         primaryStage.setMinWidth(1000);
         primaryStage.setMinHeight(700);
         primaryStage.show();
+
+        // Recebe as alterações feitas pelas outras estações
+        OuvinteNotificacoes.getInstance().iniciar();
     }
 
     // ===============================
@@ -116,10 +137,37 @@ public class Main extends Application {
         return button;
     }
 
+    // ===============================
+    // NAVEGAÇÃO
+    // ===============================
+    private void mostrarTela(Tela tela, Supplier<Node> fabrica) {
+        long inicio = System.nanoTime();
+        Node conteudo = telas.get(tela);
+        boolean criada = conteudo == null;
+        if (criada) {
+            conteudo = fabrica.get();
+            telas.put(tela, conteudo);
+        }
+        contentArea.getChildren().setAll(conteudo);
+        long decorrido = System.nanoTime() - inicio;
+
+        if (criada) {
+            tempoCriacaoNanos.put(tela, decorrido);
+            log.debug("Tela {} criada em {} ms", tela, decorrido / 1_000_000.0);
+        } else {
+            log.debug("Tela {} reaproveitada em {} ms (criação levou {} ms)", tela, decorrido / 1_000_000.0,
+                    tempoCriacaoNanos.get(tela) / 1_000_000.0);
+        }
+    }
+
     // ===============================
     // TELA INICIAL
     // ===============================
     private void showHomeScreen() {
+        mostrarTela(Tela.INICIO, this::criarTelaInicial);
+    }
+
+    private Node criarTelaInicial() {
         VBox homeScreen = new VBox(30);
         homeScreen.setAlignment(Pos.CENTER);
         homeScreen.setPadding(new Insets(40));
@@ -164,7 +212,7 @@ public class Main extends Application {
                 footer
         );
 
-        contentArea.getChildren().setAll(homeScreen);
+        return homeScreen;
     }
 
     private VBox createQuickAction(String title, String emoji) {
@@ -201,6 +249,10 @@ public class Main extends Application {
     // CLIENTES
     // ===============================
     private void showClientsScreen() {
+        mostrarTela(Tela.CLIENTES, this::criarTelaClientes);
+    }
+
+    private Node criarTelaClientes() {
         SplitPane clientSplitPane = new SplitPane();
 
         final ClientForm[] clientFormRef = new ClientForm[1];
@@ -218,25 +270,31 @@ public class Main extends Application {
             clientFormRef[0].habilitarBotaoExcluir(true);
         });
 
-        ClientForm clientForm = new ClientForm(() -> {
-            clientList.refreshClientList();
-        });
+        // A lista acompanha as gravações pelo ClienteCache; não precisa recarregar
+        ClientForm clientForm = new ClientForm(null);
 
         clientFormRef[0] = clientForm;
 
         clientSplitPane.getItems().addAll(clientList, clientForm);
         clientSplitPane.setDividerPositions(0.3);
 
-        contentArea.getChildren().setAll(clientSplitPane);
+        return clientSplitPane;
     }
 
     // ===============================
     // ORÇAMENTOS
     // ===============================
     private void showQuotesScreen() {
+        mostrarTela(Tela.ORCAMENTOS, this::criarTelaOrcamentos);
+    }
+
+    private Node criarTelaOrcamentos() {
         SplitPane quoteSplitPane = new SplitPane();
 
-        QuoteForm quoteForm = new QuoteForm(() -> showQuotesScreen());
+        final QuoteList[] quoteListRef = new QuoteList[1];
+
+        // Gravações do formulário atualizam só a linha correspondente na lista
+        QuoteForm quoteForm = new QuoteForm(evento -> quoteListRef[0].aplicarAlteracao(evento));
 
         QuoteList quoteList = new QuoteList(quote -> {
             if (quote != null) {
@@ -244,10 +302,19 @@ public class Main extends Application {
             }
         });
 
+        quoteListRef[0] = quoteList;
+
         quoteSplitPane.getItems().addAll(quoteList, quoteForm);
         quoteSplitPane.setDividerPositions(0.3);
 
-        contentArea.getChildren().setAll(quoteSplitPane);
+        return quoteSplitPane;
+    }
+
+    @Override
+    public void stop() {
+        OuvinteNotificacoes.getInstance().parar();
+        ExecutorDAO.encerrar();
+        Conexao.fechar();
     }
 
     public static void main(String[] args) {
@@ -0,0 +1,434 @@
+package com.caua.madeira.cache;
+
+import com.caua.madeira.dao.ClienteDAO;
+import com.caua.madeira.dao.ExecutorDAO;
+import com.caua.madeira.database.Alteracao;
+import com.caua.madeira.database.OuvinteNotificacoes;
+import com.caua.madeira.model.Cliente;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.SQLException;
+import java.text.Collator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Cache de clientes compartilhado por todas as telas.
+ *
+ * A tabela de clientes é lida uma única vez; depois disso listagens e buscas
+ * por id ou documento são atendidas da memória. As gravações feitas pelo
+ * {@link ClienteDAO} atualizam o cache logo após o commit; as feitas em outras
+ * estações chegam pelo {@link OuvinteNotificacoes} e só a linha alterada é relida.
+ * Telas abertas acompanham as mudanças registrando um {@link Ouvinte}.
+ *
+ * Nenhuma consulta ao banco é feita segurando o lock do cache: a tabela é lida
+ * fora dele e publicada de uma vez ao final, então buscas e notificações não
+ * esperam pela carga. Gravações registradas durante a carga prevalecem sobre
+ * o que ela leu, e uma invalidação no meio faz a carga recomeçar.
+ */
+public final class ClienteCache {
+    
+    private static final Logger log = LoggerFactory.getLogger(ClienteCache.class);
+    
+    private static final ClienteCache INSTANCIA = new ClienteCache(new ClienteDAO());
+    
+    private final ClienteDAO clienteDAO;
+    private final Map<Integer, Cliente> porId = new HashMap<>();
+    private final Map<String, Cliente> porDocumento = new HashMap<>();
+    private final IndiceClientes indiceBusca = new IndiceClientes();
+    private final Comparator<Cliente> ordemPorNome;
+    private List<Cliente> ordenados;
+    // Posição de cada id em ordenados; a busca ordena por ela, sem o Collator
+    private Map<Integer, Integer> posicaoPorNome;
+    private boolean carregado;
+    // Muda a cada invalidar(); uma carga iniciada antes é descartada
+    private long geracao;
+    // Muda a cada alteração registrada; protege a indexação de buscarPorId
+    private long versao;
+    // Gravações (null = exclusão) registradas enquanto uma carga está em andamento
+    private Map<Integer, Cliente> alteradosNaCarga;
+    // Uma carga por vez; quem chega durante ela espera aqui, não no lock do cache
+    private final Object carga = new Object();
+    
+    private final List<Ouvinte> ouvintes = new CopyOnWriteArrayList<>();
+    
+    /**
+     * Recebe as mudanças do cache. É chamado na thread que fez a alteração,
+     * fora da thread da interface.
+     */
+    public interface Ouvinte {
+        /**
+         * @param cliente o cliente atualizado, ou {@code null} se foi excluído
+         */
+        void clienteAlterado(int id, Cliente cliente);
+        
+        /**
+         * Todo o conteúdo foi descartado; a tela deve recarregar a lista.
+         */
+        default void cacheInvalidado() {
+        }
+    }
+    
+    private ClienteCache(ClienteDAO clienteDAO) {
+        this.clienteDAO = clienteDAO;
+        Collator collator = Collator.getInstance(new Locale("pt", "BR"));
+        this.ordemPorNome = Comparator.comparing(c -> c.getNome() != null ? c.getNome() : "", collator);
+        OuvinteNotificacoes.getInstance().inscrever(this::aplicarAlteracao);
+    }
+    
+    public static ClienteCache getInstance() {
+        return INSTANCIA;
+    }
+    
+    /**
+     * Todos os clientes ordenados por nome. Na primeira chamada carrega a tabela.
+     * A lista devolvida é imutável e contém cópias dos clientes.
+     */
+    public List<Cliente> listarTodos() throws SQLException {
+        while (true) {
+            carregarSeNecessario();
+            synchronized (this) {
+                if (carregado) {
+                    return ordenarSeNecessario();
+                }
+            }
+            // Invalidado entre a carga e a leitura
+        }
+    }
+    
+    /**
+     * Chamado com o lock do cache.
+     */
+    private List<Cliente> ordenarSeNecessario() {
+        if (ordenados == null) {
+            List<Cliente> lista = new ArrayList<>(porId.size());
+            for (Cliente c : porId.values()) {
+                lista.add(copiar(c));
+            }
+            lista.sort(ordemPorNome);
+            Map<Integer, Integer> posicoes = new HashMap<>(lista.size() * 4 / 3 + 1);
+            for (int i = 0; i < lista.size(); i++) {
+                posicoes.put(lista.get(i).getId(), i);
+            }
+            ordenados = Collections.unmodifiableList(lista);
+            posicaoPorNome = posicoes;
+        }
+        return ordenados;
+    }
+    
+    public Cliente buscarPorId(int id) throws SQLException {
+        long versaoConsulta;
+        synchronized (this) {
+            Cliente cliente = porId.get(id);
+            if (cliente != null || carregado) {
+                return cliente != null ? copiar(cliente) : null;
+            }
+            versaoConsulta = versao;
+        }
+        // Antes da carga completa, busca só o registro pedido
+        Cliente cliente = clienteDAO.buscarPorId(id);
+        if (cliente != null) {
+            synchronized (this) {
+                // Uma alteração registrada durante a consulta é mais nova que ela
+                if (versao == versaoConsulta && !porId.containsKey(id)) {
+                    indexar(copiar(cliente));
+                }
+            }
+        }
+        return cliente;
+    }
+    
+    public Cliente buscarPorDocumento(String documento) throws SQLException {
+        String chave = normalizarDocumento(documento);
+        while (true) {
+            carregarSeNecessario();
+            synchronized (this) {
+                if (carregado) {
+                    Cliente cliente = porDocumento.get(chave);
+                    return cliente != null ? copiar(cliente) : null;
+                }
+            }
+        }
+    }
+    
+    /**
+     * Ids dos clientes que casam com {@code termo}, ignorando acentos e
+     * maiúsculas, por início de palavra ou trecho de 3+ letras. Consulta apenas
+     * a memória; um termo vazio devolve todos os clientes em cache.
+     */
+    public synchronized Set<Integer> procurar(String termo) {
+        int[] ids = indiceBusca.procurar(termo);
+        Set<Integer> resultado = new HashSet<>(Math.max(16, ids.length * 4 / 3 + 1));
+        for (int id : ids) {
+            resultado.add(id);
+        }
+        return resultado;
+    }
+    
+    /**
+     * Até {@code limite} clientes que casam com {@code termo}, ordenados por
+     * nome. Na primeira chamada carrega a tabela; depois consulta só o índice.
+     * Os encontrados são ordenados pela posição em {@link #listarTodos()}, um
+     * int, então cada tecla não passa pelo Collator.
+     */
+    public List<Cliente> buscar(String termo, int limite) throws SQLException {
+        while (true) {
+            carregarSeNecessario();
+            synchronized (this) {
+                if (carregado) {
+                    return buscarCarregado(termo, limite);
+                }
+            }
+        }
+    }
+    
+    private List<Cliente> buscarCarregado(String termo, int limite) {
+        List<Cliente> todos = ordenarSeNecessario();
+        if (termo == null || termo.trim().isEmpty()) {
+            int quantidade = Math.min(limite, todos.size());
+            List<Cliente> resultado = new ArrayList<>(Math.max(0, quantidade));
+            for (int i = 0; i < quantidade; i++) {
+                resultado.add(copiar(todos.get(i)));
+            }
+            return resultado;
+        }
+        int[] ids = indiceBusca.procurar(termo);
+        int[] posicoes = new int[ids.length];
+        int encontrados = 0;
+        for (int id : ids) {
+            Integer posicao = posicaoPorNome.get(id);
+            if (posicao != null) {
+                posicoes[encontrados++] = posicao;
+            }
+        }
+        Arrays.sort(posicoes, 0, encontrados);
+        int quantidade = Math.min(limite, encontrados);
+        List<Cliente> resultado = new ArrayList<>(Math.max(0, quantidade));
+        for (int i = 0; i < quantidade; i++) {
+            resultado.add(copiar(todos.get(posicoes[i])));
+        }
+        return resultado;
+    }
+    
+    /**
+     * Consulta apenas a memória, sem acessar o banco. Devolve {@code null} se o
+     * cliente ainda não estiver no cache.
+     */
+    public synchronized Cliente emCache(int id) {
+        Cliente cliente = porId.get(id);
+        return cliente != null ? copiar(cliente) : null;
+    }
+    
+    /**
+     * Chamado pelo DAO depois de inserir ou atualizar um cliente.
+     */
+    public void registrarGravado(Cliente cliente) {
+        if (cliente == null || cliente.getId() <= 0) {
+            return;
+        }
+        Cliente copia = copiar(cliente);
+        synchronized (this) {
+            removerIndices(copia.getId());
+            indexar(copia);
+            versao++;
+            if (alteradosNaCarga != null) {
+                alteradosNaCarga.put(copia.getId(), copia);
+            }
+        }
+        for (Ouvinte ouvinte : ouvintes) {
+            ouvinte.clienteAlterado(copia.getId(), copiar(copia));
+        }
+    }
+    
+    /**
+     * Chamado pelo DAO depois de excluir um cliente.
+     */
+    public void registrarExcluido(int id) {
+        synchronized (this) {
+            removerIndices(id);
+            versao++;
+            if (alteradosNaCarga != null) {
+                alteradosNaCarga.put(id, null);
+            }
+        }
+        for (Ouvinte ouvinte : ouvintes) {
+            ouvinte.clienteAlterado(id, null);
+        }
+    }
+    
+    /**
+     * Descarta todo o conteúdo; a próxima leitura recarrega a tabela.
+     */
+    public void invalidar() {
+        synchronized (this) {
+            porId.clear();
+            porDocumento.clear();
+            indiceBusca.limpar();
+            ordenados = null;
+            posicaoPorNome = null;
+            carregado = false;
+            geracao++;
+            versao++;
+            alteradosNaCarga = null;
+        }
+        for (Ouvinte ouvinte : ouvintes) {
+            ouvinte.cacheInvalidado();
+        }
+    }
+    
+    /**
+     * Registra um ouvinte. Chamar {@code close()} no retorno cancela o registro.
+     */
+    public AutoCloseable adicionarOuvinte(Ouvinte ouvinte) {
+        ouvintes.add(ouvinte);
+        return () -> ouvintes.remove(ouvinte);
+    }
+    
+    /**
+     * Aplica uma alteração recebida do banco. Exclusões são aplicadas na hora;
+     * inserções e atualizações releem apenas a linha alterada no ExecutorDAO.
+     */
+    private void aplicarAlteracao(Alteracao alteracao) {
+        if (alteracao.isResincronizar()) {
+            invalidar();
+            return;
+        }
+        // Gravações desta estação já passaram pelo ClienteDAO
+        if (!alteracao.afetaCliente() || alteracao.isLocal()) {
+            return;
+        }
+        int id = alteracao.getId();
+        if (alteracao.isExclusao()) {
+            registrarExcluido(id);
+            return;
+        }
+        synchronized (this) {
+            // Ainda não carregado: a próxima leitura já trará a linha nova
+            if (!carregado && !porId.containsKey(id)) {
+                return;
+            }
+        }
+        ExecutorDAO.submeter(() -> clienteDAO.buscarPorId(id)).whenComplete((cliente, falha) -> {
+            if (falha != null) {
+                log.error("Falha ao reler o cliente {} alterado em outra estação", id, falha);
+            } else if (cliente != null) {
+                registrarGravado(cliente);
+            } else {
+                registrarExcluido(id);
+            }
+        });
+    }
+    
+    /**
+     * Lê a tabela fora do lock do cache e publica o resultado sob ele.
+     */
+    private void carregarSeNecessario() throws SQLException {
+        synchronized (this) {
+            if (carregado) {
+                return;
+            }
+        }
+        synchronized (carga) {
+            while (true) {
+                long geracaoCarga;
+                synchronized (this) {
+                    if (carregado) {
+                        return;
+                    }
+                    geracaoCarga = geracao;
+                    alteradosNaCarga = new HashMap<>();
+                }
+                List<Cliente> clientes;
+                try {
+                    clientes = clienteDAO.listarTodos();
+                } catch (SQLException | RuntimeException e) {
+                    synchronized (this) {
+                        alteradosNaCarga = null;
+                    }
+                    throw e;
+                }
+                synchronized (this) {
+                    if (geracao != geracaoCarga) {
+                        // Invalidado durante a leitura: o resultado pode estar velho
+                        continue;
+                    }
+                    porId.clear();
+                    porDocumento.clear();
+                    indiceBusca.limpar();
+                    for (Cliente c : clientes) {
+                        if (!alteradosNaCarga.containsKey(c.getId())) {
+                            indexar(c);
+                        }
+                    }
+                    for (Cliente alterado : alteradosNaCarga.values()) {
+                        if (alterado != null) {
+                            indexar(alterado);
+                        }
+                    }
+                    alteradosNaCarga = null;
+                    carregado = true;
+                    return;
+                }
+            }
+        }
+    }
+    
+    private void indexar(Cliente cliente) {
+        porId.put(cliente.getId(), cliente);
+        String documento = normalizarDocumento(cliente.getDocumento());
+        if (!documento.isEmpty()) {
+            porDocumento.put(documento, cliente);
+        }
+        indiceBusca.adicionar(cliente);
+        ordenados = null;
+        posicaoPorNome = null;
+    }
+    
+    private void removerIndices(int id) {
+        Cliente anterior = porId.remove(id);
+        if (anterior != null) {
+            String documento = normalizarDocumento(anterior.getDocumento());
+            if (porDocumento.get(documento) == anterior) {
+                porDocumento.remove(documento);
+            }
+        }
+        indiceBusca.remover(id);
+        ordenados = null;
+        posicaoPorNome = null;
+    }
+    
+    /**
+     * CPF/CNPJ comparados sem a máscara, só pelas letras e dígitos: o CNPJ
+     * alfanumérico tem letras nas doze primeiras posições. Letras são
+     * comparadas em maiúsculas.
+     */
+    private static String normalizarDocumento(String documento) {
+        if (documento == null) {
+            return "";
+        }
+        StringBuilder caracteres = new StringBuilder(documento.length());
+        for (int i = 0; i < documento.length(); i++) {
+            char c = documento.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                caracteres.append(Character.toUpperCase(c));
+            }
+        }
+        return caracteres.toString();
+    }
+    
+    private static Cliente copiar(Cliente c) {
+        Cliente copia = new Cliente(c.getNome(), c.getEndereco(), c.getTelefone(), c.getEmail(), c.getDocumento());
+        copia.setId(c.getId());
+        return copia;
+    }
+}
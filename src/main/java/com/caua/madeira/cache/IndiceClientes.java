@@ -0,0 +1,307 @@
+package com.caua.madeira.cache;
+
+import com.caua.madeira.model.Cliente;
+import com.caua.madeira.util.TextUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Índice de busca textual dos clientes, sem acentos e sem diferença entre
+ * maiúsculas e minúsculas ("joao" encontra "João").
+ *
+ * O texto de cada cliente (nome, documento, telefone, e-mail) é normalizado
+ * uma única vez, ao ser indexado, e quebrado em palavras. Cada palavra
+ * digitada com 1 ou 2 letras casa com o início de alguma palavra do cliente;
+ * com 3 letras ou mais, com qualquer trecho do texto (índice de trigramas,
+ * que cobre também os inícios de palavra). Todas as palavras digitadas
+ * precisam casar.
+ *
+ * As listas de ids são arrays de int ordenados ({@link Ids}), intersectados
+ * a partir do menor; por cliente só fica guardado o texto normalizado, e as
+ * palavras e trigramas são recalculados dele ao remover. Com 100 mil clientes
+ * a carga e as consultas são medidas por {@code IndiceClientesMedicao}
+ * (src/test/java).
+ *
+ * Não é thread-safe; o {@link ClienteCache} serializa o acesso.
+ */
+final class IndiceClientes {
+    
+    private static final int TAMANHO_NGRAMA = 3;
+    private static final int[] NENHUM = new int[0];
+    
+    /**
+     * Lista de ids sem repetição. Os ids entram no fim e a lista só é
+     * ordenada quando alguém a lê, então a carga inteira custa um sort por lista.
+     */
+    private static final class Ids {
+        private int[] ids = new int[4];
+        private int tamanho;
+        private boolean ordenada = true;
+    
+        void adicionar(int id) {
+            if (tamanho > 0) {
+                int ultimo = ids[tamanho - 1];
+                if (ultimo == id) {
+                    // Mesmo trigrama ou palavra repetido no texto do cliente
+                    return;
+                }
+                if (ultimo > id) {
+                    ordenada = false;
+                }
+            }
+            if (tamanho == ids.length) {
+                ids = Arrays.copyOf(ids, tamanho + (tamanho >> 1) + 1);
+            }
+            ids[tamanho++] = id;
+        }
+    
+        void remover(int id) {
+            ordenar();
+            int posicao = Arrays.binarySearch(ids, 0, tamanho, id);
+            if (posicao >= 0) {
+                System.arraycopy(ids, posicao + 1, ids, posicao, tamanho - posicao - 1);
+                tamanho--;
+            }
+        }
+    
+        int tamanho() {
+            ordenar();
+            return tamanho;
+        }
+    
+        /**
+         * Os ids ordenados; o array pode ser maior que {@link #tamanho()}.
+         */
+        int[] ordenados() {
+            ordenar();
+            return ids;
+        }
+    
+        private void ordenar() {
+            if (ordenada) {
+                return;
+            }
+            Arrays.sort(ids, 0, tamanho);
+            int unicos = 0;
+            for (int i = 0; i < tamanho; i++) {
+                if (unicos == 0 || ids[unicos - 1] != ids[i]) {
+                    ids[unicos++] = ids[i];
+                }
+            }
+            tamanho = unicos;
+            ordenada = true;
+        }
+    }
+    
+    // Chave: as 1 e 2 primeiras letras de cada palavra
+    private final Map<String, Ids> porInicio = new HashMap<>();
+    // Chave: os 3 caracteres do trigrama num long
+    private final Map<Long, Ids> porTrigrama = new HashMap<>();
+    // Texto normalizado de cada cliente
+    private final Map<Integer, String> textos = new HashMap<>();
+    
+    void adicionar(Cliente cliente) {
+        int id = cliente.getId();
+        remover(id);
+    
+        StringBuilder texto = new StringBuilder();
+        for (String campo : new String[]{cliente.getNome(), cliente.getEmail(),
+                cliente.getDocumento(), cliente.getTelefone()}) {
+            for (String palavra : quebrar(TextUtils.normalizar(campo))) {
+                anexarPalavra(texto, palavra);
+            }
+        }
+        // CPF/CNPJ e telefone também podem ser digitados sem máscara
+        for (String campo : new String[]{cliente.getDocumento(), cliente.getTelefone()}) {
+            anexarPalavra(texto, TextUtils.somenteDigitos(campo));
+        }
+        String normalizado = texto.toString();
+    
+        textos.put(id, normalizado);
+        for (String palavra : quebrar(normalizado)) {
+            for (int n = 1; n < TAMANHO_NGRAMA && n <= palavra.length(); n++) {
+                porInicio.computeIfAbsent(palavra.substring(0, n), k -> new Ids()).adicionar(id);
+            }
+        }
+        for (int i = 0; i + TAMANHO_NGRAMA <= normalizado.length(); i++) {
+            porTrigrama.computeIfAbsent(trigrama(normalizado, i), k -> new Ids()).adicionar(id);
+        }
+    }
+    
+    void remover(int id) {
+        String texto = textos.remove(id);
+        if (texto == null) {
+            return;
+        }
+        for (String palavra : quebrar(texto)) {
+            for (int n = 1; n < TAMANHO_NGRAMA && n <= palavra.length(); n++) {
+                String inicio = palavra.substring(0, n);
+                Ids ids = porInicio.get(inicio);
+                if (ids != null) {
+                    ids.remover(id);
+                    if (ids.tamanho() == 0) {
+                        porInicio.remove(inicio);
+                    }
+                }
+            }
+        }
+        for (int i = 0; i + TAMANHO_NGRAMA <= texto.length(); i++) {
+            Long chave = trigrama(texto, i);
+            Ids ids = porTrigrama.get(chave);
+            if (ids != null) {
+                ids.remover(id);
+                if (ids.tamanho() == 0) {
+                    porTrigrama.remove(chave);
+                }
+            }
+        }
+    }
+    
+    void limpar() {
+        porInicio.clear();
+        porTrigrama.clear();
+        textos.clear();
+    }
+    
+    int tamanho() {
+        return textos.size();
+    }
+    
+    /**
+     * Ids, em ordem crescente, dos clientes em que todas as palavras de
+     * {@code termo} casam. Termo vazio devolve todos.
+     */
+    int[] procurar(String termo) {
+        List<String> procuradas = quebrar(TextUtils.normalizar(termo));
+        if (procuradas.isEmpty()) {
+            int[] todos = new int[textos.size()];
+            int n = 0;
+            for (Integer id : textos.keySet()) {
+                todos[n++] = id;
+            }
+            Arrays.sort(todos);
+            return todos;
+        }
+    
+        int[] resultado = null;
+        for (String procurada : procuradas) {
+            int[] encontrados = procurarPalavra(procurada);
+            resultado = resultado == null ? encontrados : intersecao(resultado, resultado.length, encontrados, encontrados.length);
+            if (resultado.length == 0) {
+                break;
+            }
+        }
+        return resultado;
+    }
+    
+    private int[] procurarPalavra(String procurada) {
+        if (procurada.length() < TAMANHO_NGRAMA) {
+            Ids ids = porInicio.get(procurada);
+            return ids != null ? Arrays.copyOf(ids.ordenados(), ids.tamanho()) : NENHUM;
+        }
+        // Candidatos são os que têm todos os trigramas, conferidos no texto
+        int[] candidatos = candidatosPorTrigrama(procurada);
+        int conferidos = 0;
+        for (int id : candidatos) {
+            if (textos.get(id).contains(procurada)) {
+                candidatos[conferidos++] = id;
+            }
+        }
+        return conferidos == candidatos.length ? candidatos : Arrays.copyOf(candidatos, conferidos);
+    }
+    
+    private int[] candidatosPorTrigrama(String procurada) {
+        List<Ids> listas = new ArrayList<>();
+        for (int i = 0; i + TAMANHO_NGRAMA <= procurada.length(); i++) {
+            Ids ids = porTrigrama.get(trigrama(procurada, i));
+            if (ids == null) {
+                return NENHUM;
+            }
+            listas.add(ids);
+        }
+        // Começa pela lista menor: cada interseção fica limitada por ela
+        listas.sort((a, b) -> Integer.compare(a.tamanho(), b.tamanho()));
+        Ids menor = listas.get(0);
+        int[] candidatos = Arrays.copyOf(menor.ordenados(), menor.tamanho());
+        for (int i = 1; i < listas.size() && candidatos.length > 0; i++) {
+            Ids lista = listas.get(i);
+            candidatos = intersecao(candidatos, candidatos.length, lista.ordenados(), lista.tamanho());
+        }
+        return candidatos;
+    }
+    
+    /**
+     * Interseção de dois arrays ordenados. Quando um é bem menor que o outro,
+     * procura cada elemento dele por busca binária no maior.
+     */
+    private static int[] intersecao(int[] a, int tamanhoA, int[] b, int tamanhoB) {
+        if (tamanhoA > tamanhoB) {
+            return intersecao(b, tamanhoB, a, tamanhoA);
+        }
+        int[] resultado = new int[tamanhoA];
+        int n = 0;
+        if ((long) tamanhoA * 32 < tamanhoB) {
+            int inicio = 0;
+            for (int i = 0; i < tamanhoA; i++) {
+                int posicao = Arrays.binarySearch(b, inicio, tamanhoB, a[i]);
+                if (posicao >= 0) {
+                    resultado[n++] = a[i];
+                    inicio = posicao + 1;
+                } else {
+                    inicio = -posicao - 1;
+                }
+            }
+        } else {
+            int i = 0;
+            int j = 0;
+            while (i < tamanhoA && j < tamanhoB) {
+                if (a[i] < b[j]) {
+                    i++;
+                } else if (a[i] > b[j]) {
+                    j++;
+                } else {
+                    resultado[n++] = a[i];
+                    i++;
+                    j++;
+                }
+            }
+        }
+        return n == resultado.length ? resultado : Arrays.copyOf(resultado, n);
+    }
+    
+    private static Long trigrama(String texto, int inicio) {
+        long chars = ((long) texto.charAt(inicio) << 32) | ((long) texto.charAt(inicio + 1) << 16) | texto.charAt(inicio + 2);
+        // Multiplicar por um ímpar não gera colisões e espalha os bits; sem isso o
+        // hash do Long (metade alta XOR baixa) junta trigramas ASCII nos mesmos baldes
+        return chars * 0x9E3779B97F4A7C15L;
+    }
+    
+    private static void anexarPalavra(StringBuilder texto, String palavra) {
+        if (palavra.isEmpty()) {
+            return;
+        }
+        if (texto.length() > 0) {
+            texto.append(' ');
+        }
+        texto.append(palavra);
+    }
+    
+    private static List<String> quebrar(String normalizado) {
+        List<String> palavras = new ArrayList<>();
+        int inicio = -1;
+        for (int i = 0; i <= normalizado.length(); i++) {
+            boolean letraOuDigito = i < normalizado.length() && Character.isLetterOrDigit(normalizado.charAt(i));
+            if (letraOuDigito && inicio < 0) {
+                inicio = i;
+            } else if (!letraOuDigito && inicio >= 0) {
+                palavras.add(normalizado.substring(inicio, i));
+                inicio = -1;
+            }
+        }
+        return palavras;
+    }
+}
@@ -1,6 +1,6 @@
 package com.caua.madeira.dao;
 
-import com.caua.madeira.database.Conexao;
+import com.caua.madeira.cache.ClienteCache;
 import com.caua.madeira.model.Cliente;
 
 import java.sql.*;
@@ -12,98 +12,95 @@ public class ClienteDAO {
     public void salvar(Cliente cliente) throws SQLException {
         String sql = "INSERT INTO clientes (nome, endereco, telefone, email, documento) " +
                     "VALUES (?, ?, ?, ?, ?) RETURNING id;";
-            
-        try (Connection conn = Conexao.conectar();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setString(1, cliente.getNome());
-            stmt.setString(2, cliente.getEndereco());
-            stmt.setString(3, cliente.getTelefone());
-            stmt.setString(4, cliente.getEmail());
-            stmt.setString(5, cliente.getDocumento());
-            
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                cliente.setId(rs.getInt("id"));
+        
+        Transacao.executarSemRetorno(conn -> {
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setString(1, cliente.getNome());
+                stmt.setString(2, cliente.getEndereco());
+                stmt.setString(3, cliente.getTelefone());
+                stmt.setString(4, cliente.getEmail());
+                stmt.setString(5, cliente.getDocumento());
+                
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (rs.next()) {
+                        cliente.setId(rs.getInt("id"));
+                    }
+                }
             }
-        }
+        });
+        ClienteCache.getInstance().registrarGravado(cliente);
     }
     
     public void atualizar(Cliente cliente) throws SQLException {
         String sql = "UPDATE clientes SET nome = ?, endereco = ?, telefone = ?, email = ?, documento = ? " +
                     "WHERE id = ?;";
-            
-        try (Connection conn = Conexao.conectar();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setString(1, cliente.getNome());
-            stmt.setString(2, cliente.getEndereco());
-            stmt.setString(3, cliente.getTelefone());
-            stmt.setString(4, cliente.getEmail());
-            stmt.setString(5, cliente.getDocumento());
-            stmt.setInt(6, cliente.getId());
-            
-            stmt.executeUpdate();
-        }
+        
+        Transacao.executarSemRetorno(conn -> {
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setString(1, cliente.getNome());
+                stmt.setString(2, cliente.getEndereco());
+                stmt.setString(3, cliente.getTelefone());
+                stmt.setString(4, cliente.getEmail());
+                stmt.setString(5, cliente.getDocumento());
+                stmt.setInt(6, cliente.getId());
+                
+                stmt.executeUpdate();
+            }
+        });
+        ClienteCache.getInstance().registrarGravado(cliente);
     }
     
     public void excluir(int id) throws SQLException {
         String sql = "DELETE FROM clientes WHERE id = ?;";
         
-        try (Connection conn = Conexao.conectar();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setInt(1, id);
-            stmt.executeUpdate();
-        }
+        Transacao.executarSemRetorno(conn -> {
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setInt(1, id);
+                stmt.executeUpdate();
+            }
+        });
+        ClienteCache.getInstance().registrarExcluido(id);
     }
     
     public List<Cliente> listarTodos() throws SQLException {
-        List<Cliente> clientes = new ArrayList<>();
         String sql = "SELECT * FROM clientes ORDER BY nome;";
         
-        try (Connection conn = Conexao.conectar();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-            
-            while (rs.next()) {
-                Cliente cliente = new Cliente();
-                cliente.setId(rs.getInt("id"));
-                cliente.setNome(rs.getString("nome"));
-                cliente.setEndereco(rs.getString("endereco"));
-                cliente.setTelefone(rs.getString("telefone"));
-                cliente.setEmail(rs.getString("email"));
-                cliente.setDocumento(rs.getString("documento"));
-                
-                clientes.add(cliente);
+        return Transacao.ler(conn -> {
+            List<Cliente> clientes = new ArrayList<>();
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery(sql)) {
+                while (rs.next()) {
+                    clientes.add(criarClienteAPartirResultSet(rs));
+                }
             }
-        }
-        
-        return clientes;
+            return clientes;
+        });
     }
     
     public Cliente buscarPorId(int id) throws SQLException {
         String sql = "SELECT * FROM clientes WHERE id = ?;";
         
-        try (Connection conn = Conexao.conectar();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setInt(1, id);
-            ResultSet rs = stmt.executeQuery();
-            
-            if (rs.next()) {
-                Cliente cliente = new Cliente();
-                cliente.setId(rs.getInt("id"));
-                cliente.setNome(rs.getString("nome"));
-                cliente.setEndereco(rs.getString("endereco"));
-                cliente.setTelefone(rs.getString("telefone"));
-                cliente.setEmail(rs.getString("email"));
-                cliente.setDocumento(rs.getString("documento"));
-                
-                return cliente;
+        return Transacao.ler(conn -> {
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setInt(1, id);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (rs.next()) {
+                        return criarClienteAPartirResultSet(rs);
+                    }
+                }
             }
-        }
-        
-        return null;
+            return null;
+        });
+    }
+    
+    private Cliente criarClienteAPartirResultSet(ResultSet rs) throws SQLException {
+        Cliente cliente = new Cliente();
+        cliente.setId(rs.getInt("id"));
+        cliente.setNome(rs.getString("nome"));
+        cliente.setEndereco(rs.getString("endereco"));
+        cliente.setTelefone(rs.getString("telefone"));
+        cliente.setEmail(rs.getString("email"));
+        cliente.setDocumento(rs.getString("documento"));
+        return cliente;
     }
 }
@@ -0,0 +1,65 @@
+package com.caua.madeira.dao;
+
+import com.caua.madeira.cache.ClienteCache;
+import com.caua.madeira.model.Cliente;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Fachada assíncrona sobre {@link ClienteDAO}: cada chamada roda no
+ * {@link ExecutorDAO} e devolve um CompletableFuture. As leituras são
+ * atendidas pelo {@link ClienteCache}.
+ */
+public class ClienteDAOAsync {
+    
+    private final ClienteDAO clienteDAO;
+    
+    public ClienteDAOAsync() {
+        this(new ClienteDAO());
+    }
+    
+    public ClienteDAOAsync(ClienteDAO clienteDAO) {
+        this.clienteDAO = clienteDAO;
+    }
+    
+    public CompletableFuture<Void> salvar(Cliente cliente) {
+        return ExecutorDAO.submeter(() -> {
+            clienteDAO.salvar(cliente);
+            return null;
+        });
+    }
+    
+    public CompletableFuture<Void> atualizar(Cliente cliente) {
+        return ExecutorDAO.submeter(() -> {
+            clienteDAO.atualizar(cliente);
+            return null;
+        });
+    }
+    
+    public CompletableFuture<Void> excluir(int id) {
+        return ExecutorDAO.submeter(() -> {
+            clienteDAO.excluir(id);
+            return null;
+        });
+    }
+    
+    public CompletableFuture<List<Cliente>> listarTodos() {
+        return ExecutorDAO.submeter(ClienteCache.getInstance()::listarTodos);
+    }
+    
+    /**
+     * No máximo {@code limite} clientes que casam com {@code termo}, por nome.
+     */
+    public CompletableFuture<List<Cliente>> buscar(String termo, int limite) {
+        return ExecutorDAO.submeter(() -> ClienteCache.getInstance().buscar(termo, limite));
+    }
+    
+    public CompletableFuture<Cliente> buscarPorId(int id) {
+        Cliente emCache = ClienteCache.getInstance().emCache(id);
+        if (emCache != null) {
+            return CompletableFuture.completedFuture(emCache);
+        }
+        return ExecutorDAO.submeter(() -> ClienteCache.getInstance().buscarPorId(id));
+    }
+}
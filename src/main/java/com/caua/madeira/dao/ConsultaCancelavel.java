@@ -0,0 +1,47 @@
+package com.caua.madeira.dao;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Permite interromper uma consulta em andamento, por exemplo quando o usuário
+ * continua digitando e a busca anterior deixou de interessar.
+ *
+ * O DAO registra o Statement enquanto ele executa; {@link #cancelar()} chama
+ * {@link Statement#cancel()} nele, e o servidor aborta a consulta. Se o
+ * cancelamento vier antes da execução começar, a consulta nem é enviada.
+ */
+public final class ConsultaCancelavel {
+    
+    /** SQLSTATE do PostgreSQL para consulta cancelada (query_canceled). */
+    public static final String ESTADO_CANCELADA = "57014";
+    
+    private Statement statement;
+    private boolean cancelada;
+    
+    public synchronized void cancelar() {
+        cancelada = true;
+        if (statement != null) {
+            try {
+                statement.cancel();
+            } catch (SQLException e) {
+                // A consulta pode ter terminado nesse meio tempo
+            }
+        }
+    }
+    
+    public synchronized boolean isCancelada() {
+        return cancelada;
+    }
+    
+    synchronized void iniciar(Statement stmt) throws SQLException {
+        if (cancelada) {
+            throw new SQLException("Consulta cancelada", ESTADO_CANCELADA);
+        }
+        statement = stmt;
+    }
+    
+    synchronized void concluir() {
+        statement = null;
+    }
+}
@@ -0,0 +1,11 @@
+package com.caua.madeira.dao;
+
+import java.sql.SQLException;
+
+/**
+ * Recebe, um a um, os registros de uma leitura em streaming do DAO.
+ */
+@FunctionalInterface
+public interface ConsumidorLinha<T> {
+    void aceitar(T registro) throws SQLException;
+}
@@ -0,0 +1,50 @@
+package com.caua.madeira.dao;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Posição numa listagem de orçamentos ordenada por (coluna, id), codificada
+ * como texto opaco. Guarda a ordem para rejeitar cursores de outra ordenação.
+ */
+final class CursorOrdenado {
+    private final OrdemResumo ordem;
+    private final Object valor;
+    private final int id;
+    
+    CursorOrdenado(OrdemResumo ordem, Object valor, int id) {
+        this.ordem = ordem;
+        this.valor = valor;
+        this.id = id;
+    }
+    
+    Object getValor() {
+        return valor;
+    }
+    
+    int getId() {
+        return id;
+    }
+    
+    String codificar() {
+        // O valor fica por último porque pode conter o separador
+        String texto = ordem.name() + ":" + id + ":" + valor;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(texto.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    static CursorOrdenado decodificar(String cursor, OrdemResumo ordemEsperada) throws SQLException {
+        try {
+            String texto = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] partes = texto.split(":", 3);
+            OrdemResumo ordem = OrdemResumo.valueOf(partes[0]);
+            if (ordem != ordemEsperada) {
+                throw new SQLException("Cursor de outra ordenação (" + ordem + "): " + cursor);
+            }
+            return new CursorOrdenado(ordem, ordem.valorDeTexto(partes[2]), Integer.parseInt(partes[1]));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new SQLException("Cursor de paginação inválido: " + cursor, e);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.caua.madeira.dao;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Posição de uma listagem de orçamentos ordenada por (date DESC, id DESC),
+ * codificada como texto opaco para ser devolvida ao chamador.
+ */
+final class CursorQuote {
+    private final LocalDate date;
+    private final int id;
+    
+    CursorQuote(LocalDate date, int id) {
+        this.date = date;
+        this.id = id;
+    }
+    
+    LocalDate getDate() {
+        return date;
+    }
+    
+    int getId() {
+        return id;
+    }
+    
+    String codificar() {
+        String texto = date + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(texto.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    static CursorQuote decodificar(String cursor) throws SQLException {
+        try {
+            String texto = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separador = texto.lastIndexOf(':');
+            return new CursorQuote(
+                LocalDate.parse(texto.substring(0, separador)),
+                Integer.parseInt(texto.substring(separador + 1))
+            );
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new SQLException("Cursor de paginação inválido: " + cursor, e);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.caua.madeira.dao;
+
+import com.caua.madeira.database.Conexao;
+
+import java.sql.SQLException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executor dedicado e limitado para as chamadas JDBC, de modo que nenhuma
+ * consulta rode na thread da interface. O número de threads acompanha o
+ * tamanho do pool de conexões ({@link Conexao#getTamanhoMaximoPool()}, salvo
+ * -Dm3gestor.dao.threads); a fila é limitada e, se encher, a tarefa falha em
+ * vez de rodar na thread chamadora.
+ */
+public final class ExecutorDAO {
+    
+    @FunctionalInterface
+    public interface TarefaSQL<T> {
+        T executar() throws SQLException;
+    }
+    
+    private static final int THREADS = Integer.getInteger("m3gestor.dao.threads", Conexao.getTamanhoMaximoPool());
+    private static final int CAPACIDADE_FILA = 256;
+    
+    private static final ThreadPoolExecutor EXECUTOR = criarExecutor();
+    
+    private ExecutorDAO() {
+    }
+    
+    public static <T> CompletableFuture<T> submeter(TarefaSQL<T> tarefa) {
+        CompletableFuture<T> futuro = new CompletableFuture<>();
+        try {
+            EXECUTOR.execute(() -> {
+                if (futuro.isCancelled()) {
+                    return;
+                }
+                try {
+                    futuro.complete(tarefa.executar());
+                } catch (Throwable e) {
+                    futuro.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            futuro.completeExceptionally(e);
+        }
+        return futuro;
+    }
+    
+    /**
+     * Interrompe as tarefas pendentes. Usado no encerramento da aplicação.
+     */
+    public static void encerrar() {
+        EXECUTOR.shutdownNow();
+    }
+    
+    private static ThreadPoolExecutor criarExecutor() {
+        AtomicInteger contador = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+            THREADS, THREADS, 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(CAPACIDADE_FILA),
+            r -> {
+                Thread t = new Thread(r, "dao-" + contador.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+}
@@ -0,0 +1,76 @@
+package com.caua.madeira.dao;
+
+import com.caua.madeira.model.QuoteSummary;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+
+/**
+ * Colunas pelas quais a listagem paginada de orçamentos pode ser ordenada.
+ * O id entra sempre como desempate, de modo que (coluna, id) é uma chave
+ * única e serve de cursor para a paginação por chave.
+ *
+ * Os textos são comparados com COLLATE "C" (ordem dos códigos dos
+ * caracteres), a mesma de {@link String#compareTo}: a tela pode inserir uma
+ * linha no lugar certo sem consultar o banco, e o cursor não pula nem repete
+ * linhas por diferença de collation.
+ */
+public enum OrdemResumo {
+    NOME("name COLLATE \"C\""),
+    CLIENTE("COALESCE(client_name, '') COLLATE \"C\""),
+    DATA("date"),
+    TOTAL("total_value");
+    
+    private final String expressao;
+    
+    OrdemResumo(String expressao) {
+        this.expressao = expressao;
+    }
+    
+    String getExpressao() {
+        return expressao;
+    }
+    
+    /**
+     * Valor da coluna de ordenação no resumo, no mesmo formato usado pela consulta.
+     */
+    Object valorDe(QuoteSummary resumo) {
+        switch (this) {
+            case NOME:
+                return resumo.getName();
+            case CLIENTE:
+                return resumo.getClientName() != null ? resumo.getClientName() : "";
+            case DATA:
+                return resumo.getDate();
+            default:
+                return resumo.getTotalValue();
+        }
+    }
+    
+    void definirParametro(PreparedStatement stmt, int indice, Object valor) throws SQLException {
+        switch (this) {
+            case DATA:
+                stmt.setDate(indice, Date.valueOf((LocalDate) valor));
+                break;
+            case TOTAL:
+                stmt.setDouble(indice, (Double) valor);
+                break;
+            default:
+                stmt.setString(indice, (String) valor);
+                break;
+        }
+    }
+    
+    Object valorDeTexto(String texto) {
+        switch (this) {
+            case DATA:
+                return LocalDate.parse(texto);
+            case TOTAL:
+                return Double.valueOf(texto);
+            default:
+                return texto;
+        }
+    }
+}
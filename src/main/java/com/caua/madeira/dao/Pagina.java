@@ -0,0 +1,34 @@
+package com.caua.madeira.dao;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Uma página de resultados de uma listagem paginada por chave (keyset).
+ * O cursor é opaco: deve apenas ser repassado na próxima chamada para obter
+ * a página seguinte.
+ */
+public class Pagina<T> {
+    private final List<T> itens;
+    private final String proximoCursor;
+    
+    public Pagina(List<T> itens, String proximoCursor) {
+        this.itens = Collections.unmodifiableList(itens);
+        this.proximoCursor = proximoCursor;
+    }
+    
+    public List<T> getItens() {
+        return itens;
+    }
+    
+    /**
+     * Cursor para a página seguinte ou {@code null} quando esta é a última.
+     */
+    public String getProximoCursor() {
+        return proximoCursor;
+    }
+    
+    public boolean temProxima() {
+        return proximoCursor != null;
+    }
+}
@@ -1,261 +1,835 @@
 package com.caua.madeira.dao;
 
-import com.caua.madeira.database.Conexao;
+import com.caua.madeira.model.BlocoItens;
+import com.caua.madeira.model.ClientQuoteTotals;
 import com.caua.madeira.model.Quote;
 import com.caua.madeira.model.QuoteItem;
+import com.caua.madeira.model.QuoteSummary;
+import com.caua.madeira.util.PontoFixo;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class QuoteDAO {
     
+    private static final String COLUNAS_RESUMO = "id, name, client_id, client_name, date, total_value";
+    
+    @FunctionalInterface
+    private interface LeitorLinha<T> {
+        T ler(ResultSet rs) throws SQLException;
+    }
+    
     public void salvar(Quote quote) throws SQLException {
         String sql = "INSERT INTO quotes (name, client_id, client_name, date, shipping_value, total_value, discount, complemento) " +
                     "VALUES (?, ?, ?, ?, ?, ?, ?, ?) RETURNING id;";
-            
-        try (Connection conn = Conexao.conectar();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setString(1, quote.getName());
-            stmt.setInt(2, quote.getClientId());
-            stmt.setString(3, quote.getClientName());
-            stmt.setDate(4, Date.valueOf(quote.getDate()));
-            stmt.setDouble(5, quote.getShippingValue());
-            stmt.setDouble(6, quote.getTotalValue());
-            stmt.setDouble(7, quote.getDiscount());
-            stmt.setString(8, quote.getComplemento());
-            
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                int quoteId = rs.getInt("id");
-                quote.setId(quoteId);
+        
+        // Cabeçalho e itens na mesma transação: ou grava tudo, ou nada
+        try {
+            Transacao.executarSemRetorno(conn -> {
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    stmt.setString(1, quote.getName());
+                    stmt.setInt(2, quote.getClientId());
+                    stmt.setString(3, quote.getClientName());
+                    stmt.setDate(4, Date.valueOf(quote.getDate()));
+                    stmt.setDouble(5, PontoFixo.arredondarReais(quote.getShippingValue()));
+                    stmt.setDouble(6, PontoFixo.arredondarReais(quote.getTotalValue()));
+                    stmt.setDouble(7, quote.getDiscount());
+                    stmt.setString(8, quote.getComplemento());
                 
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        if (rs.next()) {
+                            quote.setId(rs.getInt("id"));
+                        }
+                    }
+                }
+            
                 // Salva os itens do orçamento
-                salvarItens(quoteId, quote.getItems(), conn);
-            }
+                salvarItens(quote.getId(), quote.getItems(), conn);
+            });
+        } catch (SQLException e) {
+            // A transação foi desfeita: o id atribuído pelo INSERT não existe mais
+            quote.setId(0);
+            throw e;
         }
     }
     
     public void atualizar(Quote quote) throws SQLException {
         String sql = "UPDATE quotes SET name = ?, client_id = ?, client_name = ?, date = ?, " +
                     "shipping_value = ?, total_value = ?, discount = ?, complemento = ? WHERE id = ?;";
+        
+        Transacao.executarSemRetorno(conn -> {
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setString(1, quote.getName());
+                stmt.setInt(2, quote.getClientId());
+                stmt.setString(3, quote.getClientName());
+                stmt.setDate(4, Date.valueOf(quote.getDate()));
+                stmt.setDouble(5, PontoFixo.arredondarReais(quote.getShippingValue()));
+                stmt.setDouble(6, PontoFixo.arredondarReais(quote.getTotalValue()));
+                stmt.setDouble(7, quote.getDiscount());
+                stmt.setString(8, quote.getComplemento());
+                stmt.setInt(9, quote.getId());
+                
+                stmt.executeUpdate();
+            }
             
-        try (Connection conn = Conexao.conectar();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setString(1, quote.getName());
-            stmt.setInt(2, quote.getClientId());
-            stmt.setString(3, quote.getClientName());
-            stmt.setDate(4, Date.valueOf(quote.getDate()));
-stmt.setDouble(5, quote.getShippingValue());
-            stmt.setDouble(6, quote.getTotalValue());
-            stmt.setDouble(7, quote.getDiscount());
-            stmt.setString(8, quote.getComplemento());
-            stmt.setInt(9, quote.getId());
-            
-            stmt.executeUpdate();
-            
-            // Remove os itens antigos e adiciona os novos
-            excluirItens(quote.getId(), conn);
-            salvarItens(quote.getId(), quote.getItems(), conn);
-        }
+            // Aplica somente as diferenças em relação aos itens já gravados
+            sincronizarItens(quote.getId(), quote.getItems(), conn);
+        });
     }
     
     public void excluir(int id) throws SQLException {
         String sql = "DELETE FROM quotes WHERE id = ?;";
         
-        try (Connection conn = Conexao.conectar();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
+        Transacao.executarSemRetorno(conn -> {
             // Primeiro exclui os itens do orçamento
             excluirItens(id, conn);
             
             // Depois exclui o orçamento
-            stmt.setInt(1, id);
-            stmt.executeUpdate();
-        }
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setInt(1, id);
+                stmt.executeUpdate();
+            }
+        });
     }
     
     public List<Quote> buscarPorNome(String nome) throws SQLException {
         String sql = "SELECT * FROM quotes WHERE name ILIKE ? ORDER BY id DESC";
-        List<Quote> orcamentos = new ArrayList<>();
         
-        try (Connection conn = Conexao.conectar();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setString(1, "%" + nome + "%");
-            ResultSet rs = stmt.executeQuery();
-            
-            while (rs.next()) {
-                Quote quote = new Quote();
-                quote.setId(rs.getInt("id"));
-                quote.setName(rs.getString("name"));
-                quote.setClientId(rs.getInt("client_id"));
-                quote.setClientName(rs.getString("client_name"));
-                quote.setDate(rs.getDate("date").toLocalDate());
-                quote.setShippingValue(rs.getDouble("shipping_value"));
-                quote.setTotalValue(rs.getDouble("total_value"));
-                quote.setDiscount(rs.getDouble("discount"));
-                
-                // Carrega os itens do orçamento
-                List<QuoteItem> itens = buscarItens(quote.getId());
-                quote.setItems(itens);
-                
-                orcamentos.add(quote);
+        return Transacao.ler(conn -> {
+            List<Quote> orcamentos = new ArrayList<>();
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setString(1, "%" + nome + "%");
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        orcamentos.add(criarQuoteAPartirResultSet(rs));
+                    }
+                }
             }
-        }
+            
+            // Carrega os itens de todos os orçamentos numa única consulta
+            carregarItens(orcamentos, conn);
+            return orcamentos;
+        });
+    }
+    
+    /**
+     * Busca por nome do orçamento ou do cliente, ordenada por relevância e limitada
+     * aos {@code limite} melhores resultados. Tanto o ILIKE quanto o operador de
+     * similaridade (%) usam os índices de trigramas idx_quotes_*_trgm.
+     */
+    public List<QuoteSummary> buscarResumos(String termo, int limite) throws SQLException {
+        return buscarResumos(termo, limite, null);
+    }
+    
+    /**
+     * Igual a {@link #buscarResumos(String, int)}, mas a consulta pode ser
+     * interrompida por {@code consulta} (que pode ser {@code null}).
+     */
+    public List<QuoteSummary> buscarResumos(String termo, int limite, ConsultaCancelavel consulta)
+            throws SQLException {
+        String sql = "SELECT " + COLUNAS_RESUMO + ", " +
+                    "GREATEST(similarity(name, ?), similarity(COALESCE(client_name, ''), ?)) AS relevancia " +
+                    "FROM quotes " +
+                    "WHERE name ILIKE ? OR client_name ILIKE ? OR name % ? OR client_name % ? " +
+                    "ORDER BY relevancia DESC, date DESC, id DESC LIMIT ?;";
+        String texto = termo != null ? termo.trim() : "";
+        String padrao = "%" + escaparLike(texto) + "%";
         
-        return orcamentos;
+        return Transacao.ler(conn -> {
+            List<QuoteSummary> resumos = new ArrayList<>();
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setString(1, texto);
+                stmt.setString(2, texto);
+                stmt.setString(3, padrao);
+                stmt.setString(4, padrao);
+                stmt.setString(5, texto);
+                stmt.setString(6, texto);
+                stmt.setInt(7, Math.max(1, limite));
+                if (consulta != null) {
+                    consulta.iniciar(stmt);
+                }
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        resumos.add(criarResumoAPartirResultSet(rs));
+                    }
+                } finally {
+                    if (consulta != null) {
+                        consulta.concluir();
+                    }
+                }
+            }
+            return resumos;
+        });
     }
     
     public List<Quote> listarTodos() throws SQLException {
-        List<Quote> quotes = new ArrayList<>();
         String sql = "SELECT * FROM quotes ORDER BY date DESC, id DESC;";
         
-        try (Connection conn = Conexao.conectar();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-            
-            while (rs.next()) {
-                Quote quote = criarQuoteAPartirResultSet(rs);
-                quotes.add(quote);
+        return Transacao.ler(conn -> {
+            List<Quote> quotes = new ArrayList<>();
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery(sql)) {
+                while (rs.next()) {
+                    quotes.add(criarQuoteAPartirResultSet(rs));
+                }
             }
-        }
-        
-        return quotes;
+            
+            carregarItens(quotes, conn);
+            return quotes;
+        });
     }
 
     public List<Quote> listarPorCliente(int clientId) throws SQLException {
-        List<Quote> quotes = new ArrayList<>();
         String sql = "SELECT * FROM quotes WHERE client_id = ? ORDER BY date DESC, id DESC;";
 
-        try (Connection conn = Conexao.conectar();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setInt(1, clientId);
-            ResultSet rs = stmt.executeQuery();
-
-            while (rs.next()) {
-                Quote quote = criarQuoteAPartirResultSet(rs);
-                quotes.add(quote);
+        return Transacao.ler(conn -> {
+            List<Quote> quotes = new ArrayList<>();
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setInt(1, clientId);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        quotes.add(criarQuoteAPartirResultSet(rs));
+                    }
+                }
             }
-        }
 
-        return quotes;
+            carregarItens(quotes, conn);
+            return quotes;
+        });
     }
 
-    public List<Quote> listarPorCliente(int clientId, int limit, int offset) throws SQLException {
-        List<Quote> quotes = new ArrayList<>();
-        String sql = "SELECT * FROM quotes WHERE client_id = ? ORDER BY date DESC, id DESC LIMIT ? OFFSET ?;";
+    /**
+     * Página de orçamentos completos (com itens) de um cliente, paginada por
+     * chave em (date DESC, id DESC). Passe {@code null} como cursor para a
+     * primeira página.
+     */
+    public Pagina<Quote> listarPorCliente(int clientId, String cursor, int limite) throws SQLException {
+        CursorQuote posicao = cursor != null ? CursorQuote.decodificar(cursor) : null;
+        String sql = montarConsultaPagina("*", "client_id = ?", posicao != null);
 
-        try (Connection conn = Conexao.conectar();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+        return Transacao.ler(conn -> {
+            Pagina<Quote> pagina;
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setInt(1, clientId);
+                pagina = lerPagina(stmt, 2, posicao, limite, this::criarQuoteAPartirResultSet);
+            }
 
-            stmt.setInt(1, clientId);
-            stmt.setInt(2, Math.max(1, limit));
-            stmt.setInt(3, Math.max(0, offset));
-            ResultSet rs = stmt.executeQuery();
+            carregarItens(pagina.getItens(), conn);
+            return pagina;
+        });
+    }
+    
+    /**
+     * Página de orçamentos completos (com itens) de todos os clientes.
+     */
+    public Pagina<Quote> listarTodos(String cursor, int limite) throws SQLException {
+        CursorQuote posicao = cursor != null ? CursorQuote.decodificar(cursor) : null;
+        String sql = montarConsultaPagina("*", null, posicao != null);
 
-            while (rs.next()) {
-                Quote quote = criarQuoteAPartirResultSet(rs);
-                quotes.add(quote);
+        return Transacao.ler(conn -> {
+            Pagina<Quote> pagina;
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                pagina = lerPagina(stmt, 1, posicao, limite, this::criarQuoteAPartirResultSet);
             }
-        }
 
-        return quotes;
+            carregarItens(pagina.getItens(), conn);
+            return pagina;
+        });
+    }
+    
+    /**
+     * Lista apenas os cabeçalhos dos orçamentos, sem tocar em quote_items.
+     */
+    public List<QuoteSummary> listarResumos() throws SQLException {
+        String sql = "SELECT " + COLUNAS_RESUMO + " FROM quotes ORDER BY date DESC, id DESC;";
+        
+        return Transacao.ler(conn -> {
+            List<QuoteSummary> resumos = new ArrayList<>();
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery(sql)) {
+                while (rs.next()) {
+                    resumos.add(criarResumoAPartirResultSet(rs));
+                }
+            }
+            return resumos;
+        });
+    }
+    
+    public List<QuoteSummary> listarResumosPorCliente(int clientId) throws SQLException {
+        String sql = "SELECT " + COLUNAS_RESUMO + " FROM quotes WHERE client_id = ? ORDER BY date DESC, id DESC;";
+        
+        return Transacao.ler(conn -> {
+            List<QuoteSummary> resumos = new ArrayList<>();
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setInt(1, clientId);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        resumos.add(criarResumoAPartirResultSet(rs));
+                    }
+                }
+            }
+            return resumos;
+        });
+    }
+    
+    public Pagina<QuoteSummary> listarResumos(String cursor, int limite) throws SQLException {
+        CursorQuote posicao = cursor != null ? CursorQuote.decodificar(cursor) : null;
+        String sql = montarConsultaPagina(COLUNAS_RESUMO, null, posicao != null);
+        
+        return Transacao.ler(conn -> {
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                return lerPagina(stmt, 1, posicao, limite, this::criarResumoAPartirResultSet);
+            }
+        });
+    }
+    
+    public Pagina<QuoteSummary> listarResumosPorCliente(int clientId, String cursor, int limite) throws SQLException {
+        return listarResumosPorCliente(clientId, cursor, null, limite);
+    }
+    
+    /**
+     * Página de cabeçalhos de um cliente depois de {@code cursorInicio}
+     * (exclusivo) e, se informado, até {@code cursorFim} (inclusivo), para que
+     * uma página já conhecida possa ser relida no mesmo intervalo.
+     */
+    public Pagina<QuoteSummary> listarResumosPorCliente(int clientId, String cursorInicio, String cursorFim,
+                                                        int limite) throws SQLException {
+        CursorQuote posicao = cursorInicio != null ? CursorQuote.decodificar(cursorInicio) : null;
+        CursorQuote fim = cursorFim != null ? CursorQuote.decodificar(cursorFim) : null;
+        String sql = montarConsultaPagina(COLUNAS_RESUMO, "client_id = ?", posicao != null, fim != null);
+        
+        return Transacao.ler(conn -> {
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setInt(1, clientId);
+                return lerPagina(stmt, 2, posicao, fim, limite, this::criarResumoAPartirResultSet);
+            }
+        });
+    }
+    
+    /**
+     * Quantidade, soma e data mais recente dos orçamentos de um cliente numa
+     * única agregação sobre idx_quotes_client_date_id.
+     */
+    public ClientQuoteTotals totalizarPorCliente(int clientId) throws SQLException {
+        String sql = "SELECT COUNT(*) AS quantidade, COALESCE(SUM(total_value), 0) AS soma, MAX(date) AS ultima "
+                   + "FROM quotes WHERE client_id = ?;";
+        
+        return Transacao.ler(conn -> {
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setInt(1, clientId);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    rs.next();
+                    Date ultima = rs.getDate("ultima");
+                    return new ClientQuoteTotals(clientId, rs.getLong("quantidade"),
+                            PontoFixo.arredondarReais(rs.getDouble("soma")),
+                            ultima != null ? ultima.toLocalDate() : null);
+                }
+            }
+        });
+    }
+    
+    /**
+     * Cabeçalho de um único orçamento, usado para atualizar uma linha da lista
+     * quando o orçamento é alterado. Devolve {@code null} se ele não existir mais.
+     */
+    public QuoteSummary buscarResumoPorId(int id) throws SQLException {
+        String sql = "SELECT " + COLUNAS_RESUMO + " FROM quotes WHERE id = ?;";
+        
+        return Transacao.ler(conn -> {
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setInt(1, id);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    return rs.next() ? criarResumoAPartirResultSet(rs) : null;
+                }
+            }
+        });
+    }
+    
+    /**
+     * Página de cabeçalhos ordenada por {@code ordem} (com id como desempate).
+     * Devolve as linhas depois de {@code cursorInicio} (exclusivo) e, se
+     * {@code cursorFim} for informado, até ele (inclusivo); assim uma página já
+     * conhecida pode ser relida exatamente no mesmo intervalo.
+     */
+    public Pagina<QuoteSummary> listarResumos(OrdemResumo ordem, boolean crescente, String cursorInicio,
+                                              String cursorFim, int limite) throws SQLException {
+        return listarResumosOrdenados(null, ordem, crescente, cursorInicio, cursorFim, limite);
+    }
+    
+    /**
+     * Como {@link #listarResumos(OrdemResumo, boolean, String, String, int)},
+     * só com os orçamentos de um cliente.
+     */
+    public Pagina<QuoteSummary> listarResumosPorCliente(int clientId, OrdemResumo ordem, boolean crescente,
+                                                        String cursorInicio, String cursorFim,
+                                                        int limite) throws SQLException {
+        return listarResumosOrdenados(clientId, ordem, crescente, cursorInicio, cursorFim, limite);
+    }
+    
+    private Pagina<QuoteSummary> listarResumosOrdenados(Integer clientId, OrdemResumo ordem, boolean crescente,
+                                                        String cursorInicio, String cursorFim,
+                                                        int limite) throws SQLException {
+        CursorOrdenado inicio = cursorInicio != null ? CursorOrdenado.decodificar(cursorInicio, ordem) : null;
+        CursorOrdenado fim = cursorFim != null ? CursorOrdenado.decodificar(cursorFim, ordem) : null;
+        String chave = "(" + ordem.getExpressao() + ", id)";
+        String direcao = crescente ? "ASC" : "DESC";
+        
+        StringBuilder sql = new StringBuilder("SELECT ").append(COLUNAS_RESUMO).append(" FROM quotes");
+        List<String> condicoes = new ArrayList<>(3);
+        if (clientId != null) {
+            condicoes.add("client_id = ?");
+        }
+        if (inicio != null) {
+            condicoes.add(chave + (crescente ? " > " : " < ") + "(?, ?)");
+        }
+        if (fim != null) {
+            condicoes.add(chave + (crescente ? " <= " : " >= ") + "(?, ?)");
+        }
+        if (!condicoes.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", condicoes));
+        }
+        sql.append(" ORDER BY ").append(ordem.getExpressao()).append(' ').append(direcao)
+           .append(", id ").append(direcao).append(" LIMIT ?;");
+        
+        int tamanho = Math.max(1, limite);
+        return Transacao.ler(conn -> {
+            try (PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+                int parametro = 1;
+                if (clientId != null) {
+                    stmt.setInt(parametro++, clientId);
+                }
+                for (CursorOrdenado limiteChave : new CursorOrdenado[]{inicio, fim}) {
+                    if (limiteChave != null) {
+                        ordem.definirParametro(stmt, parametro++, limiteChave.getValor());
+                        stmt.setInt(parametro++, limiteChave.getId());
+                    }
+                }
+                stmt.setInt(parametro, tamanho + 1);
+                
+                List<QuoteSummary> itens = new ArrayList<>();
+                boolean temMais = false;
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        if (itens.size() == tamanho) {
+                            temMais = true;
+                            break;
+                        }
+                        itens.add(criarResumoAPartirResultSet(rs));
+                    }
+                }
+                
+                String proximo = null;
+                if (temMais) {
+                    QuoteSummary ultimo = itens.get(itens.size() - 1);
+                    proximo = new CursorOrdenado(ordem, ordem.valorDe(ultimo), ultimo.getId()).codificar();
+                }
+                return new Pagina<>(itens, proximo);
+            }
+        });
     }
     
     public Quote buscarPorId(int id) throws SQLException {
         String sql = "SELECT * FROM quotes WHERE id = ?;";
         
-        try (Connection conn = Conexao.conectar();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setInt(1, id);
-            ResultSet rs = stmt.executeQuery();
+        return Transacao.ler(conn -> {
+            Quote quote = null;
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setInt(1, id);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (rs.next()) {
+                        quote = criarQuoteAPartirResultSet(rs);
+                    }
+                }
+            }
             
-            if (rs.next()) {
-                Quote quote = criarQuoteAPartirResultSet(rs);
-                return quote;
+            if (quote != null) {
+                quote.setItems(buscarItens(quote.getId(), conn));
             }
-        }
+            return quote;
+        });
+    }
+    
+    /**
+     * Percorre todos os orçamentos, com itens, entregando um por vez ao consumidor.
+     * A leitura usa um cursor no servidor (autocommit desligado e fetchSize), então
+     * apenas {@code fetchSize} linhas ficam em memória, independente do tamanho da
+     * tabela. Base para exportações, relatórios e verificações de integridade.
+     */
+    public void percorrerTodos(int fetchSize, ConsumidorLinha<Quote> consumidor) throws SQLException {
+        String sql = "SELECT q.*, i.id AS item_id, i.code AS item_code, i.quantity AS item_quantity, " +
+                    "i.width AS item_width, i.height AS item_height, i.length AS item_length, " +
+                    "i.unit_value AS item_unit_value " +
+                    "FROM quotes q LEFT JOIN quote_items i ON i.quote_id = q.id " +
+                    "ORDER BY q.date DESC, q.id DESC, i.id;";
         
-        return null;
+        Transacao.executarSemRetorno(conn -> {
+            try (PreparedStatement stmt = conn.prepareStatement(sql,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                stmt.setFetchSize(Math.max(1, fetchSize));
+                
+                try (ResultSet rs = stmt.executeQuery()) {
+                    Quote atual = null;
+                    BlocoItens itens = null;
+                    while (rs.next()) {
+                        int quoteId = rs.getInt("id");
+                        if (atual == null || atual.getId() != quoteId) {
+                            if (atual != null) {
+                                atual.setItems(itens);
+                                consumidor.aceitar(atual);
+                            }
+                            atual = criarQuoteAPartirResultSet(rs);
+                            itens = new BlocoItens();
+                        }
+                        
+                        // LEFT JOIN: orçamento sem itens vem com item_id nulo
+                        rs.getInt("item_id");
+                        if (!rs.wasNull()) {
+                            lerItem(rs, "item_", itens);
+                        }
+                    }
+                    if (atual != null) {
+                        atual.setItems(itens);
+                        consumidor.aceitar(atual);
+                    }
+                }
+            }
+        });
     }
     
+    /**
+     * Monta o cabeçalho do orçamento a partir da linha atual. Os itens são
+     * carregados à parte, em lote, por {@link #carregarItens(List, Connection)}.
+     */
     private Quote criarQuoteAPartirResultSet(ResultSet rs) throws SQLException {
-        Quote quote = new Quote();
-        quote.setId(rs.getInt("id"));
-        quote.setName(rs.getString("name"));
-        quote.setClientId(rs.getInt("client_id"));
-        quote.setClientName(rs.getString("client_name"));
-        quote.setDate(rs.getDate("date").toLocalDate());
-        quote.setShippingValue(rs.getDouble("shipping_value"));
-        quote.setTotalValue(rs.getDouble("total_value"));
-        quote.setDiscount(rs.getDouble("discount"));
-        quote.setComplemento(rs.getString("complemento"));
-        
-        // Carrega os itens do orçamento
-        List<QuoteItem> itens = buscarItens(quote.getId());
-        quote.setItems(itens);
-        
-        return quote;
-    }
-    
-    private List<QuoteItem> buscarItens(int quoteId) throws SQLException {
-        List<QuoteItem> itens = new ArrayList<>();
+        // O total gravado vale até os itens serem carregados; daí em diante é recalculado
+        return new Quote(
+            rs.getInt("id"),
+            rs.getString("name"),
+            rs.getInt("client_id"),
+            rs.getString("client_name"),
+            rs.getDate("date").toLocalDate(),
+            rs.getDouble("shipping_value"),
+            rs.getDouble("total_value"),
+            rs.getDouble("discount"),
+            rs.getString("complemento"),
+            null
+        );
+    }
+    
+    private String escaparLike(String texto) {
+        return texto.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+    
+    /**
+     * Monta a consulta de uma página ordenada por (date DESC, id DESC). Em vez de
+     * OFFSET, a posição é dada pela última linha da página anterior, o que permite
+     * ao PostgreSQL usar idx_quotes_date_id e manter o custo constante em qualquer
+     * profundidade.
+     */
+    private String montarConsultaPagina(String colunas, String filtro, boolean comCursor) {
+        return montarConsultaPagina(colunas, filtro, comCursor, false);
+    }
+    
+    /**
+     * Com {@code comFim}, limita também o final da página: {@code (date, id) >= (?, ?)}.
+     */
+    private String montarConsultaPagina(String colunas, String filtro, boolean comCursor, boolean comFim) {
+        StringBuilder sql = new StringBuilder("SELECT ").append(colunas).append(" FROM quotes");
+        List<String> condicoes = new ArrayList<>(3);
+        if (filtro != null) {
+            condicoes.add(filtro);
+        }
+        if (comCursor) {
+            condicoes.add("(date, id) < (?, ?)");
+        }
+        if (comFim) {
+            condicoes.add("(date, id) >= (?, ?)");
+        }
+        if (!condicoes.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", condicoes));
+        }
+        sql.append(" ORDER BY date DESC, id DESC LIMIT ?;");
+        return sql.toString();
+    }
+    
+    /**
+     * Preenche os parâmetros de cursor e limite a partir de {@code proximoParametro}
+     * e lê uma linha além do limite apenas para saber se existe próxima página.
+     */
+    private <T> Pagina<T> lerPagina(PreparedStatement stmt, int proximoParametro, CursorQuote posicao,
+                                    int limite, LeitorLinha<T> leitor) throws SQLException {
+        return lerPagina(stmt, proximoParametro, posicao, null, limite, leitor);
+    }
+    
+    private <T> Pagina<T> lerPagina(PreparedStatement stmt, int proximoParametro, CursorQuote posicao,
+                                    CursorQuote fim, int limite, LeitorLinha<T> leitor) throws SQLException {
+        int tamanho = Math.max(1, limite);
+        for (CursorQuote limiteChave : new CursorQuote[]{posicao, fim}) {
+            if (limiteChave != null) {
+                stmt.setDate(proximoParametro++, Date.valueOf(limiteChave.getDate()));
+                stmt.setInt(proximoParametro++, limiteChave.getId());
+            }
+        }
+        stmt.setInt(proximoParametro, tamanho + 1);
+        
+        List<T> itens = new ArrayList<>();
+        CursorQuote ultimo = null;
+        boolean temMais = false;
+        try (ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                if (itens.size() == tamanho) {
+                    temMais = true;
+                    break;
+                }
+                itens.add(leitor.ler(rs));
+                ultimo = new CursorQuote(rs.getDate("date").toLocalDate(), rs.getInt("id"));
+            }
+        }
+        
+        return new Pagina<>(itens, temMais ? ultimo.codificar() : null);
+    }
+    
+    private QuoteSummary criarResumoAPartirResultSet(ResultSet rs) throws SQLException {
+        return new QuoteSummary(
+            rs.getInt("id"),
+            rs.getString("name"),
+            rs.getInt("client_id"),
+            rs.getString("client_name"),
+            rs.getDate("date").toLocalDate(),
+            rs.getDouble("total_value")
+        );
+    }
+    
+    /**
+     * Carrega os itens de todos os orçamentos informados com uma única consulta
+     * ({@code quote_id = ANY(?)}) e os distribui em memória.
+     */
+    private void carregarItens(List<Quote> quotes, Connection conn) throws SQLException {
+        if (quotes.isEmpty()) {
+            return;
+        }
+        
+        Map<Integer, BlocoItens> itensPorQuote = new HashMap<>();
+        Integer[] ids = new Integer[quotes.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = quotes.get(i).getId();
+            itensPorQuote.put(ids[i], new BlocoItens());
+        }
+        
+        String sql = "SELECT * FROM quote_items WHERE quote_id = ANY(?) ORDER BY quote_id, id;";
+        Array idsArray = conn.createArrayOf("integer", ids);
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setArray(1, idsArray);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    lerItem(rs, "", itensPorQuote.get(rs.getInt("quote_id")));
+                }
+            }
+        } finally {
+            idsArray.free();
+        }
+        
+        for (Quote quote : quotes) {
+            quote.setItems(itensPorQuote.get(quote.getId()));
+        }
+    }
+    
+    private BlocoItens buscarItens(int quoteId, Connection conn) throws SQLException {
+        BlocoItens itens = new BlocoItens();
         String sql = "SELECT * FROM quote_items WHERE quote_id = ? ORDER BY id;";
         
-        try (Connection conn = Conexao.conectar();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, quoteId);
-            ResultSet rs = stmt.executeQuery();
-            
-            while (rs.next()) {
-                QuoteItem item = new QuoteItem();
-                item.setId(String.valueOf(rs.getInt("id")));
-                item.setCode(rs.getString("code") != null ? rs.getString("code") : "");
-                item.setQuantity(rs.getInt("quantity"));
-                item.setWidth(rs.getDouble("width"));
-                item.setHeight(rs.getDouble("height"));
-                item.setLength(rs.getDouble("length"));
-                item.setUnitValue(rs.getDouble("unit_value"));
-                item.calculateTotal();
-                
-                itens.add(item);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    lerItem(rs, "", itens);
+                }
             }
         }
         
         return itens;
     }
     
+    /**
+     * Acrescenta a linha atual do ResultSet ao bloco, direto nas colunas: nenhum
+     * QuoteItem é criado e o m³ e o total são calculados uma única vez.
+     */
+    private void lerItem(ResultSet rs, String prefixo, BlocoItens bloco) throws SQLException {
+        String codigo = rs.getString(prefixo + "code");
+        bloco.adicionar(
+            rs.getInt(prefixo + "id"),
+            codigo != null ? codigo : "",
+            rs.getInt(prefixo + "quantity"),
+            rs.getDouble(prefixo + "width"),
+            rs.getDouble(prefixo + "height"),
+            rs.getDouble(prefixo + "length"),
+            rs.getDouble(prefixo + "unit_value")
+        );
+    }
+    
+    /**
+     * Insere todos os itens num único comando: os valores vão como arrays, um
+     * por coluna, e o {@code unnest ... WITH ORDINALITY} os devolve em linhas na
+     * ordem dos itens. Os ids da identidade são gerados nessa ordem, então os
+     * devolvidos pelo RETURNING, em ordem crescente, correspondem aos itens.
+     */
     private void salvarItens(int quoteId, List<QuoteItem> itens, Connection conn) throws SQLException {
         if (itens == null || itens.isEmpty()) {
             return;
         }
         
         String sql = "INSERT INTO quote_items (quote_id, code, quantity, width, height, length, unit_value, total) " +
-                    "VALUES (?, ?, ?, ?, ?, ?, ?, ?) RETURNING id;";
+                    "SELECT ?, code, quantity, width, height, length, unit_value, total " +
+                    "FROM unnest(?::text[], ?::integer[], ?::float8[], ?::float8[], ?::float8[], ?::float8[], ?::float8[]) " +
+                    "WITH ORDINALITY AS i(code, quantity, width, height, length, unit_value, total, posicao) " +
+                    "ORDER BY posicao RETURNING id";
+        
+        int n = itens.size();
+        String[] codigos = new String[n];
+        Integer[] quantidades = new Integer[n];
+        Double[] larguras = new Double[n];
+        Double[] alturas = new Double[n];
+        Double[] comprimentos = new Double[n];
+        Double[] valoresUnitarios = new Double[n];
+        Double[] totais = new Double[n];
+        for (int i = 0; i < n; i++) {
+            QuoteItem item = itens.get(i);
+            codigos[i] = item.getCode() != null ? item.getCode() : "";
+            quantidades[i] = item.getQuantity();
+            larguras[i] = item.getWidth();
+            alturas[i] = item.getHeight();
+            comprimentos[i] = item.getLength();
+            valoresUnitarios[i] = PontoFixo.arredondarReais(item.getUnitValue());
+            totais[i] = PontoFixo.reais(item.getTotalCentavos());
+        }
         
+        int[] ids = new int[n];
+        int lidos = 0;
         try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, quoteId);
+            stmt.setArray(2, conn.createArrayOf("text", codigos));
+            stmt.setArray(3, conn.createArrayOf("integer", quantidades));
+            stmt.setArray(4, conn.createArrayOf("float8", larguras));
+            stmt.setArray(5, conn.createArrayOf("float8", alturas));
+            stmt.setArray(6, conn.createArrayOf("float8", comprimentos));
+            stmt.setArray(7, conn.createArrayOf("float8", valoresUnitarios));
+            stmt.setArray(8, conn.createArrayOf("float8", totais));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next() && lidos < n) {
+                    ids[lidos++] = rs.getInt(1);
+                }
+            }
+        }
+        if (lidos != n) {
+            throw new SQLException("Nem todos os ids dos itens foram retornados pelo banco");
+        }
+        Arrays.sort(ids);
+        for (int i = 0; i < n; i++) {
+            itens.get(i).setId(String.valueOf(ids[i]));
+        }
+    }
+    
+    /**
+     * Compara os itens gravados com os itens atuais (pelo id) e executa apenas os
+     * INSERTs, UPDATEs e DELETEs necessários, cada grupo em um único lote.
+     */
+    private void sincronizarItens(int quoteId, List<QuoteItem> itens, Connection conn) throws SQLException {
+        // Compara com as colunas do bloco, sem criar um QuoteItem por item gravado
+        BlocoItens bloco = buscarItens(quoteId, conn);
+        Map<Integer, Integer> gravados = new HashMap<>();
+        for (int linha = 0; linha < bloco.size(); linha++) {
+            gravados.put(bloco.getId(linha), linha);
+        }
+        
+        List<QuoteItem> novos = new ArrayList<>();
+        List<QuoteItem> alterados = new ArrayList<>();
+        if (itens != null) {
             for (QuoteItem item : itens) {
-                stmt.setInt(1, quoteId);
-                stmt.setString(2, item.getCode() != null ? item.getCode() : "");
-                stmt.setInt(3, item.getQuantity());
-                stmt.setDouble(4, item.getWidth());
-                stmt.setDouble(5, item.getHeight());
-                stmt.setDouble(6, item.getLength());
-                stmt.setDouble(7, item.getUnitValue());
-                stmt.setDouble(8, item.getTotal());
-                
-                ResultSet rs = stmt.executeQuery();
-                if (rs.next()) {
-                    item.setId(String.valueOf(rs.getInt("id")));
+                Integer id = idPersistido(item);
+                Integer linha = id != null ? gravados.remove(id) : null;
+                if (linha == null) {
+                    novos.add(item);
+                } else if (!mesmoConteudo(bloco, linha, item)) {
+                    alterados.add(item);
                 }
             }
         }
+        
+        // O que sobrou no mapa não existe mais no orçamento
+        excluirItensPorId(gravados.keySet(), conn);
+        atualizarItens(alterados, conn);
+        salvarItens(quoteId, novos, conn);
+    }
+    
+    private Integer idPersistido(QuoteItem item) {
+        String id = item.getId();
+        if (id == null || id.isBlank()) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(id.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+    
+    /**
+     * Compara com o que seria gravado: as medidas vão como estão, o valor
+     * unitário vai arredondado ao centavo, então é comparado em centavos.
+     */
+    private boolean mesmoConteudo(BlocoItens gravados, int linha, QuoteItem item) {
+        String codigoGravado = gravados.getCodigo(linha) != null ? gravados.getCodigo(linha) : "";
+        String codigo = item.getCode() != null ? item.getCode() : "";
+        return codigoGravado.equals(codigo)
+            && gravados.getQuantidade(linha) == item.getQuantity()
+            && Double.compare(gravados.getLargura(linha), item.getWidth()) == 0
+            && Double.compare(gravados.getAltura(linha), item.getHeight()) == 0
+            && Double.compare(gravados.getComprimento(linha), item.getLength()) == 0
+            && PontoFixo.centavos(gravados.getValorUnitario(linha)) == PontoFixo.centavos(item.getUnitValue());
+    }
+    
+    private void atualizarItens(List<QuoteItem> itens, Connection conn) throws SQLException {
+        if (itens.isEmpty()) {
+            return;
+        }
+        
+        String sql = "UPDATE quote_items SET code = ?, quantity = ?, width = ?, height = ?, length = ?, " +
+                    "unit_value = ?, total = ? WHERE id = ?";
+        
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (QuoteItem item : itens) {
+                stmt.setString(1, item.getCode() != null ? item.getCode() : "");
+                stmt.setInt(2, item.getQuantity());
+                stmt.setDouble(3, item.getWidth());
+                stmt.setDouble(4, item.getHeight());
+                stmt.setDouble(5, item.getLength());
+                stmt.setDouble(6, PontoFixo.arredondarReais(item.getUnitValue()));
+                stmt.setDouble(7, PontoFixo.reais(item.getTotalCentavos()));
+                stmt.setInt(8, idPersistido(item));
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+    
+    private void excluirItensPorId(Collection<Integer> ids, Connection conn) throws SQLException {
+        if (ids.isEmpty()) {
+            return;
+        }
+        
+        String sql = "DELETE FROM quote_items WHERE id = ANY(?);";
+        Array idsArray = conn.createArrayOf("integer", ids.toArray());
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setArray(1, idsArray);
+            stmt.executeUpdate();
+        } finally {
+            idsArray.free();
+        }
     }
     
     private void excluirItens(int quoteId, Connection conn) throws SQLException {
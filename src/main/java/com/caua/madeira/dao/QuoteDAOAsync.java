@@ -0,0 +1,99 @@
+package com.caua.madeira.dao;
+
+import com.caua.madeira.model.ClientQuoteTotals;
+import com.caua.madeira.model.Quote;
+import com.caua.madeira.model.QuoteSummary;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Fachada assíncrona sobre {@link QuoteDAO}: cada chamada roda no
+ * {@link ExecutorDAO} e devolve um CompletableFuture.
+ */
+public class QuoteDAOAsync {
+    
+    private final QuoteDAO quoteDAO;
+    
+    public QuoteDAOAsync() {
+        this(new QuoteDAO());
+    }
+    
+    public QuoteDAOAsync(QuoteDAO quoteDAO) {
+        this.quoteDAO = quoteDAO;
+    }
+    
+    public CompletableFuture<Void> salvar(Quote quote) {
+        return ExecutorDAO.submeter(() -> {
+            quoteDAO.salvar(quote);
+            return null;
+        });
+    }
+    
+    public CompletableFuture<Void> atualizar(Quote quote) {
+        return ExecutorDAO.submeter(() -> {
+            quoteDAO.atualizar(quote);
+            return null;
+        });
+    }
+    
+    public CompletableFuture<Void> excluir(int id) {
+        return ExecutorDAO.submeter(() -> {
+            quoteDAO.excluir(id);
+            return null;
+        });
+    }
+    
+    public CompletableFuture<Quote> buscarPorId(int id) {
+        return ExecutorDAO.submeter(() -> quoteDAO.buscarPorId(id));
+    }
+    
+    public CompletableFuture<QuoteSummary> buscarResumoPorId(int id) {
+        return ExecutorDAO.submeter(() -> quoteDAO.buscarResumoPorId(id));
+    }
+    
+    public CompletableFuture<List<QuoteSummary>> listarResumos() {
+        return ExecutorDAO.submeter(quoteDAO::listarResumos);
+    }
+    
+    public CompletableFuture<List<QuoteSummary>> listarResumosPorCliente(int clientId) {
+        return ExecutorDAO.submeter(() -> quoteDAO.listarResumosPorCliente(clientId));
+    }
+    
+    public CompletableFuture<Pagina<QuoteSummary>> listarResumos(String cursor, int limite) {
+        return ExecutorDAO.submeter(() -> quoteDAO.listarResumos(cursor, limite));
+    }
+    
+    public CompletableFuture<Pagina<QuoteSummary>> listarResumosPorCliente(int clientId, String cursor, int limite) {
+        return ExecutorDAO.submeter(() -> quoteDAO.listarResumosPorCliente(clientId, cursor, limite));
+    }
+    
+    public CompletableFuture<Pagina<QuoteSummary>> listarResumosPorCliente(int clientId, String cursorInicio,
+                                                                          String cursorFim, int limite) {
+        return ExecutorDAO.submeter(() -> quoteDAO.listarResumosPorCliente(clientId, cursorInicio, cursorFim, limite));
+    }
+    
+    public CompletableFuture<ClientQuoteTotals> totalizarPorCliente(int clientId) {
+        return ExecutorDAO.submeter(() -> quoteDAO.totalizarPorCliente(clientId));
+    }
+    
+    public CompletableFuture<Pagina<QuoteSummary>> listarResumos(OrdemResumo ordem, boolean crescente,
+                                                             String cursorInicio, String cursorFim, int limite) {
+        return ExecutorDAO.submeter(() -> quoteDAO.listarResumos(ordem, crescente, cursorInicio, cursorFim, limite));
+    }
+    
+    public CompletableFuture<Pagina<QuoteSummary>> listarResumosPorCliente(int clientId, OrdemResumo ordem,
+                                                                          boolean crescente, String cursorInicio,
+                                                                          String cursorFim, int limite) {
+        return ExecutorDAO.submeter(() ->
+            quoteDAO.listarResumosPorCliente(clientId, ordem, crescente, cursorInicio, cursorFim, limite));
+    }
+    
+    public CompletableFuture<List<QuoteSummary>> buscarResumos(String termo, int limite) {
+        return ExecutorDAO.submeter(() -> quoteDAO.buscarResumos(termo, limite));
+    }
+    
+    public CompletableFuture<List<QuoteSummary>> buscarResumos(String termo, int limite, ConsultaCancelavel consulta) {
+        return ExecutorDAO.submeter(() -> quoteDAO.buscarResumos(termo, limite, consulta));
+    }
+}
@@ -0,0 +1,74 @@
+package com.caua.madeira.dao;
+
+import com.caua.madeira.database.Conexao;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Executa uma operação lógica do DAO em uma única conexão e uma única
+ * transação: tudo é confirmado com um commit ao final ou desfeito com
+ * rollback se qualquer comando falhar.
+ *
+ * Leituras usam {@link #ler(Operacao)}, que deixa a conexão em autocommit:
+ * cada consulta vai sozinha ao banco, sem BEGIN/COMMIT em volta. Em READ
+ * COMMITTED cada comando já enxerga seu próprio instantâneo, então a
+ * transação não daria a leituras de vários comandos nenhuma garantia a mais.
+ */
+public final class Transacao {
+    
+    @FunctionalInterface
+    public interface Operacao<T> {
+        T executar(Connection conn) throws SQLException;
+    }
+    
+    @FunctionalInterface
+    public interface OperacaoSemRetorno {
+        void executar(Connection conn) throws SQLException;
+    }
+    
+    private Transacao() {
+    }
+    
+    public static <T> T executar(Operacao<T> operacao) throws SQLException {
+        try (Connection conn = Conexao.conectar()) {
+            // O pool volta a conexão para autocommit quando ela é devolvida
+            conn.setAutoCommit(false);
+            try {
+                T resultado = operacao.executar(conn);
+                conn.commit();
+                return resultado;
+            } catch (SQLException | RuntimeException | Error e) {
+                desfazer(conn, e);
+                throw e;
+            }
+        }
+    }
+    
+    /**
+     * Executa uma operação somente de leitura em autocommit. Leituras com
+     * cursor ({@code setFetchSize}) precisam de transação e devem usar
+     * {@link #executar(Operacao)}.
+     */
+    public static <T> T ler(Operacao<T> operacao) throws SQLException {
+        try (Connection conn = Conexao.conectar()) {
+            return operacao.executar(conn);
+        }
+    }
+    
+    public static void executarSemRetorno(OperacaoSemRetorno operacao) throws SQLException {
+        executar(conn -> {
+            operacao.executar(conn);
+            return null;
+        });
+    }
+    
+    private static void desfazer(Connection conn, Throwable causa) {
+        try {
+            conn.rollback();
+        } catch (SQLException e) {
+            // Mantém a falha original; a do rollback vai como suprimida
+            causa.addSuppressed(e);
+        }
+    }
+}
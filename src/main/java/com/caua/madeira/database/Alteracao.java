@@ -0,0 +1,96 @@
+package com.caua.madeira.database;
+
+/**
+ * Alteração de uma linha do banco, recebida pelo {@link OuvinteNotificacoes}.
+ *
+ * Para {@code quote_items} o {@code id} é o do orçamento dono do item.
+ * {@link #isLocal()} indica que a alteração foi gravada por esta própria
+ * estação, que normalmente já atualizou suas telas e caches.
+ * Uma alteração com {@link Tipo#RESINCRONIZAR} indica que notificações podem
+ * ter sido perdidas (a conexão de escuta caiu) e os dados devem ser relidos.
+ */
+public final class Alteracao {
+    
+    public static final String CLIENTES = "clientes";
+    public static final String QUOTES = "quotes";
+    public static final String QUOTE_ITEMS = "quote_items";
+    
+    public enum Tipo { INSERT, UPDATE, DELETE, RESINCRONIZAR }
+    
+    static final Alteracao RESINCRONIZAR = new Alteracao(null, Tipo.RESINCRONIZAR, 0, false);
+    
+    private final String tabela;
+    private final Tipo tipo;
+    private final int id;
+    private final boolean local;
+    
+    Alteracao(String tabela, Tipo tipo, int id, boolean local) {
+        this.tabela = tabela;
+        this.tipo = tipo;
+        this.id = id;
+        this.local = local;
+    }
+    
+    /**
+     * Interpreta o payload gerado pela função {@code notificar_alteracao()}:
+     * {@code "tabela,OPERACAO,id"}. Devolve {@code null} se o formato for inválido.
+     */
+    static Alteracao interpretar(String payload, boolean local) {
+        if (payload == null) {
+            return null;
+        }
+        String[] partes = payload.split(",");
+        if (partes.length != 3) {
+            return null;
+        }
+        try {
+            Tipo tipo = Tipo.valueOf(partes[1]);
+            if (tipo == Tipo.RESINCRONIZAR) {
+                return null;
+            }
+            return new Alteracao(partes[0], tipo, Integer.parseInt(partes[2]), local);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+    
+    public String getTabela() {
+        return tabela;
+    }
+    
+    public Tipo getTipo() {
+        return tipo;
+    }
+    
+    public int getId() {
+        return id;
+    }
+    
+    public boolean isLocal() {
+        return local;
+    }
+    
+    public boolean isResincronizar() {
+        return tipo == Tipo.RESINCRONIZAR;
+    }
+    
+    public boolean isExclusao() {
+        return tipo == Tipo.DELETE;
+    }
+    
+    /**
+     * Verdadeiro se a alteração afeta o orçamento (cabeçalho ou itens).
+     */
+    public boolean afetaOrcamento() {
+        return QUOTES.equals(tabela) || QUOTE_ITEMS.equals(tabela);
+    }
+    
+    public boolean afetaCliente() {
+        return CLIENTES.equals(tabela);
+    }
+    
+    @Override
+    public String toString() {
+        return tipo == Tipo.RESINCRONIZAR ? "RESINCRONIZAR" : tabela + "," + tipo + "," + id;
+    }
+}
@@ -0,0 +1,169 @@
+package com.caua.madeira.database;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache de PreparedStatements de uma conexão física, indexado pelo texto do SQL.
+ *
+ * Reaproveitar o mesmo PreparedStatement permite ao pgjdbc passar a usar um
+ * plano nomeado no servidor depois de {@code prepareThreshold} execuções, em vez
+ * de reanalisar o SQL a cada chamada do DAO. O cache é usado por uma única
+ * thread por vez (a que emprestou a conexão), por isso não é sincronizado.
+ */
+final class CacheStatements {
+    
+    private final Connection fisica;
+    private final AtomicLong acertos;
+    private final AtomicLong falhas;
+    private final LinkedHashMap<String, Entrada> entradas;
+    
+    CacheStatements(Connection fisica, int tamanhoMaximo, AtomicLong acertos, AtomicLong falhas) {
+        this.fisica = fisica;
+        this.acertos = acertos;
+        this.falhas = falhas;
+        this.entradas = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entrada> maisAntiga) {
+                if (size() <= tamanhoMaximo) {
+                    return false;
+                }
+                maisAntiga.getValue().descartar();
+                return true;
+            }
+        };
+    }
+    
+    /**
+     * Devolve um PreparedStatement para o SQL. Se o statement em cache já estiver
+     * em uso (consultas aninhadas na mesma conexão), cria um avulso.
+     */
+    PreparedStatement preparar(String chave, CriadorStatement criador) throws SQLException {
+        Entrada entrada = entradas.get(chave);
+        if (entrada != null && !entrada.emUso) {
+            acertos.incrementAndGet();
+            return entrada.emprestar();
+        }
+        
+        falhas.incrementAndGet();
+        PreparedStatement novo = criador.criar(fisica);
+        if (entrada != null) {
+            return novo;
+        }
+        
+        Entrada nova = new Entrada(novo);
+        entradas.put(chave, nova);
+        return nova.emprestar();
+    }
+    
+    void fechar() {
+        for (Entrada entrada : entradas.values()) {
+            entrada.descartar();
+        }
+        entradas.clear();
+    }
+    
+    @FunctionalInterface
+    interface CriadorStatement {
+        PreparedStatement criar(Connection conexao) throws SQLException;
+    }
+    
+    private static final class Entrada {
+        private final PreparedStatement fisico;
+        private boolean emUso;
+        private boolean descartada;
+        
+        private Entrada(PreparedStatement fisico) {
+            this.fisico = fisico;
+        }
+        
+        private PreparedStatement emprestar() {
+            emUso = true;
+            return (PreparedStatement) Proxy.newProxyInstance(
+                PreparedStatement.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class},
+                new StatementEmprestado(this));
+        }
+        
+        private void devolver() {
+            emUso = false;
+            if (descartada) {
+                fecharFisico();
+                return;
+            }
+            try {
+                // Não deixa estado da execução anterior vazar para a próxima
+                ResultSet aberto = fisico.getResultSet();
+                if (aberto != null) {
+                    aberto.close();
+                }
+                fisico.clearParameters();
+                fisico.clearBatch();
+                fisico.setFetchSize(0);
+            } catch (SQLException e) {
+                descartada = true;
+                fecharFisico();
+            }
+        }
+        
+        private void descartar() {
+            descartada = true;
+            if (!emUso) {
+                fecharFisico();
+            }
+        }
+        
+        private void fecharFisico() {
+            try {
+                fisico.close();
+            } catch (SQLException ignored) { }
+        }
+    }
+    
+    private static final class StatementEmprestado implements InvocationHandler {
+        private Entrada entrada;
+        
+        private StatementEmprestado(Entrada entrada) {
+            this.entrada = entrada;
+        }
+        
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (entrada != null) {
+                        Entrada devolvida = entrada;
+                        entrada = null;
+                        devolvida.devolver();
+                    }
+                    return null;
+                case "isClosed":
+                    return entrada == null;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    break;
+            }
+            
+            if (entrada == null) {
+                throw new SQLException("Statement já fechado");
+            }
+            try {
+                return method.invoke(entrada.fisico, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
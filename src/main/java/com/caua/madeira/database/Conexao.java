@@ -3,13 +3,78 @@ package com.caua.madeira.database;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.util.Properties;
 
 public class Conexao {
     private static final String URL = "jdbc:postgresql://localhost:5433/M3Gestor";
     private static final String USUARIO = "postgres";
     private static final String SENHA = "admin";
 
+    // Configuração do pool (pode ser sobrescrita com -Dm3gestor.pool.*)
+    private static final int TAMANHO_MAXIMO = Integer.getInteger("m3gestor.pool.tamanho", 8);
+    private static final long TIMEOUT_EMPRESTIMO_MS = Long.getLong("m3gestor.pool.timeoutMs", 10_000L);
+    private static final long TEMPO_OCIOSO_MAX_MS = Long.getLong("m3gestor.pool.ociosoMs", 5 * 60_000L);
+    private static final int TAMANHO_CACHE_STATEMENTS = Integer.getInteger("m3gestor.pool.statements", 64);
+    // Execuções de um mesmo PreparedStatement até o driver criar o plano nomeado no servidor
+    private static final String PREPARE_THRESHOLD = System.getProperty("m3gestor.pgjdbc.prepareThreshold", "2");
+
+    private static PoolConexoes pool;
+    private static boolean shutdownHookRegistrado;
+
+    /**
+     * Empresta uma conexão do pool compartilhado. Deve ser usada em
+     * try-with-resources: {@code close()} devolve a conexão ao pool.
+     */
     public static Connection conectar() throws SQLException {
-        return DriverManager.getConnection(URL, USUARIO, SENHA);
+        return getPool().emprestar();
+    }
+
+    /**
+     * Encerra o pool, fechando as conexões físicas ociosas.
+     */
+    public static synchronized void fechar() {
+        if (pool != null) {
+            pool.fechar();
+            pool = null;
+        }
+    }
+
+    /**
+     * Número máximo de conexões do pool, já considerando -Dm3gestor.pool.tamanho.
+     */
+    public static int getTamanhoMaximoPool() {
+        return TAMANHO_MAXIMO;
+    }
+
+    /**
+     * Pool compartilhado, para consulta de estatísticas (conexões em uso,
+     * acertos e falhas do cache de statements).
+     */
+    public static synchronized PoolConexoes getPool() {
+        if (pool == null) {
+            pool = new PoolConexoes(URL, propriedades(), TAMANHO_MAXIMO, TIMEOUT_EMPRESTIMO_MS, TEMPO_OCIOSO_MAX_MS,
+                    TAMANHO_CACHE_STATEMENTS);
+            if (!shutdownHookRegistrado) {
+                Runtime.getRuntime().addShutdownHook(new Thread(Conexao::fechar, "pool-conexoes-shutdown"));
+                shutdownHookRegistrado = true;
+            }
+        }
+        return pool;
+    }
+
+    /**
+     * Abre uma conexão física fora do pool, para uso exclusivo de quem a pediu
+     * (ex.: o {@link OuvinteNotificacoes}, que a mantém aberta com LISTEN).
+     */
+    public static Connection abrirDedicada() throws SQLException {
+        return DriverManager.getConnection(URL, propriedades());
+    }
+
+    private static Properties propriedades() {
+        Properties props = new Properties();
+        props.setProperty("user", USUARIO);
+        props.setProperty("password", SENHA);
+        props.setProperty("prepareThreshold", PREPARE_THRESHOLD);
+        return props;
     }
-}
\ No newline at end of file
+}
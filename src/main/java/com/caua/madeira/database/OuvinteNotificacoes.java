@@ -0,0 +1,153 @@
+package com.caua.madeira.database;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Escuta o canal {@code m3gestor_alteracoes} numa conexão dedicada (fora do
+ * pool) e repassa cada {@link Alteracao} aos inscritos.
+ *
+ * A thread fica bloqueada em {@link PGConnection#getNotifications(int)} até
+ * chegar uma notificação, sem consultar o banco. Se a conexão cair, ela é
+ * reaberta e os inscritos recebem {@link Alteracao.Tipo#RESINCRONIZAR}, pois
+ * notificações enviadas nesse intervalo se perderam.
+ *
+ * Os inscritos são chamados na thread do ouvinte e não devem bloqueá-la;
+ * consultas e atualizações de tela devem ser repassadas a outra thread.
+ */
+public final class OuvinteNotificacoes {
+    
+    private static final Logger log = LoggerFactory.getLogger(OuvinteNotificacoes.class);
+    
+    public static final String CANAL = "m3gestor_alteracoes";
+    
+    private static final int ESPERA_NOTIFICACAO_MS = 5_000;
+    private static final long ESPERA_RECONEXAO_MIN_MS = 1_000;
+    private static final long ESPERA_RECONEXAO_MAX_MS = 30_000;
+    
+    private static final OuvinteNotificacoes INSTANCIA = new OuvinteNotificacoes();
+    
+    private final List<Consumer<Alteracao>> inscritos = new CopyOnWriteArrayList<>();
+    private Thread thread;
+    private volatile boolean ativo;
+    private volatile Connection conexao;
+    
+    private OuvinteNotificacoes() {
+    }
+    
+    public static OuvinteNotificacoes getInstance() {
+        return INSTANCIA;
+    }
+    
+    /**
+     * Registra um inscrito. Chamar {@code close()} no retorno cancela a inscrição.
+     */
+    public AutoCloseable inscrever(Consumer<Alteracao> inscrito) {
+        inscritos.add(inscrito);
+        return () -> inscritos.remove(inscrito);
+    }
+    
+    public synchronized void iniciar() {
+        if (ativo) {
+            return;
+        }
+        ativo = true;
+        thread = new Thread(this::executar, "ouvinte-notificacoes");
+        thread.setDaemon(true);
+        thread.start();
+    }
+    
+    public synchronized void parar() {
+        if (!ativo) {
+            return;
+        }
+        ativo = false;
+        // Fechar a conexão desbloqueia a espera por notificações
+        fecharConexao();
+        thread.interrupt();
+        try {
+            thread.join(2_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        thread = null;
+    }
+    
+    private void executar() {
+        long espera = ESPERA_RECONEXAO_MIN_MS;
+        boolean reconectando = false;
+        while (ativo) {
+            try {
+                conexao = Conexao.abrirDedicada();
+                try (Statement stmt = conexao.createStatement()) {
+                    stmt.execute("LISTEN " + CANAL);
+                }
+                espera = ESPERA_RECONEXAO_MIN_MS;
+                if (reconectando) {
+                    despachar(Alteracao.RESINCRONIZAR);
+                }
+                
+                PGConnection pg = conexao.unwrap(PGConnection.class);
+                while (ativo) {
+                    PGNotification[] notificacoes = pg.getNotifications(ESPERA_NOTIFICACAO_MS);
+                    if (notificacoes == null) {
+                        continue;
+                    }
+                    for (PGNotification n : notificacoes) {
+                        boolean local = Conexao.getPool().isConexaoPropria(n.getPID());
+                        Alteracao alteracao = Alteracao.interpretar(n.getParameter(), local);
+                        if (alteracao != null) {
+                            despachar(alteracao);
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (!ativo) {
+                    break;
+                }
+                log.warn("Ouvinte de notificações desconectado: {}", e.getMessage());
+                reconectando = true;
+            } finally {
+                fecharConexao();
+            }
+            
+            if (ativo) {
+                try {
+                    Thread.sleep(espera);
+                } catch (InterruptedException e) {
+                    break;
+                }
+                espera = Math.min(espera * 2, ESPERA_RECONEXAO_MAX_MS);
+            }
+        }
+    }
+    
+    private void despachar(Alteracao alteracao) {
+        for (Consumer<Alteracao> inscrito : inscritos) {
+            try {
+                inscrito.accept(alteracao);
+            } catch (RuntimeException e) {
+                log.error("Falha ao repassar a alteração {}", alteracao, e);
+            }
+        }
+    }
+    
+    private void fecharConexao() {
+        Connection atual = conexao;
+        conexao = null;
+        if (atual != null) {
+            try {
+                atual.close();
+            } catch (SQLException ignored) { }
+        }
+    }
+}
@@ -0,0 +1,334 @@
+package com.caua.madeira.database;
+
+import org.postgresql.PGConnection;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pool de conexões JDBC de tamanho limitado.
+ *
+ * As conexões físicas ficam ociosas numa pilha (a mais recente é reutilizada
+ * primeiro) e são validadas com {@link Connection#isValid(int)} antes de cada
+ * empréstimo. Conexões ociosas há mais de {@code tempoOciosoMaxMs} são
+ * fechadas por uma tarefa periódica. O {@link Connection} devolvido ao chamador
+ * é um proxy: {@code close()} devolve a conexão ao pool em vez de fechá-la.
+ * Cada conexão física mantém seu próprio {@link CacheStatements}.
+ */
+public class PoolConexoes {
+
+    private static final int TIMEOUT_VALIDACAO_SEGUNDOS = 2;
+
+    private final String url;
+    private final Properties propriedades;
+    private final int tamanhoMaximo;
+    private final long timeoutEmprestimoMs;
+    private final long tempoOciosoMaxMs;
+    private final int tamanhoCacheStatements;
+    private final AtomicLong acertosCache = new AtomicLong();
+    private final AtomicLong falhasCache = new AtomicLong();
+    // PIDs no servidor das conexões físicas abertas por este pool
+    private final Set<Integer> pidsServidor = ConcurrentHashMap.newKeySet();
+
+    private final Semaphore permissoes;
+    private final Deque<ConexaoFisica> ociosas = new ArrayDeque<>();
+    private final ScheduledExecutorService limpeza;
+    private volatile boolean fechado;
+
+    public PoolConexoes(String url, Properties propriedades, int tamanhoMaximo,
+                        long timeoutEmprestimoMs, long tempoOciosoMaxMs, int tamanhoCacheStatements) {
+        if (tamanhoMaximo < 1) {
+            throw new IllegalArgumentException("tamanhoMaximo deve ser maior que zero");
+        }
+        this.url = url;
+        this.propriedades = propriedades;
+        this.tamanhoMaximo = tamanhoMaximo;
+        this.timeoutEmprestimoMs = timeoutEmprestimoMs;
+        this.tempoOciosoMaxMs = tempoOciosoMaxMs;
+        this.tamanhoCacheStatements = tamanhoCacheStatements;
+        this.permissoes = new Semaphore(tamanhoMaximo, true);
+
+        this.limpeza = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "pool-conexoes-limpeza");
+            t.setDaemon(true);
+            return t;
+        });
+        long intervalo = Math.max(1000L, tempoOciosoMaxMs / 2);
+        limpeza.scheduleWithFixedDelay(this::removerOciosas, intervalo, intervalo, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Empresta uma conexão do pool, aguardando no máximo {@code timeoutEmprestimoMs}
+     * quando todas estiverem em uso.
+     */
+    public Connection emprestar() throws SQLException {
+        if (fechado) {
+            throw new SQLException("Pool de conexões encerrado");
+        }
+
+        boolean adquirida;
+        try {
+            adquirida = permissoes.tryAcquire(timeoutEmprestimoMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrompido aguardando conexão do pool", e);
+        }
+        if (!adquirida) {
+            throw new SQLException("Tempo esgotado aguardando conexão livre ("
+                    + tamanhoMaximo + " em uso por mais de " + timeoutEmprestimoMs + " ms)");
+        }
+
+        try {
+            ConexaoFisica fisica = obterConexaoValida();
+            return criarProxy(fisica);
+        } catch (SQLException | RuntimeException e) {
+            permissoes.release();
+            throw e;
+        }
+    }
+
+    private ConexaoFisica obterConexaoValida() throws SQLException {
+        ConexaoFisica ociosa;
+        while ((ociosa = retirarOciosa()) != null) {
+            if (validar(ociosa.conexao)) {
+                return ociosa;
+            }
+            ociosa.fechar();
+        }
+        Connection nova = DriverManager.getConnection(url, propriedades);
+        ConexaoFisica fisica = new ConexaoFisica(nova,
+                new CacheStatements(nova, tamanhoCacheStatements, acertosCache, falhasCache), pidServidor(nova));
+        if (fisica.pid != 0) {
+            pidsServidor.add(fisica.pid);
+        }
+        return fisica;
+    }
+    
+    private static int pidServidor(Connection conexao) {
+        try {
+            return conexao.unwrap(PGConnection.class).getBackendPID();
+        } catch (SQLException e) {
+            return 0;
+        }
+    }
+
+    private synchronized ConexaoFisica retirarOciosa() {
+        return ociosas.pollFirst();
+    }
+
+    private boolean validar(Connection conexao) {
+        try {
+            return !conexao.isClosed() && conexao.isValid(TIMEOUT_VALIDACAO_SEGUNDOS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void devolver(ConexaoFisica fisica) {
+        try {
+            Connection conexao = fisica.conexao;
+            boolean reutilizavel = !fechado && !conexao.isClosed();
+            if (reutilizavel) {
+                // Garante que a próxima operação não herde uma transação aberta
+                if (!conexao.getAutoCommit()) {
+                    conexao.rollback();
+                    conexao.setAutoCommit(true);
+                }
+                conexao.clearWarnings();
+                fisica.ociosaDesde = System.currentTimeMillis();
+                synchronized (this) {
+                    ociosas.addFirst(fisica);
+                }
+            } else {
+                fisica.fechar();
+            }
+        } catch (SQLException e) {
+            fisica.fechar();
+        } finally {
+            permissoes.release();
+        }
+    }
+
+    private void removerOciosas() {
+        long limite = System.currentTimeMillis() - tempoOciosoMaxMs;
+        Deque<ConexaoFisica> expiradas = new ArrayDeque<>();
+        synchronized (this) {
+            Iterator<ConexaoFisica> it = ociosas.iterator();
+            while (it.hasNext()) {
+                ConexaoFisica ociosa = it.next();
+                if (ociosa.ociosaDesde < limite) {
+                    it.remove();
+                    expiradas.add(ociosa);
+                }
+            }
+        }
+        expiradas.forEach(ConexaoFisica::fechar);
+    }
+
+    /**
+     * Fecha todas as conexões ociosas e recusa novos empréstimos. Conexões em uso
+     * são fechadas quando forem devolvidas.
+     */
+    public void fechar() {
+        if (fechado) {
+            return;
+        }
+        fechado = true;
+        limpeza.shutdownNow();
+        Deque<ConexaoFisica> restantes;
+        synchronized (this) {
+            restantes = new ArrayDeque<>(ociosas);
+            ociosas.clear();
+        }
+        restantes.forEach(ConexaoFisica::fechar);
+    }
+
+    public synchronized int getOciosas() {
+        return ociosas.size();
+    }
+
+    /**
+     * Indica se o processo do servidor com esse PID atende uma conexão deste
+     * pool, ou seja, se uma notificação com esse PID foi gerada por esta estação.
+     */
+    public boolean isConexaoPropria(int pidServidor) {
+        return pidsServidor.contains(pidServidor);
+    }
+    
+    public int getEmUso() {
+        return tamanhoMaximo - permissoes.availablePermits();
+    }
+
+    /**
+     * Quantas vezes um PreparedStatement foi reaproveitado do cache.
+     */
+    public long getAcertosCacheStatements() {
+        return acertosCache.get();
+    }
+
+    /**
+     * Quantas vezes foi preciso preparar um novo statement.
+     */
+    public long getFalhasCacheStatements() {
+        return falhasCache.get();
+    }
+
+    private Connection criarProxy(ConexaoFisica fisica) {
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new ConexaoEmprestada(fisica));
+    }
+
+    private static void fecharSilenciosamente(Connection conexao) {
+        try {
+            conexao.close();
+        } catch (SQLException ignored) { }
+    }
+
+    private final class ConexaoFisica {
+        private final Connection conexao;
+        private final CacheStatements statements;
+        private final int pid;
+        private long ociosaDesde;
+
+        private ConexaoFisica(Connection conexao, CacheStatements statements, int pid) {
+            this.conexao = conexao;
+            this.statements = statements;
+            this.pid = pid;
+        }
+
+        private void fechar() {
+            pidsServidor.remove(pid);
+            statements.fechar();
+            fecharSilenciosamente(conexao);
+        }
+    }
+
+    /**
+     * Encaminha as chamadas para a conexão física até que {@code close()} seja
+     * chamado; a partir daí a conexão volta para o pool e o proxy fica inutilizável.
+     */
+    private final class ConexaoEmprestada implements InvocationHandler {
+        private ConexaoFisica fisica;
+
+        private ConexaoEmprestada(ConexaoFisica fisica) {
+            this.fisica = fisica;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (fisica != null) {
+                        ConexaoFisica devolvida = fisica;
+                        fisica = null;
+                        devolver(devolvida);
+                    }
+                    return null;
+                case "isClosed":
+                    return fisica == null || fisica.conexao.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "ConexaoEmprestada[" + (fisica != null ? fisica.conexao : null) + "]";
+                default:
+                    break;
+            }
+
+            if (fisica == null) {
+                throw new SQLException("Conexão já devolvida ao pool");
+            }
+            PreparedStatement cacheado = prepararComCache(method, args);
+            if (cacheado != null) {
+                return cacheado;
+            }
+            try {
+                return method.invoke(fisica.conexao, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        /**
+         * Atende pelo cache as variantes de prepareStatement usadas pelos DAOs:
+         * {@code (sql)} e {@code (sql, colunasGeradas)}. As demais seguem direto.
+         */
+        private PreparedStatement prepararComCache(Method method, Object[] args) throws SQLException {
+            if (!"prepareStatement".equals(method.getName()) || tamanhoCacheStatements <= 0) {
+                return null;
+            }
+            Class<?>[] tipos = method.getParameterTypes();
+            if (tipos.length == 1) {
+                String sql = (String) args[0];
+                return fisica.statements.preparar(sql, c -> c.prepareStatement(sql));
+            }
+            if (tipos.length == 2 && tipos[1] == String[].class) {
+                String sql = (String) args[0];
+                String[] colunas = (String[]) args[1];
+                String chave = "gerados[" + String.join(",", colunas) + "]:" + sql;
+                return fisica.statements.preparar(chave, c -> c.prepareStatement(sql, colunas));
+            }
+            return null;
+        }
+    }
+}
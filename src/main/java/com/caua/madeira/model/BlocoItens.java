@@ -0,0 +1,273 @@
+package com.caua.madeira.model;
+
+import com.caua.madeira.util.PontoFixo;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * Itens de orçamento guardados em colunas de tipos primitivos, para
+ * orçamentos com milhares de peças e históricos inteiros de clientes.
+ *
+ * Cada campo é um array ({@code int[]} para quantidades, {@code double[]}
+ * para medidas, {@code long[]} para m³ e total já calculados) e os códigos
+ * são codificados num dicionário, já que se repetem muito. Uma linha não é
+ * um objeto: {@link #get(int)} devolve um {@link QuoteItem} leve
+ * ({@link ItemDoBloco}) que lê e grava direto nas colunas, criado só quando
+ * a linha é pedida e reaproveitado depois. As somas percorrem os arrays.
+ *
+ * A lista tem tamanho fixo para quem a usa como {@code List}: linhas só
+ * entram por {@link #adicionar}, usado por quem carrega os itens.
+ * Não é thread-safe.
+ */
+public final class BlocoItens extends AbstractList<QuoteItem> implements RandomAccess {
+    
+    private static final int CAPACIDADE_INICIAL = 16;
+    // Código nulo
+    private static final int SEM_CODIGO = -1;
+    // Linha sem id gravado no banco
+    private static final int SEM_ID = 0;
+    
+    private int tamanho;
+    private int[] ids;
+    private int[] codigos;
+    private int[] quantidades;
+    private double[] larguras;
+    private double[] alturas;
+    private double[] comprimentos;
+    private double[] valoresUnitarios;
+    private long[] volumesMicroM3;
+    private long[] totaisCentavos;
+    // Visões já entregues por get(); null até a linha ser pedida
+    private ItemDoBloco[] visoes;
+    
+    private final List<String> dicionario = new ArrayList<>();
+    private final Map<String, Integer> indiceCodigos = new HashMap<>();
+    
+    public BlocoItens() {
+        this(CAPACIDADE_INICIAL);
+    }
+    
+    public BlocoItens(int capacidade) {
+        int inicial = Math.max(1, capacidade);
+        ids = new int[inicial];
+        codigos = new int[inicial];
+        quantidades = new int[inicial];
+        larguras = new double[inicial];
+        alturas = new double[inicial];
+        comprimentos = new double[inicial];
+        valoresUnitarios = new double[inicial];
+        volumesMicroM3 = new long[inicial];
+        totaisCentavos = new long[inicial];
+        visoes = new ItemDoBloco[inicial];
+    }
+    
+    /**
+     * Acrescenta uma linha e calcula seu m³ e total uma única vez.
+     *
+     * @param id id gravado no banco, ou 0 para item ainda não gravado
+     * @return índice da nova linha
+     */
+    public int adicionar(int id, String codigo, int quantidade, double largura, double altura,
+                         double comprimento, double valorUnitario) {
+        if (tamanho == ids.length) {
+            crescer();
+        }
+        int linha = tamanho++;
+        ids[linha] = id;
+        codigos[linha] = codificar(codigo);
+        quantidades[linha] = quantidade;
+        larguras[linha] = largura;
+        alturas[linha] = altura;
+        comprimentos[linha] = comprimento;
+        valoresUnitarios[linha] = valorUnitario;
+        recalcular(linha);
+        modCount++;
+        return linha;
+    }
+    
+    @Override
+    public QuoteItem get(int linha) {
+        Objects.checkIndex(linha, tamanho);
+        ItemDoBloco visao = visoes[linha];
+        if (visao == null) {
+            visao = new ItemDoBloco(this, linha);
+            visoes[linha] = visao;
+        }
+        return visao;
+    }
+    
+    @Override
+    public int size() {
+        return tamanho;
+    }
+    
+    /**
+     * Soma dos totais de todas as linhas, em centavos.
+     */
+    public long somaTotaisCentavos() {
+        long[] totais = totaisCentavos;
+        long soma = 0L;
+        for (int i = 0; i < tamanho; i++) {
+            soma += totais[i];
+        }
+        return soma;
+    }
+    
+    /**
+     * Soma do volume de todas as linhas, em milionésimos de m³.
+     */
+    public long somaVolumeMicroM3() {
+        long[] volumes = volumesMicroM3;
+        long soma = 0L;
+        for (int i = 0; i < tamanho; i++) {
+            soma += volumes[i];
+        }
+        return soma;
+    }
+    
+    // Acesso por linha, sem criar a visão
+    
+    /**
+     * @return id gravado no banco, ou 0 se a linha ainda não foi gravada
+     */
+    public int getId(int linha) {
+        return ids[verificar(linha)];
+    }
+    
+    public String getCodigo(int linha) {
+        int codigo = codigos[verificar(linha)];
+        return codigo != SEM_CODIGO ? dicionario.get(codigo) : null;
+    }
+    
+    public int getQuantidade(int linha) {
+        return quantidades[verificar(linha)];
+    }
+    
+    public double getLargura(int linha) {
+        return larguras[verificar(linha)];
+    }
+    
+    public double getAltura(int linha) {
+        return alturas[verificar(linha)];
+    }
+    
+    public double getComprimento(int linha) {
+        return comprimentos[verificar(linha)];
+    }
+    
+    public double getValorUnitario(int linha) {
+        return valoresUnitarios[verificar(linha)];
+    }
+    
+    public long getVolumeMicroM3(int linha) {
+        return volumesMicroM3[verificar(linha)];
+    }
+    
+    public long getTotalCentavos(int linha) {
+        return totaisCentavos[verificar(linha)];
+    }
+    
+    // Escrita pelas visões; cada uma recalcula só a própria linha
+    
+    void setId(int linha, int id) {
+        ids[linha] = id;
+    }
+    
+    void setCodigo(int linha, String codigo) {
+        codigos[linha] = codificar(codigo);
+    }
+    
+    void setQuantidade(int linha, int quantidade) {
+        quantidades[linha] = quantidade;
+    }
+    
+    void setLargura(int linha, double largura) {
+        larguras[linha] = largura;
+    }
+    
+    void setAltura(int linha, double altura) {
+        alturas[linha] = altura;
+    }
+    
+    void setComprimento(int linha, double comprimento) {
+        comprimentos[linha] = comprimento;
+    }
+    
+    void setValorUnitario(int linha, double valorUnitario) {
+        valoresUnitarios[linha] = valorUnitario;
+    }
+    
+    void setDerivados(int linha, long volumeMicroM3, long totalCentavos) {
+        volumesMicroM3[linha] = volumeMicroM3;
+        totaisCentavos[linha] = totalCentavos;
+    }
+    
+    /**
+     * Mesmo cálculo de {@link QuoteItem#calculateTotal()}, sobre as colunas.
+     */
+    private void recalcular(int linha) {
+        long volume = PontoFixo.volumeItem(quantidades[linha], larguras[linha], alturas[linha], comprimentos[linha]);
+        volumesMicroM3[linha] = volume;
+        totaisCentavos[linha] = PontoFixo.totalItem(volume, PontoFixo.centavos(valoresUnitarios[linha]));
+    }
+    
+    private int codificar(String codigo) {
+        if (codigo == null) {
+            return SEM_CODIGO;
+        }
+        Integer indice = indiceCodigos.get(codigo);
+        if (indice == null) {
+            indice = dicionario.size();
+            dicionario.add(codigo);
+            indiceCodigos.put(codigo, indice);
+        }
+        return indice;
+    }
+    
+    private int verificar(int linha) {
+        return Objects.checkIndex(linha, tamanho);
+    }
+    
+    private void crescer() {
+        int capacidade = ids.length + (ids.length >> 1) + 1;
+        ids = Arrays.copyOf(ids, capacidade);
+        codigos = Arrays.copyOf(codigos, capacidade);
+        quantidades = Arrays.copyOf(quantidades, capacidade);
+        larguras = Arrays.copyOf(larguras, capacidade);
+        alturas = Arrays.copyOf(alturas, capacidade);
+        comprimentos = Arrays.copyOf(comprimentos, capacidade);
+        valoresUnitarios = Arrays.copyOf(valoresUnitarios, capacidade);
+        volumesMicroM3 = Arrays.copyOf(volumesMicroM3, capacidade);
+        totaisCentavos = Arrays.copyOf(totaisCentavos, capacidade);
+        visoes = Arrays.copyOf(visoes, capacidade);
+    }
+    
+    /**
+     * Id no formato de {@link QuoteItem#getId()}.
+     */
+    static String idComoTexto(int id) {
+        return id != SEM_ID ? Integer.toString(id) : null;
+    }
+    
+    /**
+     * Converte o id de {@link QuoteItem#setId(String)}; ids que não são
+     * números (itens ainda não gravados) ficam como 0.
+     */
+    static int idDoTexto(String id) {
+        if (id == null || id.isBlank()) {
+            return SEM_ID;
+        }
+        try {
+            return Integer.parseInt(id.trim());
+        } catch (NumberFormatException e) {
+            return SEM_ID;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.caua.madeira.model;
+
+import java.time.LocalDate;
+
+/**
+ * Totais de todos os orçamentos de um cliente, calculados pelo banco numa
+ * única agregação, sem carregar os orçamentos.
+ */
+public class ClientQuoteTotals {
+    private final int clientId;
+    private final long quoteCount;
+    private final double totalValue;
+    private final LocalDate lastDate;
+    
+    public ClientQuoteTotals(int clientId, long quoteCount, double totalValue, LocalDate lastDate) {
+        this.clientId = clientId;
+        this.quoteCount = quoteCount;
+        this.totalValue = totalValue;
+        this.lastDate = lastDate;
+    }
+    
+    public int getClientId() {
+        return clientId;
+    }
+    
+    public long getQuoteCount() {
+        return quoteCount;
+    }
+    
+    public double getTotalValue() {
+        return totalValue;
+    }
+    
+    /**
+     * Data do orçamento mais recente, ou {@code null} se não houver nenhum.
+     */
+    public LocalDate getLastDate() {
+        return lastDate;
+    }
+}
@@ -0,0 +1,125 @@
+package com.caua.madeira.model;
+
+import com.caua.madeira.util.PontoFixo;
+
+/**
+ * Visão de uma linha de {@link BlocoItens} como {@link QuoteItem}.
+ *
+ * Não guarda valores próprios: os getters leem as colunas do bloco e os
+ * ganchos de gravação do QuoteItem escrevem nelas, então propriedades
+ * JavaFX, tabelas e o cálculo de totais funcionam como num item comum.
+ */
+final class ItemDoBloco extends QuoteItem {
+    
+    private final BlocoItens bloco;
+    private final int linha;
+    
+    ItemDoBloco(BlocoItens bloco, int linha) {
+        this.bloco = bloco;
+        this.linha = linha;
+    }
+    
+    @Override
+    public String getId() {
+        // O texto do id só é montado na primeira leitura
+        String id = super.getId();
+        if (id == null) {
+            id = BlocoItens.idComoTexto(bloco.getId(linha));
+            if (id != null) {
+                super.setId(id);
+            }
+        }
+        return id;
+    }
+    
+    @Override
+    public void setId(String id) {
+        super.setId(id);
+        bloco.setId(linha, BlocoItens.idDoTexto(id));
+    }
+    
+    @Override
+    public String getCode() {
+        return bloco.getCodigo(linha);
+    }
+    
+    @Override
+    public int getQuantity() {
+        return bloco.getQuantidade(linha);
+    }
+    
+    @Override
+    public double getWidth() {
+        return bloco.getLargura(linha);
+    }
+    
+    @Override
+    public double getHeight() {
+        return bloco.getAltura(linha);
+    }
+    
+    @Override
+    public double getLength() {
+        return bloco.getComprimento(linha);
+    }
+    
+    @Override
+    public double getUnitValue() {
+        return bloco.getValorUnitario(linha);
+    }
+    
+    @Override
+    public double getTotal() {
+        return PontoFixo.reais(bloco.getTotalCentavos(linha));
+    }
+    
+    @Override
+    public long getTotalCentavos() {
+        return bloco.getTotalCentavos(linha);
+    }
+    
+    @Override
+    public long getVolumeMicroM3() {
+        return bloco.getVolumeMicroM3(linha);
+    }
+    
+    @Override
+    protected void gravarCodigo(String code) {
+        bloco.setCodigo(linha, code);
+    }
+    
+    @Override
+    protected void gravarQuantidade(int quantity) {
+        bloco.setQuantidade(linha, quantity);
+        calculateTotal();
+    }
+    
+    @Override
+    protected void gravarLargura(double width) {
+        bloco.setLargura(linha, width);
+        calculateTotal();
+    }
+    
+    @Override
+    protected void gravarAltura(double height) {
+        bloco.setAltura(linha, height);
+        calculateTotal();
+    }
+    
+    @Override
+    protected void gravarComprimento(double length) {
+        bloco.setComprimento(linha, length);
+        calculateTotal();
+    }
+    
+    @Override
+    protected void gravarValorUnitario(double unitValue) {
+        bloco.setValorUnitario(linha, unitValue);
+        calculateTotal();
+    }
+    
+    @Override
+    protected void gravarDerivados(long volumeMicroM3, long totalCentavos) {
+        bloco.setDerivados(linha, volumeMicroM3, totalCentavos);
+    }
+}
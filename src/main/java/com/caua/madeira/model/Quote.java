@@ -1,9 +1,29 @@
 package com.caua.madeira.model;
 
+import com.caua.madeira.util.PontoFixo;
+import javafx.beans.property.DoubleProperty;
+import javafx.beans.property.ReadOnlyDoubleProperty;
+import javafx.beans.property.ReadOnlyDoubleWrapper;
+import javafx.beans.property.SimpleDoubleProperty;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.beans.property.StringProperty;
+import javafx.beans.value.ChangeListener;
+
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * Orçamento com seus itens. Como em {@link QuoteItem}, os valores ficam em
+ * campos simples e as propriedades JavaFX são criadas só quando pedidas.
+ *
+ * O total é derivado dos itens, do desconto e do frete e não tem setter.
+ * Enquanto ninguém observa {@link #totalValueProperty()} ele é calculado a
+ * cada leitura; depois disso a propriedade ouve o {@code totalProperty()} de
+ * cada item e se atualiza quando um item, o desconto ou o frete mudam. Um
+ * orçamento lido sem itens (páginas da listagem) mostra o total gravado no banco.
+ */
 public class Quote {
     private int id;
     private String name;
@@ -11,11 +31,20 @@ public class Quote {
     private String clientName;
     private LocalDate date;
     private double shippingValue;
+    // Total gravado no banco; só vale enquanto os itens não foram carregados
     private double totalValue;
     private double discount;
     private String complemento;
     private List<QuoteItem> items;
     
+    // Criadas sob demanda
+    private StringProperty nameProperty;
+    private StringProperty clientNameProperty;
+    private DoubleProperty shippingValueProperty;
+    private ReadOnlyDoubleWrapper totalValueProperty;
+    private DoubleProperty discountProperty;
+    private final ChangeListener<Number> ouvinteItens = (obs, antigo, novo) -> atualizarTotal();
+    
     public Quote() {
         this.date = LocalDate.now();
     }
@@ -48,7 +77,23 @@ public class Quote {
     }
     
     public void setName(String name) {
-        this.name = name;
+        if (nameProperty != null) {
+            nameProperty.set(name);
+        } else {
+            this.name = name;
+        }
+    }
+    
+    public StringProperty nameProperty() {
+        if (nameProperty == null) {
+            nameProperty = new SimpleStringProperty(this, "name", name) {
+                @Override
+                protected void invalidated() {
+                    Quote.this.name = get();
+                }
+            };
+        }
+        return nameProperty;
     }
     
     public int getClientId() {
@@ -64,7 +109,23 @@ public class Quote {
     }
     
     public void setClientName(String clientName) {
-        this.clientName = clientName;
+        if (clientNameProperty != null) {
+            clientNameProperty.set(clientName);
+        } else {
+            this.clientName = clientName;
+        }
+    }
+    
+    public StringProperty clientNameProperty() {
+        if (clientNameProperty == null) {
+            clientNameProperty = new SimpleStringProperty(this, "clientName", clientName) {
+                @Override
+                protected void invalidated() {
+                    Quote.this.clientName = get();
+                }
+            };
+        }
+        return clientNameProperty;
     }
     
     public LocalDate getDate() {
@@ -84,15 +145,44 @@ public class Quote {
     }
     
     public void setShippingValue(double shippingValue) {
-        this.shippingValue = shippingValue;
+        if (shippingValueProperty != null) {
+            shippingValueProperty.set(shippingValue);
+        } else {
+            this.shippingValue = shippingValue;
+            atualizarTotal();
+        }
+    }
+    
+    public DoubleProperty shippingValueProperty() {
+        if (shippingValueProperty == null) {
+            shippingValueProperty = new SimpleDoubleProperty(this, "shippingValue", shippingValue) {
+                @Override
+                protected void invalidated() {
+                    Quote.this.shippingValue = get();
+                    atualizarTotal();
+                }
+            };
+        }
+        return shippingValueProperty;
     }
     
     public double getTotalValue() {
-        return totalValue;
+        if (totalValueProperty != null) {
+            return totalValueProperty.get();
+        }
+        return calcularTotal();
     }
     
-    public void setTotalValue(double totalValue) {
-        this.totalValue = totalValue;
+    /**
+     * Total do orçamento, somente leitura. Ao ser criada, a propriedade passa
+     * a ouvir o total de cada item.
+     */
+    public ReadOnlyDoubleProperty totalValueProperty() {
+        if (totalValueProperty == null) {
+            totalValueProperty = new ReadOnlyDoubleWrapper(this, "totalValue", calcularTotal());
+            ouvirItens(items);
+        }
+        return totalValueProperty.getReadOnlyProperty();
     }
     
     public List<QuoteItem> getItems() {
@@ -104,7 +194,25 @@ public class Quote {
     }
     
     public void setDiscount(double discount) {
-        this.discount = discount;
+        if (discountProperty != null) {
+            discountProperty.set(discount);
+        } else {
+            this.discount = discount;
+            atualizarTotal();
+        }
+    }
+    
+    public DoubleProperty discountProperty() {
+        if (discountProperty == null) {
+            discountProperty = new SimpleDoubleProperty(this, "discount", discount) {
+                @Override
+                protected void invalidated() {
+                    Quote.this.discount = get();
+                    atualizarTotal();
+                }
+            };
+        }
+        return discountProperty;
     }
     
     public String getComplemento() {
@@ -116,34 +224,95 @@ public class Quote {
     }
     
     public void setItems(List<QuoteItem> items) {
+        deixarDeOuvirItens(this.items);
         this.items = items;
-        calculateTotal();
+        ouvirItens(items);
+        atualizarTotal();
     }
     
     public void addItem(QuoteItem item) {
-        this.items.add(item);
-        calculateTotal();
+        listaAlteravel().add(item);
+        if (totalValueProperty != null && item != null) {
+            item.totalProperty().addListener(ouvinteItens);
+        }
+        atualizarTotal();
     }
     
     public void removeItem(QuoteItem item) {
-        this.items.remove(item);
-        calculateTotal();
+        if (listaAlteravel().remove(item) && totalValueProperty != null && item != null) {
+            item.totalProperty().removeListener(ouvinteItens);
+        }
+        atualizarTotal();
+    }
+    
+    /**
+     * Itens lidos do banco vêm num {@link BlocoItens}, que não aceita inserir
+     * nem remover; antes de alterar a lista ela passa para um ArrayList com as
+     * mesmas visões.
+     */
+    private List<QuoteItem> listaAlteravel() {
+        if (items == null) {
+            items = new ArrayList<>();
+        } else if (items instanceof BlocoItens) {
+            items = new ArrayList<>(items);
+        }
+        return items;
     }
     
-    private void calculateTotal() {
-        double subtotal = 0.0;
+    /**
+     * Soma dos totais dos itens, em centavos.
+     */
+    public long getSubtotalCentavos() {
+        if (items instanceof BlocoItens) {
+            return ((BlocoItens) items).somaTotaisCentavos();
+        }
+        long subtotal = 0L;
         if (items != null) {
-            subtotal = items.stream()
-                .mapToDouble(QuoteItem::getTotal)
-                .sum();
-        }
-        
-        // Aplicar desconto se houver
-        if (discount > 0) {
-            subtotal = subtotal - (subtotal * (discount / 100.0));
-        }
-        
-        // Adicionar frete
-        this.totalValue = subtotal + shippingValue;
+            for (QuoteItem item : items) {
+                subtotal += item.getTotalCentavos();
+            }
+        }
+        return subtotal;
+    }
+    
+    private double calcularTotal() {
+        if (items == null) {
+            return totalValue;
+        }
+        // Desconto percentual sobre o subtotal, mais o frete, tudo em centavos
+        long total = PontoFixo.totalGeral(getSubtotalCentavos(), discount, PontoFixo.centavos(shippingValue));
+        return PontoFixo.reais(total);
+    }
+    
+    private void atualizarTotal() {
+        if (totalValueProperty != null) {
+            totalValueProperty.set(calcularTotal());
+        }
+    }
+    
+    /**
+     * Só há ouvintes nos itens depois que {@link #totalValueProperty()} foi
+     * criada; antes disso o total é calculado na leitura.
+     */
+    private void ouvirItens(List<QuoteItem> lista) {
+        if (totalValueProperty == null || lista == null) {
+            return;
+        }
+        for (QuoteItem item : lista) {
+            if (item != null) {
+                item.totalProperty().addListener(ouvinteItens);
+            }
+        }
+    }
+    
+    private void deixarDeOuvirItens(List<QuoteItem> lista) {
+        if (totalValueProperty == null || lista == null) {
+            return;
+        }
+        for (QuoteItem item : lista) {
+            if (item != null) {
+                item.totalProperty().removeListener(ouvinteItens);
+            }
+        }
     }
 }
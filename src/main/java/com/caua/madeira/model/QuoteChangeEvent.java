@@ -0,0 +1,52 @@
+package com.caua.madeira.model;
+
+/**
+ * Alteração de um orçamento feita pelo formulário, repassada às listas
+ * abertas para que atualizem apenas a linha afetada.
+ */
+public class QuoteChangeEvent {
+    
+    public enum Type { CREATED, UPDATED, DELETED }
+    
+    private final Type type;
+    private final int quoteId;
+    private final QuoteSummary summary;
+    
+    private QuoteChangeEvent(Type type, int quoteId, QuoteSummary summary) {
+        this.type = type;
+        this.quoteId = quoteId;
+        this.summary = summary;
+    }
+    
+    public static QuoteChangeEvent created(Quote quote) {
+        return new QuoteChangeEvent(Type.CREATED, quote.getId(), resumir(quote));
+    }
+    
+    public static QuoteChangeEvent updated(Quote quote) {
+        return new QuoteChangeEvent(Type.UPDATED, quote.getId(), resumir(quote));
+    }
+    
+    public static QuoteChangeEvent deleted(int quoteId) {
+        return new QuoteChangeEvent(Type.DELETED, quoteId, null);
+    }
+    
+    private static QuoteSummary resumir(Quote quote) {
+        return new QuoteSummary(quote.getId(), quote.getName(), quote.getClientId(), quote.getClientName(),
+                quote.getDate(), quote.getTotalValue());
+    }
+    
+    public Type getType() {
+        return type;
+    }
+    
+    public int getQuoteId() {
+        return quoteId;
+    }
+    
+    /**
+     * Cabeçalho do orçamento após a gravação; {@code null} em exclusões.
+     */
+    public QuoteSummary getSummary() {
+        return summary;
+    }
+}
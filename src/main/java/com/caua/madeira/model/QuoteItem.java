@@ -1,5 +1,27 @@
 package com.caua.madeira.model;
 
+import com.caua.madeira.util.FormatoBr;
+import com.caua.madeira.util.PontoFixo;
+import javafx.beans.property.DoubleProperty;
+import javafx.beans.property.IntegerProperty;
+import javafx.beans.property.ReadOnlyDoubleProperty;
+import javafx.beans.property.ReadOnlyDoubleWrapper;
+import javafx.beans.property.SimpleDoubleProperty;
+import javafx.beans.property.SimpleIntegerProperty;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.beans.property.StringProperty;
+
+/**
+ * Item de orçamento.
+ *
+ * Os valores ficam em campos simples; as propriedades JavaFX só são criadas
+ * quando alguém as pede (uma célula da tabela, o cálculo de totais), então
+ * itens que nunca aparecem na tela não pagam por elas. {@code cubicMeters} e
+ * {@code total} são derivados e atualizados a cada alteração de medida,
+ * quantidade ou valor unitário; a conta é feita em ponto fixo
+ * ({@link PontoFixo}), com o volume em milionésimos de m³ e o total em
+ * centavos, e os getters {@code double} apenas expõem esses valores.
+ */
 public class QuoteItem {
     private String id;
     private String code;
@@ -9,6 +31,18 @@ public class QuoteItem {
     private double length;
     private double unitValue;
     private double total;
+    private long volumeMicroM3;
+    private long totalCentavos;
+    
+    // Criadas sob demanda
+    private StringProperty codeProperty;
+    private IntegerProperty quantityProperty;
+    private DoubleProperty widthProperty;
+    private DoubleProperty heightProperty;
+    private DoubleProperty lengthProperty;
+    private DoubleProperty unitValueProperty;
+    private ReadOnlyDoubleWrapper cubicMetersProperty;
+    private ReadOnlyDoubleWrapper totalProperty;
     
     public QuoteItem() {
         this.quantity = 0;
@@ -33,8 +67,14 @@ public class QuoteItem {
     public void calculateTotal() {
         // Total baseado no novo cálculo de M3: quantidade * largura(cm) * altura(cm) / 10000
         // Ou seja, M3 já considera a quantidade, portanto não multiplicar novamente por quantity aqui
-        double cubicMeters = getCubicMeters();
-        this.total = cubicMeters * unitValue;
+        long volume = PontoFixo.volumeItem(getQuantity(), getWidth(), getHeight(), getLength());
+        gravarDerivados(volume, PontoFixo.totalItem(volume, PontoFixo.centavos(getUnitValue())));
+        if (cubicMetersProperty != null) {
+            cubicMetersProperty.set(getCubicMeters());
+        }
+        if (totalProperty != null) {
+            totalProperty.set(getTotal());
+        }
     }
     
     // Getters and Setters
@@ -45,13 +85,29 @@ public class QuoteItem {
     public void setId(String id) {
         this.id = id;
     }
-
+    
     public String getCode() {
         return code;
     }
-
+    
     public void setCode(String code) {
-        this.code = code;
+        if (codeProperty != null) {
+            codeProperty.set(code);
+        } else {
+            gravarCodigo(code);
+        }
+    }
+    
+    public StringProperty codeProperty() {
+        if (codeProperty == null) {
+            codeProperty = new SimpleStringProperty(this, "code", getCode()) {
+                @Override
+                protected void invalidated() {
+                    gravarCodigo(get());
+                }
+            };
+        }
+        return codeProperty;
     }
     
     public int getQuantity() {
@@ -59,8 +115,23 @@ public class QuoteItem {
     }
     
     public void setQuantity(int quantity) {
-        this.quantity = quantity;
-        calculateTotal();
+        if (quantityProperty != null) {
+            quantityProperty.set(quantity);
+        } else {
+            gravarQuantidade(quantity);
+        }
+    }
+    
+    public IntegerProperty quantityProperty() {
+        if (quantityProperty == null) {
+            quantityProperty = new SimpleIntegerProperty(this, "quantity", getQuantity()) {
+                @Override
+                protected void invalidated() {
+                    gravarQuantidade(get());
+                }
+            };
+        }
+        return quantityProperty;
     }
     
     public double getWidth() {
@@ -68,8 +139,23 @@ public class QuoteItem {
     }
     
     public void setWidth(double width) {
-        this.width = width;
-        calculateTotal();
+        if (widthProperty != null) {
+            widthProperty.set(width);
+        } else {
+            gravarLargura(width);
+        }
+    }
+    
+    public DoubleProperty widthProperty() {
+        if (widthProperty == null) {
+            widthProperty = new SimpleDoubleProperty(this, "width", getWidth()) {
+                @Override
+                protected void invalidated() {
+                    gravarLargura(get());
+                }
+            };
+        }
+        return widthProperty;
     }
     
     public double getHeight() {
@@ -77,8 +163,23 @@ public class QuoteItem {
     }
     
     public void setHeight(double height) {
-        this.height = height;
-        calculateTotal();
+        if (heightProperty != null) {
+            heightProperty.set(height);
+        } else {
+            gravarAltura(height);
+        }
+    }
+    
+    public DoubleProperty heightProperty() {
+        if (heightProperty == null) {
+            heightProperty = new SimpleDoubleProperty(this, "height", getHeight()) {
+                @Override
+                protected void invalidated() {
+                    gravarAltura(get());
+                }
+            };
+        }
+        return heightProperty;
     }
     
     public double getLength() {
@@ -86,8 +187,23 @@ public class QuoteItem {
     }
     
     public void setLength(double length) {
-        this.length = length;
-        calculateTotal();
+        if (lengthProperty != null) {
+            lengthProperty.set(length);
+        } else {
+            gravarComprimento(length);
+        }
+    }
+    
+    public DoubleProperty lengthProperty() {
+        if (lengthProperty == null) {
+            lengthProperty = new SimpleDoubleProperty(this, "length", getLength()) {
+                @Override
+                protected void invalidated() {
+                    gravarComprimento(get());
+                }
+            };
+        }
+        return lengthProperty;
     }
     
     public double getUnitValue() {
@@ -95,25 +211,115 @@ public class QuoteItem {
     }
     
     public void setUnitValue(double unitValue) {
-        this.unitValue = unitValue;
-        calculateTotal();
+        if (unitValueProperty != null) {
+            unitValueProperty.set(unitValue);
+        } else {
+            gravarValorUnitario(unitValue);
+        }
+    }
+    
+    public DoubleProperty unitValueProperty() {
+        if (unitValueProperty == null) {
+            unitValueProperty = new SimpleDoubleProperty(this, "unitValue", getUnitValue()) {
+                @Override
+                protected void invalidated() {
+                    gravarValorUnitario(get());
+                }
+            };
+        }
+        return unitValueProperty;
     }
     
     public double getTotal() {
         return total;
     }
     
+    /**
+     * Total do item em centavos, já arredondado; é o valor somado nos totais do orçamento.
+     */
+    public long getTotalCentavos() {
+        return totalCentavos;
+    }
+    
+    /**
+     * Total do item (m³ * valor unitário), atualizado a cada alteração.
+     */
+    public ReadOnlyDoubleProperty totalProperty() {
+        if (totalProperty == null) {
+            totalProperty = new ReadOnlyDoubleWrapper(this, "total", getTotal());
+        }
+        return totalProperty.getReadOnlyProperty();
+    }
+    
     // Calculate cubic meters
     public double getCubicMeters() {
-        // Novo cálculo: quantidade * largura(cm) * altura(cm) / 10000
-        // Resultado em m³ considerando largura e altura em cm e sem considerar o comprimento
-        return (quantity * width * height * length) / 10000.0;
+        // Novo cálculo: quantidade * largura(cm) * altura(cm) * comprimento(m) / 10000
+        return PontoFixo.m3(getVolumeMicroM3());
     }
-
+    
+    /**
+     * Volume do item em milionésimos de m³.
+     */
+    public long getVolumeMicroM3() {
+        return volumeMicroM3;
+    }
+    
+    /**
+     * Volume do item em m³, atualizado a cada alteração de quantidade ou medida.
+     */
+    public ReadOnlyDoubleProperty cubicMetersProperty() {
+        if (cubicMetersProperty == null) {
+            cubicMetersProperty = new ReadOnlyDoubleWrapper(this, "cubicMeters", getCubicMeters());
+        }
+        return cubicMetersProperty.getReadOnlyProperty();
+    }
+    
+    // Armazenamento dos valores. Os setters e as propriedades gravam por estes
+    // métodos, e os getters são a única leitura, para que uma subclasse possa
+    // guardar os valores em outro lugar (ver ItemDoBloco).
+    
+    protected void gravarCodigo(String code) {
+        this.code = code;
+    }
+    
+    protected void gravarQuantidade(int quantity) {
+        this.quantity = quantity;
+        calculateTotal();
+    }
+    
+    protected void gravarLargura(double width) {
+        this.width = width;
+        calculateTotal();
+    }
+    
+    protected void gravarAltura(double height) {
+        this.height = height;
+        calculateTotal();
+    }
+    
+    protected void gravarComprimento(double length) {
+        this.length = length;
+        calculateTotal();
+    }
+    
+    protected void gravarValorUnitario(double unitValue) {
+        this.unitValue = unitValue;
+        calculateTotal();
+    }
+    
+    /**
+     * Guarda os valores derivados calculados em {@link #calculateTotal()}.
+     */
+    protected void gravarDerivados(long volumeMicroM3, long totalCentavos) {
+        this.volumeMicroM3 = volumeMicroM3;
+        this.totalCentavos = totalCentavos;
+        this.total = PontoFixo.reais(totalCentavos);
+    }
+    
     /**
-     * Formata um valor double para string com vírgula como separador decimal.
+     * Formata um valor double para string com vírgula como separador decimal (3 casas).
      */
     public static String formatDoubleBr(double value) {
-        return String.format("%.3f", value).replace('.', ',');
+        return FormatoBr.numero(value, 3);
     }
 }
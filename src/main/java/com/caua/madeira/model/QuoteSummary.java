@@ -0,0 +1,55 @@
+package com.caua.madeira.model;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Projeção somente do cabeçalho de um orçamento, usada nas listagens.
+ * Não carrega itens; o orçamento completo é obtido com QuoteDAO.buscarPorId.
+ */
+public class QuoteSummary {
+    private final int id;
+    private final String name;
+    private final int clientId;
+    private final String clientName;
+    private final LocalDate date;
+    private final double totalValue;
+    
+    public QuoteSummary(int id, String name, int clientId, String clientName, LocalDate date, double totalValue) {
+        this.id = id;
+        this.name = name;
+        this.clientId = clientId;
+        this.clientName = clientName;
+        this.date = date;
+        this.totalValue = totalValue;
+    }
+    
+    // Getters
+    public int getId() {
+        return id;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public int getClientId() {
+        return clientId;
+    }
+    
+    public String getClientName() {
+        return clientName;
+    }
+    
+    public LocalDate getDate() {
+        return date;
+    }
+    
+    public String getFormattedDate() {
+        return date != null ? date.format(DateTimeFormatter.ofPattern("dd/MM/yyyy")) : "";
+    }
+    
+    public double getTotalValue() {
+        return totalValue;
+    }
+}
@@ -0,0 +1,290 @@
+package com.caua.madeira.util;
+
+/**
+ * Formatação e leitura de números no padrão brasileiro (vírgula decimal e
+ * ponto de milhar), sem {@link String#format} nem {@link java.text.NumberFormat}.
+ *
+ * Os métodos {@code anexar*} escrevem direto no StringBuilder do chamador; os
+ * que devolvem String usam um buffer por thread, então a única alocação é a
+ * própria String. A leitura percorre os caracteres uma vez, sem criar textos
+ * intermediários. O arredondamento é sempre HALF_UP, como no String.format
+ * (ver {@link PontoFixo#escalar(double, long)}).
+ */
+public final class FormatoBr {
+    
+    private static final String PREFIXO_MOEDA = "R$ ";
+    private static final long[] POTENCIAS_10 = {
+        1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L, 1_000_000_000L
+    };
+    private static final int MAX_CASAS = POTENCIAS_10.length - 1;
+    // Acima disso o ulp do valor escalado atrapalha o arredondamento em escalar()
+    private static final double LIMITE_ESCALADO = 1e13;
+    
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(32));
+    
+    private FormatoBr() {
+    }
+    
+    /**
+     * Valor monetário: {@code "R$ 1.234,56"}.
+     */
+    public static String moeda(double valor) {
+        return paraTexto(anexarMoeda(buffer(), valor));
+    }
+    
+    /**
+     * Número com {@code casas} decimais fixas e ponto de milhar: {@code "1.234,567"}.
+     */
+    public static String numero(double valor, int casas) {
+        return paraTexto(anexarNumero(buffer(), valor, casas, true, false));
+    }
+    
+    /**
+     * Volume em m³ com 3 casas decimais.
+     */
+    public static String m3(double valor) {
+        return numero(valor, 3);
+    }
+    
+    /**
+     * Medida com até {@code casasMax} decimais, sem zeros à direita: {@code "12,5"}.
+     */
+    public static String medida(double valor, int casasMax) {
+        return paraTexto(anexarNumero(buffer(), valor, casasMax, true, true));
+    }
+    
+    /**
+     * Número com casas fixas e sem ponto de milhar ({@code "1234,56"}), para
+     * campos de texto que só aceitam dígitos e vírgula.
+     */
+    public static String semMilhar(double valor, int casas) {
+        return paraTexto(anexarNumero(buffer(), valor, casas, false, false));
+    }
+    
+    public static StringBuilder anexarMoeda(StringBuilder destino, double valor) {
+        if (valor < 0 && escalar(-valor, 2) != 0) {
+            destino.append('-');
+            valor = -valor;
+        }
+        destino.append(PREFIXO_MOEDA);
+        return anexarNumero(destino, valor, 2, true, false);
+    }
+    
+    /**
+     * Escreve {@code valor} em {@code destino} arredondado para {@code casas}
+     * decimais (HALF_UP). Com {@code aparaZeros}, zeros finais da parte
+     * decimal são omitidos, assim como a vírgula se não sobrar nenhum.
+     */
+    public static StringBuilder anexarNumero(StringBuilder destino, double valor, int casas,
+                                             boolean milhar, boolean aparaZeros) {
+        if (casas < 0 || casas > MAX_CASAS) {
+            throw new IllegalArgumentException("casas deve estar entre 0 e " + MAX_CASAS + ": " + casas);
+        }
+        if (Double.isNaN(valor) || Double.isInfinite(valor)) {
+            return destino.append(valor);
+        }
+        double absoluto = Math.abs(valor);
+        if (absoluto * POTENCIAS_10[casas] >= LIMITE_ESCALADO) {
+            return anexarGrande(destino, valor, casas, milhar);
+        }
+        long escalado = escalar(absoluto, casas);
+        if (valor < 0 && escalado != 0) {
+            destino.append('-');
+        }
+        long inteiro = escalado / POTENCIAS_10[casas];
+        long fracao = escalado % POTENCIAS_10[casas];
+        anexarInteiro(destino, inteiro, milhar);
+    
+        int digitos = casas;
+        if (aparaZeros) {
+            while (digitos > 0 && fracao % 10 == 0) {
+                fracao /= 10;
+                digitos--;
+            }
+        }
+        if (digitos > 0) {
+            destino.append(',');
+            // Zeros à esquerda da parte decimal
+            for (int d = digitos - 1; d > 0 && fracao < POTENCIAS_10[d]; d--) {
+                destino.append('0');
+            }
+            destino.append(fracao);
+        }
+        return destino;
+    }
+    
+    /**
+     * Lê um número escrito no padrão brasileiro, com ou sem {@code "R$"},
+     * espaços e ponto de milhar. Se não houver vírgula, um único ponto é
+     * tomado como separador decimal ({@code "1.5"} vale 1,5); vários pontos
+     * são de milhar. Texto vazio vale zero.
+     *
+     * @throws NumberFormatException se o texto não for um número
+     */
+    public static double ler(CharSequence texto) {
+        if (texto == null) {
+            return 0.0;
+        }
+        int tamanho = texto.length();
+        int virgulas = 0;
+        int pontos = 0;
+        for (int i = 0; i < tamanho; i++) {
+            char c = texto.charAt(i);
+            if (c == ',') {
+                virgulas++;
+            } else if (c == '.') {
+                pontos++;
+            }
+        }
+        if (virgulas > 1) {
+            throw invalido(texto);
+        }
+        char separadorDecimal = virgulas == 1 ? ',' : (pontos == 1 ? '.' : 0);
+    
+        long mantissa = 0;
+        int casas = 0;
+        boolean negativo = false;
+        boolean temDigito = false;
+        boolean naParteDecimal = false;
+        // Dígitos além do que um long representa com exatidão são tratados pelo fallback
+        boolean excedeu = false;
+        for (int i = 0; i < tamanho; i++) {
+            char c = texto.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (mantissa > (Long.MAX_VALUE - 9) / 10) {
+                    excedeu = true;
+                    break;
+                }
+                mantissa = mantissa * 10 + (c - '0');
+                temDigito = true;
+                if (naParteDecimal) {
+                    casas++;
+                }
+            } else if (c == separadorDecimal) {
+                naParteDecimal = true;
+            } else if (c == '.' || c == ' ' || c == '\u00a0') {
+                // Ponto de milhar ou espaço
+            } else if (c == '-' && !temDigito && !negativo) {
+                negativo = true;
+            } else if (c == '+' && !temDigito) {
+                // Sinal explícito
+            } else if (c == 'R' && i + 1 < tamanho && texto.charAt(i + 1) == '$' && !temDigito) {
+                i++;
+            } else {
+                throw invalido(texto);
+            }
+        }
+        if (excedeu) {
+            return lerGrande(texto, separadorDecimal);
+        }
+        if (!temDigito) {
+            if (naParteDecimal || negativo) {
+                throw invalido(texto);
+            }
+            return 0.0;
+        }
+        double resultado = casas <= MAX_CASAS
+            ? mantissa / (double) POTENCIAS_10[casas]
+            : mantissa / Math.pow(10, casas);
+        return negativo ? -resultado : resultado;
+    }
+    
+    /**
+     * Como {@link #ler(CharSequence)}, mas devolve {@code seInvalido} em vez
+     * de lançar exceção.
+     */
+    public static double ler(CharSequence texto, double seInvalido) {
+        try {
+            return ler(texto);
+        } catch (NumberFormatException e) {
+            return seInvalido;
+        }
+    }
+    
+    private static long escalar(double absoluto, int casas) {
+        return PontoFixo.escalar(absoluto, POTENCIAS_10[casas]);
+    }
+    
+    private static void anexarInteiro(StringBuilder destino, long inteiro, boolean milhar) {
+        if (!milhar || inteiro < 1000) {
+            destino.append(inteiro);
+            return;
+        }
+        long divisor = 1;
+        while (inteiro / divisor >= 1000) {
+            divisor *= 1000;
+        }
+        destino.append(inteiro / divisor);
+        while (divisor > 1) {
+            inteiro %= divisor;
+            divisor /= 1000;
+            long grupo = inteiro / divisor;
+            destino.append('.');
+            if (grupo < 100) {
+                destino.append('0');
+            }
+            if (grupo < 10) {
+                destino.append('0');
+            }
+            destino.append(grupo);
+        }
+    }
+    
+    /**
+     * Valores enormes, fora do uso normal do sistema: formata com BigDecimal.
+     */
+    private static StringBuilder anexarGrande(StringBuilder destino, double valor, int casas, boolean milhar) {
+        String texto = new java.math.BigDecimal(Double.toString(valor))
+            .setScale(casas, java.math.RoundingMode.HALF_UP)
+            .toPlainString();
+        int inicio = 0;
+        if (texto.charAt(0) == '-') {
+            destino.append('-');
+            inicio = 1;
+        }
+        int ponto = texto.indexOf('.');
+        int fimInteiro = ponto >= 0 ? ponto : texto.length();
+        for (int i = inicio; i < fimInteiro; i++) {
+            if (milhar && i > inicio && (fimInteiro - i) % 3 == 0) {
+                destino.append('.');
+            }
+            destino.append(texto.charAt(i));
+        }
+        if (ponto >= 0) {
+            destino.append(',').append(texto, ponto + 1, texto.length());
+        }
+        return destino;
+    }
+    
+    private static double lerGrande(CharSequence texto, char separadorDecimal) {
+        StringBuilder normalizado = new StringBuilder(texto.length());
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            if ((c >= '0' && c <= '9') || c == '-') {
+                normalizado.append(c);
+            } else if (c == separadorDecimal) {
+                normalizado.append('.');
+            }
+        }
+        return Double.parseDouble(normalizado.toString());
+    }
+    
+    private static NumberFormatException invalido(CharSequence texto) {
+        return new NumberFormatException("Número inválido: \"" + texto + "\"");
+    }
+    
+    private static StringBuilder buffer() {
+        StringBuilder buffer = BUFFER.get();
+        buffer.setLength(0);
+        return buffer;
+    }
+    
+    private static String paraTexto(StringBuilder buffer) {
+        String texto = buffer.toString();
+        if (buffer.capacity() > 256) {
+            // Não mantém preso um buffer que cresceu por um valor excepcional
+            BUFFER.remove();
+        }
+        return texto;
+    }
+}
@@ -0,0 +1,166 @@
+package com.caua.madeira.util;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+
+/**
+ * Aritmética de ponto fixo para dinheiro e volume, sobre {@code long}.
+ *
+ * Dinheiro é contado em centavos e volume em milionésimos de m³; medidas
+ * (cm e m) entram com até 3 casas. Toda conversão de {@code double} e toda
+ * divisão arredonda HALF_UP (meio centavo para longe do zero), e somas são
+ * exatas, então o total mostrado na tela, o impresso no PDF e o gravado no
+ * banco saem da mesma conta. Multiplicações usam {@link Math#multiplyExact};
+ * só quando estouram um long a conta é refeita com {@link BigInteger}.
+ */
+public final class PontoFixo {
+    
+    public static final long CENTAVOS_POR_REAL = 100L;
+    public static final long MICRO_M3_POR_M3 = 1_000_000L;
+    // Medidas com até 3 casas decimais
+    private static final long ESCALA_MEDIDA = 1_000L;
+    // O produto das três medidas em milésimos tem escala 10⁹; com o /10000 da
+    // fórmula do m³ e o resultado em milionésimos, o divisor fica 10⁷
+    private static final long DIVISOR_VOLUME = ESCALA_MEDIDA * ESCALA_MEDIDA * ESCALA_MEDIDA * 10_000L / MICRO_M3_POR_M3;
+    // Percentual com 2 casas: 100% = 10000
+    private static final long ESCALA_PERCENTUAL = 100L;
+    
+    private PontoFixo() {
+    }
+    
+    public static long centavos(double reais) {
+        return escalar(reais, CENTAVOS_POR_REAL);
+    }
+    
+    public static double reais(long centavos) {
+        return centavos / (double) CENTAVOS_POR_REAL;
+    }
+    
+    /**
+     * Arredonda um valor em reais para o centavo.
+     */
+    public static double arredondarReais(double reais) {
+        return reais(centavos(reais));
+    }
+    
+    public static long microM3(double m3) {
+        return escalar(m3, MICRO_M3_POR_M3);
+    }
+    
+    public static double m3(long microM3) {
+        return microM3 / (double) MICRO_M3_POR_M3;
+    }
+    
+    /**
+     * Volume de um item em milionésimos de m³: quantidade * largura(cm) *
+     * altura(cm) * comprimento(m) / 10000, com as medidas em milésimos.
+     *
+     * @throws ArithmeticException se o volume não couber num long
+     */
+    public static long volumeItem(int quantidade, double larguraCm, double alturaCm, double comprimentoM) {
+        long largura = escalar(larguraCm, ESCALA_MEDIDA);
+        long altura = escalar(alturaCm, ESCALA_MEDIDA);
+        long comprimento = escalar(comprimentoM, ESCALA_MEDIDA);
+        try {
+            long produto = Math.multiplyExact(Math.multiplyExact(Math.multiplyExact(quantidade, largura), altura), comprimento);
+            return dividir(produto, DIVISOR_VOLUME);
+        } catch (ArithmeticException e) {
+            BigInteger produto = BigInteger.valueOf(quantidade)
+                .multiply(BigInteger.valueOf(largura))
+                .multiply(BigInteger.valueOf(altura))
+                .multiply(BigInteger.valueOf(comprimento));
+            return dividir(produto, DIVISOR_VOLUME);
+        }
+    }
+    
+    /**
+     * Total do item em centavos: volume (milionésimos de m³) * valor do m³ (centavos).
+     */
+    public static long totalItem(long microM3, long valorM3Centavos) {
+        return multiplicarDividir(microM3, valorM3Centavos, MICRO_M3_POR_M3);
+    }
+    
+    /**
+     * Valor do desconto em centavos para um percentual (com até 2 casas)
+     * sobre {@code subtotalCentavos}. Percentual zero ou negativo não desconta.
+     */
+    public static long desconto(long subtotalCentavos, double percentual) {
+        if (percentual <= 0) {
+            return 0L;
+        }
+        long centesimos = escalar(percentual, ESCALA_PERCENTUAL);
+        return multiplicarDividir(subtotalCentavos, centesimos, 100L * ESCALA_PERCENTUAL);
+    }
+    
+    /**
+     * Subtotal menos o desconto percentual, mais o frete; tudo em centavos.
+     */
+    public static long totalGeral(long subtotalCentavos, double percentualDesconto, long freteCentavos) {
+        return Math.addExact(Math.subtractExact(subtotalCentavos, desconto(subtotalCentavos, percentualDesconto)), freteCentavos);
+    }
+    
+    /**
+     * {@code a * b / divisor} arredondado HALF_UP, sem perder precisão no
+     * produto intermediário.
+     *
+     * @throws ArithmeticException se o resultado não couber num long
+     */
+    public static long multiplicarDividir(long a, long b, long divisor) {
+        try {
+            return dividir(Math.multiplyExact(a, b), divisor);
+        } catch (ArithmeticException e) {
+            return dividir(BigInteger.valueOf(a).multiply(BigInteger.valueOf(b)), divisor);
+        }
+    }
+    
+    /**
+     * {@code valor * escala} arredondado HALF_UP para long. Um resto que só
+     * fica abaixo de meio por erro de representação binária (1,005 * 100 =
+     * 100,4999...) conta como meio, porque o valor digitado era 1,005: perto
+     * do meio, quem decide são os dígitos decimais do double (os de
+     * {@link Double#toString}), como no String.format.
+     *
+     * @throws ArithmeticException se o valor for NaN, infinito ou não couber num long
+     */
+    public static long escalar(double valor, long escala) {
+        if (Double.isNaN(valor) || Double.isInfinite(valor)) {
+            throw new ArithmeticException("Valor não numérico: " + valor);
+        }
+        double absoluto = Math.abs(valor);
+        double bruto = absoluto * escala;
+        if (bruto >= 0x1p63) {
+            throw new ArithmeticException("Valor fora do intervalo: " + valor);
+        }
+        long escalado = (long) bruto;
+        double resto = bruto - escalado;
+        if (Math.abs(resto - 0.5) <= 4 * Math.ulp(bruto)) {
+            escalado = new BigDecimal(Double.toString(absoluto))
+                .multiply(BigDecimal.valueOf(escala))
+                .setScale(0, RoundingMode.HALF_UP)
+                .longValueExact();
+        } else if (resto > 0.5) {
+            escalado++;
+        }
+        return valor < 0 ? -escalado : escalado;
+    }
+    
+    private static long dividir(long dividendo, long divisor) {
+        long quociente = dividendo / divisor;
+        long resto = dividendo % divisor;
+        if (Math.abs(resto) >= divisor - Math.abs(resto)) {
+            quociente += dividendo < 0 ? -1 : 1;
+        }
+        return quociente;
+    }
+    
+    private static long dividir(BigInteger dividendo, long divisor) {
+        BigInteger[] quocienteResto = dividendo.divideAndRemainder(BigInteger.valueOf(divisor));
+        long quociente = quocienteResto[0].longValueExact();
+        long resto = quocienteResto[1].abs().longValue();
+        if (resto >= divisor - resto) {
+            quociente += dividendo.signum() < 0 ? -1 : 1;
+        }
+        return quociente;
+    }
+}
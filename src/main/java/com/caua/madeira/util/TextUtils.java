@@ -0,0 +1,47 @@
+package com.caua.madeira.util;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+public class TextUtils {
+    
+    private static final Pattern MARCAS = Pattern.compile("\\p{M}+");
+    
+    // Remove acentos e passa para minúsculas: "Conceição" -> "conceicao"
+    public static String normalizar(String texto) {
+        if (texto == null || texto.isEmpty()) {
+            return "";
+        }
+        if (ascii(texto)) {
+            // Sem acentos possíveis: dispensa a decomposição
+            return texto.toLowerCase(Locale.ROOT);
+        }
+        String decomposto = Normalizer.normalize(texto, Normalizer.Form.NFD);
+        return MARCAS.matcher(decomposto).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+    
+    private static boolean ascii(String texto) {
+        for (int i = 0; i < texto.length(); i++) {
+            if (texto.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    // Mantém apenas os dígitos: "123.456.789-00" -> "12345678900"
+    public static String somenteDigitos(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        StringBuilder digitos = new StringBuilder(texto.length());
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digitos.append(c);
+            }
+        }
+        return digitos.toString();
+    }
+}
@@ -0,0 +1,60 @@
+package com.caua.madeira.view;
+
+import com.caua.madeira.cache.ClienteCache;
+import com.caua.madeira.model.Cliente;
+import javafx.scene.control.ComboBox;
+import javafx.scene.input.KeyEvent;
+
+import java.util.Set;
+
+/**
+ * Seleção por digitação numa ComboBox de clientes: as teclas digitadas com a
+ * lista focada formam um termo, e o primeiro cliente que casa com ele no
+ * índice do {@link ClienteCache} (sem acentos, por início de palavra ou
+ * trecho) é selecionado. Uma pausa maior que {@link #PAUSA_REINICIO_MS}
+ * começa um termo novo.
+ */
+final class BuscaClienteCombo {
+    
+    private static final long PAUSA_REINICIO_MS = 1_000;
+    
+    private final ComboBox<Cliente> combo;
+    private final StringBuilder digitado = new StringBuilder();
+    private long ultimaTecla;
+    
+    private BuscaClienteCombo(ComboBox<Cliente> combo) {
+        this.combo = combo;
+    }
+    
+    static void instalar(ComboBox<Cliente> combo) {
+        BuscaClienteCombo busca = new BuscaClienteCombo(combo);
+        combo.addEventHandler(KeyEvent.KEY_TYPED, busca::teclaDigitada);
+    }
+    
+    private void teclaDigitada(KeyEvent event) {
+        String caractere = event.getCharacter();
+        if (caractere.isEmpty() || event.isControlDown() || event.isAltDown() || event.isMetaDown()) {
+            return;
+        }
+        char c = caractere.charAt(0);
+        if (!Character.isLetterOrDigit(c) && c != ' ') {
+            return;
+        }
+        
+        long agora = System.currentTimeMillis();
+        if (agora - ultimaTecla > PAUSA_REINICIO_MS) {
+            digitado.setLength(0);
+        }
+        ultimaTecla = agora;
+        digitado.append(c);
+        
+        Set<Integer> ids = ClienteCache.getInstance().procurar(digitado.toString());
+        for (Cliente cliente : combo.getItems()) {
+            if (ids.contains(cliente.getId())) {
+                combo.getSelectionModel().select(cliente);
+                break;
+            }
+        }
+        event.consume();
+    }
+}
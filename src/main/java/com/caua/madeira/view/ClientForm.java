@@ -1,6 +1,6 @@
 package com.caua.madeira.view;
 
-import com.caua.madeira.dao.ClienteDAO;
+import com.caua.madeira.dao.ClienteDAOAsync;
 import com.caua.madeira.model.Cliente;
 import javafx.geometry.Insets;
 import javafx.scene.control.*;
@@ -9,11 +9,9 @@ import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
 import javafx.scene.control.Alert.AlertType;
 
-import java.sql.SQLException;
-
 public class ClientForm extends VBox {
     
-    private final ClienteDAO clienteDAO;
+    private final ClienteDAOAsync clienteDAO;
     private Cliente clienteAtual;
     private final Runnable onSaveCallback;
     
@@ -32,7 +30,7 @@ public class ClientForm extends VBox {
         this.emailField = new TextField();
         this.documentField = new TextField();
         
-        this.clienteDAO = new ClienteDAO();
+        this.clienteDAO = new ClienteDAOAsync();
         this.onSaveCallback = onSaveCallback;
         this.initializeUI();
         this.novoCliente();
@@ -124,53 +122,56 @@ public class ClientForm extends VBox {
     }
     
     private void salvarCliente() {
-        try {
-            if (validarCampos()) {
-                if (clienteAtual == null) {
-                    clienteAtual = new Cliente();
-                }
-                
-                clienteAtual.setNome(nameField.getText());
-                clienteAtual.setEndereco(addressField.getText());
-                clienteAtual.setTelefone(phoneField.getText());
-                clienteAtual.setEmail(emailField.getText());
-                clienteAtual.setDocumento(documentField.getText());
-                
-                clienteDAO.salvar(clienteAtual);
-                
+        if (validarCampos()) {
+            if (clienteAtual == null) {
+                clienteAtual = new Cliente();
+            }
+            
+            clienteAtual.setNome(nameField.getText());
+            clienteAtual.setEndereco(addressField.getText());
+            clienteAtual.setTelefone(phoneField.getText());
+            clienteAtual.setEmail(emailField.getText());
+            clienteAtual.setDocumento(documentField.getText());
+            
+            setDisable(true);
+            TarefasUI.aoConcluir(clienteDAO.salvar(clienteAtual), ignorado -> {
+                setDisable(false);
                 showAlert("Sucesso", "Cliente salvo com sucesso!", AlertType.INFORMATION);
                 limparFormulario();
                 
                 if (onSaveCallback != null) {
                     onSaveCallback.run();
                 }
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-            showAlert("Erro", "Erro ao salvar cliente: " + e.getMessage(), AlertType.ERROR);
+            }, e -> {
+                setDisable(false);
+                e.printStackTrace();
+                showAlert("Erro", "Erro ao salvar cliente: " + e.getMessage(), AlertType.ERROR);
+            });
         }
     }
     
     private void excluirCliente() {
         if (clienteAtual != null && clienteAtual.getId() > 0) {
-            try {
-                Alert alert = new Alert(AlertType.CONFIRMATION);
-                alert.setTitle("Confirmar Exclusão");
-                alert.setHeaderText("Excluir Cliente");
-                alert.setContentText("Tem certeza que deseja excluir este cliente?");
-                
-                if (alert.showAndWait().get() == ButtonType.OK) {
-                    clienteDAO.excluir(clienteAtual.getId());
+            Alert alert = new Alert(AlertType.CONFIRMATION);
+            alert.setTitle("Confirmar Exclusão");
+            alert.setHeaderText("Excluir Cliente");
+            alert.setContentText("Tem certeza que deseja excluir este cliente?");
+            
+            if (alert.showAndWait().get() == ButtonType.OK) {
+                setDisable(true);
+                TarefasUI.aoConcluir(clienteDAO.excluir(clienteAtual.getId()), ignorado -> {
+                    setDisable(false);
                     showAlert("Sucesso", "Cliente excluído com sucesso!", AlertType.INFORMATION);
                     limparFormulario();
                     
                     if (onSaveCallback != null) {
                         onSaveCallback.run();
                     }
-                }
-            } catch (SQLException e) {
-                e.printStackTrace();
-                showAlert("Erro", "Erro ao excluir cliente: " + e.getMessage(), AlertType.ERROR);
+                }, e -> {
+                    setDisable(false);
+                    e.printStackTrace();
+                    showAlert("Erro", "Erro ao excluir cliente: " + e.getMessage(), AlertType.ERROR);
+                });
             }
         }
     }
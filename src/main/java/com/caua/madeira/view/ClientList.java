@@ -1,34 +1,67 @@
 package com.caua.madeira.view;
 
-import com.caua.madeira.dao.ClienteDAO;
+import com.caua.madeira.cache.ClienteCache;
+import com.caua.madeira.dao.ClienteDAOAsync;
 import com.caua.madeira.model.Cliente;
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyStringWrapper;
+import javafx.beans.value.ObservableValue;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.collections.transformation.FilteredList;
+import javafx.collections.transformation.SortedList;
 import javafx.geometry.Insets;
 import javafx.scene.control.*;
-import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.Priority;
 import javafx.scene.layout.VBox;
+import javafx.util.Duration;
 
-import java.sql.SQLException;
+import java.text.Collator;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
 
 import javafx.scene.control.Alert;
 
 public class ClientList extends VBox {
     
+    // Pausa na digitação antes de filtrar
+    private static final Duration ATRASO_BUSCA = Duration.millis(200);
+    
     private TableView<Client> clientTable;
     private ObservableList<Client> clientData;
     private final java.util.function.Consumer<Client> onClientSelected;
-    private final ClienteDAO clienteDAO;
+    private final ClienteDAOAsync clienteDAO;
+    private final Collator collator = Collator.getInstance(new Locale("pt", "BR"));
+    // Todos os clientes estão no ClienteCache, então a busca sempre filtra em memória
+    private Predicate<Client> filtro = c -> true;
+    private String termoFiltro = "";
+    private FilteredList<Client> filtrados;
+    private final PauseTransition atrasoBusca = new PauseTransition(ATRASO_BUSCA);
     
     public ClientList(java.util.function.Consumer<Client> onClientSelected) {
         this.onClientSelected = onClientSelected;
-        this.clienteDAO = new ClienteDAO();
+        this.clienteDAO = new ClienteDAOAsync();
         initializeUI();
         refreshClientList();
+        // Alterações feitas nesta ou em outra estação chegam pelo cache. A tela é
+        // mantida pelo Main enquanto a aplicação roda, inclusive quando oculta.
+        ClienteCache.getInstance().adicionarOuvinte(new ClienteCache.Ouvinte() {
+            @Override
+            public void clienteAlterado(int id, Cliente cliente) {
+                Platform.runLater(() -> aplicarAlteracao(id, cliente));
+            }
+            
+            @Override
+            public void cacheInvalidado() {
+                Platform.runLater(ClientList.this::refreshClientList);
+            }
+        });
     }
     
     private void initializeUI() {
@@ -45,16 +78,16 @@ public class ClientList extends VBox {
         
         // Create columns
         TableColumn<Client, String> nameCol = new TableColumn<>("Nome");
-        nameCol.setCellValueFactory(new PropertyValueFactory<>("name"));
+        nameCol.setCellValueFactory(cell -> texto(cell.getValue(), Client::getName));
         
         TableColumn<Client, String> phoneCol = new TableColumn<>("Telefone");
-        phoneCol.setCellValueFactory(new PropertyValueFactory<>("phone"));
+        phoneCol.setCellValueFactory(cell -> texto(cell.getValue(), Client::getPhone));
         
         TableColumn<Client, String> emailCol = new TableColumn<>("Email");
-        emailCol.setCellValueFactory(new PropertyValueFactory<>("email"));
+        emailCol.setCellValueFactory(cell -> texto(cell.getValue(), Client::getEmail));
         
         TableColumn<Client, String> documentCol = new TableColumn<>("CPF/CNPJ");
-        documentCol.setCellValueFactory(new PropertyValueFactory<>("document"));
+        documentCol.setCellValueFactory(cell -> texto(cell.getValue(), Client::getDocument));
         
         // Adiciona as colunas à tabela de forma segura
         @SuppressWarnings("unchecked")
@@ -82,6 +115,12 @@ public class ClientList extends VBox {
         TextField searchField = new TextField();
         searchField.setPromptText("Buscar cliente...");
         searchField.setPrefWidth(300);
+        atrasoBusca.setOnFinished(e -> filtrar(searchField.getText()));
+        searchField.setOnAction(e -> {
+            atrasoBusca.stop();
+            filtrar(searchField.getText());
+        });
+        searchField.textProperty().addListener((obs, oldText, newText) -> atrasoBusca.playFromStart());
         
         // Add components to layout
         HBox searchBox = new HBox(10);
@@ -94,36 +133,100 @@ public class ClientList extends VBox {
     }
     
     public void refreshClientList() {
-        try {
-            // Busca todos os clientes do banco de dados
-            List<Cliente> clientes = clienteDAO.listarTodos();
-            
+        clientTable.setPlaceholder(new Label("Carregando clientes..."));
+        
+        // Busca todos os clientes do banco de dados fora da thread da interface
+        TarefasUI.aoConcluir(clienteDAO.listarTodos(), clientes -> {
             // Converte os Cliente para Client (usado na tabela)
             List<Client> clientList = new ArrayList<>();
             for (Cliente c : clientes) {
-                clientList.add(new Client(
-                    c.getId(),
-                    c.getNome(), 
-                    c.getEndereco(), 
-                    c.getTelefone(), 
-                    c.getEmail(), 
-                    c.getDocumento()
-                ));
+                clientList.add(paraLinha(c));
             }
             
             clientData = FXCollections.observableArrayList(clientList);
-            clientTable.setItems(clientData);
-        } catch (SQLException e) {
+            filtrados = new FilteredList<>(clientData, filtro);
+            // A ordenação pelas colunas continua funcionando sobre a lista filtrada
+            SortedList<Client> ordenados = new SortedList<>(filtrados);
+            ordenados.comparatorProperty().bind(clientTable.comparatorProperty());
+            clientTable.setItems(ordenados);
+            clientTable.setPlaceholder(new Label("Nenhum cliente encontrado"));
+        }, e -> {
             e.printStackTrace();
+            clientTable.setPlaceholder(new Label("Não foi possível carregar os clientes"));
             // Mostra mensagem de erro
             Alert alert = new Alert(Alert.AlertType.ERROR);
             alert.setTitle("Erro");
             alert.setHeaderText("Erro ao carregar clientes");
             alert.setContentText("Não foi possível carregar a lista de clientes: " + e.getMessage());
             alert.showAndWait();
+        });
+    }
+    
+    /**
+     * Filtra pelo índice do ClienteCache: ignora acentos e maiúsculas e casa
+     * início de palavra ou trecho do nome, documento, telefone ou e-mail.
+     */
+    private void filtrar(String termo) {
+        termoFiltro = termo != null ? termo.trim() : "";
+        if (termoFiltro.isEmpty()) {
+            filtro = c -> true;
+        } else {
+            Set<Integer> ids = ClienteCache.getInstance().procurar(termoFiltro);
+            filtro = c -> ids.contains(c.getId());
+        }
+        if (filtrados != null) {
+            filtrados.setPredicate(filtro);
+        }
+    }
+    
+    /**
+     * Atualiza só a linha do cliente alterado, mantendo a ordem por nome.
+     */
+    private void aplicarAlteracao(int id, Cliente cliente) {
+        if (clientData == null) {
+            return;
+        }
+        for (int i = 0; i < clientData.size(); i++) {
+            if (clientData.get(i).getId() == id) {
+                clientData.remove(i);
+                break;
+            }
+        }
+        if (cliente == null) {
+            return;
+        }
+        Client linha = paraLinha(cliente);
+        int posicao = 0;
+        while (posicao < clientData.size()
+                && collator.compare(nomeOuVazio(clientData.get(posicao).getName()), nomeOuVazio(linha.getName())) <= 0) {
+            posicao++;
+        }
+        clientData.add(posicao, linha);
+        // O conjunto de ids do filtro foi calculado antes da alteração
+        if (!termoFiltro.isEmpty()) {
+            filtrar(termoFiltro);
         }
     }
     
+    private static ObservableValue<String> texto(Client linha, Function<Client, String> campo) {
+        return linha != null ? new ReadOnlyStringWrapper(campo.apply(linha)) : null;
+    }
+    
+    private static String nomeOuVazio(String nome) {
+        return nome != null ? nome : "";
+    }
+    
+    private static Client paraLinha(Cliente c) {
+        return new Client(
+            c.getId(),
+            c.getNome(), 
+            c.getEndereco(), 
+            c.getTelefone(), 
+            c.getEmail(), 
+            c.getDocumento()
+        );
+    }
+    
     // Classe interna para representar um cliente na tabela
     public static class Client {
         private final int id;
@@ -0,0 +1,205 @@
+package com.caua.madeira.view;
+
+import com.caua.madeira.model.BlocoItens;
+import com.caua.madeira.model.QuoteItem;
+import javafx.collections.ObservableListBase;
+import javafx.scene.control.TableColumn;
+
+import java.util.List;
+
+/**
+ * Itens de um orçamento na ordem escolhida pelo cabeçalho da tabela, sem
+ * copiar a lista.
+ *
+ * A ordenação troca só um array de posições: as linhas são comparadas pelos
+ * valores das colunas, lidos direto do {@link BlocoItens} quando os itens
+ * vêm do banco, então nenhuma visão de linha é criada para ordenar. Só
+ * {@link #get(int)} cria a visão, para as linhas que a tabela mostra. Cada
+ * coluna ordenável leva em {@code userData} a {@link Coluna} que compara.
+ *
+ * Deve ser usada apenas na thread da interface.
+ */
+final class ItensOrdenados extends ObservableListBase<QuoteItem> {
+
+    /**
+     * Valor pelo qual uma coluna da tabela de itens é ordenada. Medidas,
+     * m³ e valores são comparados como números, não pelo texto formatado.
+     */
+    enum Coluna { CODIGO, QUANTIDADE, LARGURA, ALTURA, COMPRIMENTO, M3, VALOR_UNITARIO, TOTAL }
+
+    private final List<QuoteItem> itens;
+    // Mesmo objeto de itens quando eles vêm do banco; null para uma lista comum
+    private final BlocoItens bloco;
+    // Linha de itens mostrada em cada posição
+    private int[] ordem;
+
+    ItensOrdenados(List<QuoteItem> itens) {
+        this.itens = itens;
+        this.bloco = itens instanceof BlocoItens ? (BlocoItens) itens : null;
+        this.ordem = ordemOriginal(itens.size());
+    }
+
+    @Override
+    public QuoteItem get(int index) {
+        return itens.get(ordem[index]);
+    }
+
+    @Override
+    public int size() {
+        return ordem.length;
+    }
+
+    /**
+     * Reordena pelas colunas de {@code ordemColunas} (a {@code sortOrder} da
+     * tabela), na direção de cada uma; sem colunas, volta à ordem dos itens.
+     * Empates mantêm a ordem original.
+     */
+    void ordenar(List<? extends TableColumn<QuoteItem, ?>> ordemColunas) {
+        int quantidade = ordemColunas.size();
+        Coluna[] colunas = new Coluna[quantidade];
+        boolean[] crescentes = new boolean[quantidade];
+        int usadas = 0;
+        for (TableColumn<QuoteItem, ?> coluna : ordemColunas) {
+            if (coluna.getUserData() instanceof Coluna) {
+                colunas[usadas] = (Coluna) coluna.getUserData();
+                crescentes[usadas] = coluna.getSortType() == TableColumn.SortType.ASCENDING;
+                usadas++;
+            }
+        }
+
+        int[] nova = ordemOriginal(ordem.length);
+        if (usadas > 0) {
+            ordenar(nova, new int[nova.length], 0, nova.length, colunas, crescentes, usadas);
+        }
+        aplicar(nova);
+    }
+
+    private void aplicar(int[] nova) {
+        int[] posicaoAnterior = new int[ordem.length];
+        for (int i = 0; i < ordem.length; i++) {
+            posicaoAnterior[ordem[i]] = i;
+        }
+        // permutacao[posição antiga] = posição nova
+        int[] permutacao = new int[nova.length];
+        boolean mudou = false;
+        for (int i = 0; i < nova.length; i++) {
+            permutacao[posicaoAnterior[nova[i]]] = i;
+            mudou |= nova[i] != ordem[i];
+        }
+        ordem = nova;
+        if (mudou) {
+            beginChange();
+            nextPermutation(0, nova.length, permutacao);
+            endChange();
+        }
+    }
+
+    /**
+     * Merge sort estável de {@code linhas[inicio, fim)}.
+     */
+    private void ordenar(int[] linhas, int[] auxiliar, int inicio, int fim,
+                         Coluna[] colunas, boolean[] crescentes, int usadas) {
+        if (fim - inicio < 2) {
+            return;
+        }
+        int meio = (inicio + fim) >>> 1;
+        ordenar(linhas, auxiliar, inicio, meio, colunas, crescentes, usadas);
+        ordenar(linhas, auxiliar, meio, fim, colunas, crescentes, usadas);
+        if (comparar(linhas[meio - 1], linhas[meio], colunas, crescentes, usadas) <= 0) {
+            return;
+        }
+        System.arraycopy(linhas, inicio, auxiliar, inicio, fim - inicio);
+        int esquerda = inicio;
+        int direita = meio;
+        for (int i = inicio; i < fim; i++) {
+            if (direita >= fim || (esquerda < meio
+                    && comparar(auxiliar[esquerda], auxiliar[direita], colunas, crescentes, usadas) <= 0)) {
+                linhas[i] = auxiliar[esquerda++];
+            } else {
+                linhas[i] = auxiliar[direita++];
+            }
+        }
+    }
+
+    private int comparar(int a, int b, Coluna[] colunas, boolean[] crescentes, int usadas) {
+        for (int i = 0; i < usadas; i++) {
+            int resultado = comparar(a, b, colunas[i]);
+            if (resultado != 0) {
+                return crescentes[i] ? resultado : -resultado;
+            }
+        }
+        return 0;
+    }
+
+    private int comparar(int a, int b, Coluna coluna) {
+        switch (coluna) {
+            case CODIGO:
+                return compararTexto(codigo(a), codigo(b));
+            case QUANTIDADE:
+                return Integer.compare(quantidade(a), quantidade(b));
+            case LARGURA:
+                return Double.compare(largura(a), largura(b));
+            case ALTURA:
+                return Double.compare(altura(a), altura(b));
+            case COMPRIMENTO:
+                return Double.compare(comprimento(a), comprimento(b));
+            case M3:
+                return Long.compare(volumeMicroM3(a), volumeMicroM3(b));
+            case VALOR_UNITARIO:
+                return Double.compare(valorUnitario(a), valorUnitario(b));
+            case TOTAL:
+                return Long.compare(totalCentavos(a), totalCentavos(b));
+            default:
+                throw new IllegalArgumentException("Coluna sem ordenação: " + coluna);
+        }
+    }
+
+    // Valores por linha: do bloco sem criar a visão, ou do item de uma lista comum
+
+    private String codigo(int linha) {
+        return bloco != null ? bloco.getCodigo(linha) : itens.get(linha).getCode();
+    }
+
+    private int quantidade(int linha) {
+        return bloco != null ? bloco.getQuantidade(linha) : itens.get(linha).getQuantity();
+    }
+
+    private double largura(int linha) {
+        return bloco != null ? bloco.getLargura(linha) : itens.get(linha).getWidth();
+    }
+
+    private double altura(int linha) {
+        return bloco != null ? bloco.getAltura(linha) : itens.get(linha).getHeight();
+    }
+
+    private double comprimento(int linha) {
+        return bloco != null ? bloco.getComprimento(linha) : itens.get(linha).getLength();
+    }
+
+    private long volumeMicroM3(int linha) {
+        return bloco != null ? bloco.getVolumeMicroM3(linha) : itens.get(linha).getVolumeMicroM3();
+    }
+
+    private double valorUnitario(int linha) {
+        return bloco != null ? bloco.getValorUnitario(linha) : itens.get(linha).getUnitValue();
+    }
+
+    private long totalCentavos(int linha) {
+        return bloco != null ? bloco.getTotalCentavos(linha) : itens.get(linha).getTotalCentavos();
+    }
+
+    private static int compararTexto(String a, String b) {
+        if (a == null || b == null) {
+            return a == null ? (b == null ? 0 : -1) : 1;
+        }
+        return a.compareTo(b);
+    }
+
+    private static int[] ordemOriginal(int tamanho) {
+        int[] ordem = new int[tamanho];
+        for (int i = 0; i < tamanho; i++) {
+            ordem[i] = i;
+        }
+        return ordem;
+    }
+}
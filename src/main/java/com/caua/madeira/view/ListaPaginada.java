@@ -0,0 +1,378 @@
+package com.caua.madeira.view;
+
+import com.caua.madeira.dao.Pagina;
+import javafx.collections.ObservableListBase;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.ToIntFunction;
+
+/**
+ * Lista observável para TableView que carrega as linhas sob demanda, em blocos
+ * obtidos por paginação por chave.
+ *
+ * O tamanho cresce conforme o usuário rola até o fim: ao pedir uma linha perto
+ * do último bloco conhecido, o próximo é buscado. Cada bloco guarda os cursores
+ * que o delimitam, então pode ser descartado da memória (LRU, no máximo
+ * {@code maxBlocosEmMemoria}) e relido depois exatamente no mesmo intervalo.
+ * Enquanto um bloco não chega, {@link #get(int)} devolve {@code null} e a
+ * linha aparece vazia.
+ *
+ * Deve ser usada apenas na thread da interface.
+ */
+final class ListaPaginada<T> extends ObservableListBase<T> {
+
+    /**
+     * Busca as linhas depois de {@code cursorInicio} (exclusivo) até
+     * {@code cursorFim} (inclusivo, ou sem limite quando {@code null}).
+     */
+    @FunctionalInterface
+    interface Carregador<T> {
+        CompletableFuture<Pagina<T>> carregar(String cursorInicio, String cursorFim, int limite);
+    }
+
+    private static final class Bloco<T> {
+        private final String inicio;
+        private String fim;
+        private int quantidade;
+        private List<T> itens;
+        private boolean carregando;
+        private boolean falhou;
+
+        private Bloco(String inicio) {
+            this.inicio = inicio;
+        }
+    }
+
+    private final int tamanhoBloco;
+    private final int maxBlocosEmMemoria;
+    private final ToIntFunction<T> idDe;
+    private final List<Bloco<T>> blocos = new ArrayList<>();
+    // Posição da primeira linha de cada bloco, para busca binária em get()
+    private int[] deslocamentos = new int[0];
+    private final Map<Bloco<T>, Boolean> emMemoria;
+    private Carregador<T> carregador;
+    private int tamanho;
+    private int geracao;
+    private boolean fimAlcancado = true;
+
+    ListaPaginada(int tamanhoBloco, int maxBlocosEmMemoria, ToIntFunction<T> idDe) {
+        this.tamanhoBloco = tamanhoBloco;
+        this.maxBlocosEmMemoria = Math.max(2, maxBlocosEmMemoria);
+        this.idDe = idDe;
+        this.emMemoria = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Descarta todas as linhas e passa a carregar com {@code carregador}. O
+     * futuro devolvido termina, na thread da interface, quando o primeiro
+     * bloco chegar.
+     */
+    CompletableFuture<Void> reiniciar(Carregador<T> carregador) {
+        this.carregador = carregador;
+        geracao++;
+        int removidas = tamanho;
+        blocos.clear();
+        emMemoria.clear();
+        tamanho = 0;
+        fimAlcancado = false;
+        recalcularDeslocamentos();
+        if (removidas > 0) {
+            beginChange();
+            nextRemove(0, Collections.nCopies(removidas, null));
+            endChange();
+        }
+
+        Bloco<T> primeiro = new Bloco<>(null);
+        blocos.add(primeiro);
+        recalcularDeslocamentos();
+        return carregar(primeiro, 0);
+    }
+
+    @Override
+    public T get(int index) {
+        if (index < 0 || index >= tamanho) {
+            throw new IndexOutOfBoundsException("Índice " + index + ", tamanho " + tamanho);
+        }
+        int posicaoBloco = blocoDaLinha(index);
+        Bloco<T> bloco = blocos.get(posicaoBloco);
+
+        if (!fimAlcancado && index >= tamanho - tamanhoBloco / 2) {
+            solicitarProximo();
+        }
+        if (bloco.itens == null) {
+            if (!bloco.carregando && !bloco.falhou) {
+                carregar(bloco, posicaoBloco);
+            }
+            return null;
+        }
+        emMemoria.get(bloco);
+        return bloco.itens.get(index - deslocamentos[posicaoBloco]);
+    }
+
+    @Override
+    public int size() {
+        return tamanho;
+    }
+
+    /**
+     * Procura apenas nas linhas em memória, sem disparar carregamentos.
+     */
+    @Override
+    public int indexOf(Object o) {
+        for (int b = 0; b < blocos.size(); b++) {
+            List<T> itens = blocos.get(b).itens;
+            if (itens != null) {
+                int i = itens.indexOf(o);
+                if (i >= 0) {
+                    return deslocamentos[b] + i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return indexOf(o) >= 0;
+    }
+
+    /**
+     * Todas as linhas, se a lista inteira já foi lida e nenhum bloco foi
+     * descartado; caso contrário {@code null}. Permite filtrar em memória
+     * listas pequenas sem ir ao banco.
+     */
+    List<T> todasSeCompleta() {
+        if (!fimAlcancado) {
+            return null;
+        }
+        List<T> todas = new ArrayList<>(tamanho);
+        for (Bloco<T> bloco : blocos) {
+            if (bloco.itens == null || bloco.carregando) {
+                return null;
+            }
+            todas.addAll(bloco.itens);
+        }
+        return todas;
+    }
+
+    /**
+     * Relê o bloco em memória que contém a linha com o id informado. Devolve
+     * {@code false} se a linha não estiver carregada.
+     */
+    boolean recarregarBlocoCom(int id) {
+        for (int b = 0; b < blocos.size(); b++) {
+            Bloco<T> bloco = blocos.get(b);
+            if (bloco.itens == null) {
+                continue;
+            }
+            for (T item : bloco.itens) {
+                if (idDe.applyAsInt(item) == id) {
+                    recarregar(b);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Remove da memória a linha com o id informado. Devolve {@code false} se
+     * ela não estiver carregada.
+     */
+    boolean remover(int id) {
+        for (int b = 0; b < blocos.size(); b++) {
+            Bloco<T> bloco = blocos.get(b);
+            if (bloco.itens == null) {
+                continue;
+            }
+            for (int i = 0; i < bloco.itens.size(); i++) {
+                if (idDe.applyAsInt(bloco.itens.get(i)) == id) {
+                    T removido = bloco.itens.remove(i);
+                    bloco.quantidade--;
+                    tamanho--;
+                    recalcularDeslocamentos();
+                    beginChange();
+                    nextRemove(deslocamentos[b] + i, removido);
+                    endChange();
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Insere uma linha na posição dada por {@code ordem}, que deve equivaler à
+     * ordenação do servidor. Só insere se o bloco de destino estiver em memória
+     * e seus limites forem conhecidos; caso contrário a linha aparecerá quando
+     * aquele trecho for lido. Devolve {@code true} se inseriu.
+     */
+    boolean inserir(T item, Comparator<T> ordem) {
+        boolean anteriorEmMemoria = true;
+        for (int b = 0; b < blocos.size(); b++) {
+            Bloco<T> bloco = blocos.get(b);
+            if (bloco.itens == null) {
+                anteriorEmMemoria = false;
+                continue;
+            }
+            boolean ultimoSemLimite = b == blocos.size() - 1 && bloco.fim == null && !bloco.carregando;
+            boolean cabeNoBloco = ultimoSemLimite
+                    || (!bloco.itens.isEmpty() && ordem.compare(item, bloco.itens.get(bloco.itens.size() - 1)) <= 0);
+            if (cabeNoBloco) {
+                boolean antesDoPrimeiro = !bloco.itens.isEmpty() && ordem.compare(item, bloco.itens.get(0)) < 0;
+                if (antesDoPrimeiro && !anteriorEmMemoria) {
+                    // Pode pertencer ao bloco anterior, que não está em memória
+                    return false;
+                }
+                int posicao = 0;
+                while (posicao < bloco.itens.size() && ordem.compare(bloco.itens.get(posicao), item) < 0) {
+                    posicao++;
+                }
+                bloco.itens.add(posicao, item);
+                bloco.quantidade++;
+                tamanho++;
+                recalcularDeslocamentos();
+                emMemoria.get(bloco);
+                beginChange();
+                nextAdd(deslocamentos[b] + posicao, deslocamentos[b] + posicao + 1);
+                endChange();
+                return true;
+            }
+            anteriorEmMemoria = true;
+        }
+        return false;
+    }
+
+    /**
+     * Relê o primeiro bloco; usado quando uma linha nova pode ter entrado no topo.
+     */
+    void recarregarInicio() {
+        if (!blocos.isEmpty()) {
+            recarregar(0);
+        }
+    }
+
+    private void recarregar(int posicaoBloco) {
+        Bloco<T> bloco = blocos.get(posicaoBloco);
+        if (!bloco.carregando) {
+            bloco.falhou = false;
+            carregar(bloco, posicaoBloco);
+        }
+    }
+
+    private void solicitarProximo() {
+        Bloco<T> ultimo = blocos.get(blocos.size() - 1);
+        if (ultimo.carregando || ultimo.fim == null) {
+            return;
+        }
+        Bloco<T> novo = new Bloco<>(ultimo.fim);
+        blocos.add(novo);
+        recalcularDeslocamentos();
+        carregar(novo, blocos.size() - 1);
+    }
+
+    private CompletableFuture<Void> carregar(Bloco<T> bloco, int posicaoBloco) {
+        CompletableFuture<Void> concluido = new CompletableFuture<>();
+        bloco.carregando = true;
+        boolean ultimo = posicaoBloco == blocos.size() - 1;
+        // Blocos intermediários são relidos no intervalo exato; o último segue sem limite superior
+        String limiteFim = ultimo ? null : bloco.fim;
+        int limite = ultimo ? tamanhoBloco : tamanhoBloco * 4;
+        int geracaoPedido = geracao;
+
+        TarefasUI.aoConcluir(carregador.carregar(bloco.inicio, limiteFim, limite), pagina -> {
+            if (geracaoPedido != geracao) {
+                return;
+            }
+            bloco.carregando = false;
+            aplicar(bloco, pagina, ultimo);
+            concluido.complete(null);
+        }, e -> {
+            if (geracaoPedido != geracao) {
+                return;
+            }
+            bloco.carregando = false;
+            bloco.falhou = true;
+            concluido.completeExceptionally(e);
+        });
+        return concluido;
+    }
+
+    private void aplicar(Bloco<T> bloco, Pagina<T> pagina, boolean eraUltimo) {
+        int posicaoBloco = blocos.indexOf(bloco);
+        if (posicaoBloco < 0) {
+            return;
+        }
+        List<T> novos = new ArrayList<>(pagina.getItens());
+        int inicio = deslocamentos[posicaoBloco];
+        int quantidadeAnterior = bloco.quantidade;
+        List<T> anteriores = bloco.itens != null
+                ? bloco.itens
+                : Collections.nCopies(quantidadeAnterior, null);
+
+        bloco.itens = novos;
+        bloco.quantidade = novos.size();
+        if (eraUltimo) {
+            bloco.fim = pagina.getProximoCursor();
+            fimAlcancado = bloco.fim == null;
+        }
+        tamanho += novos.size() - quantidadeAnterior;
+        recalcularDeslocamentos();
+        emMemoria.put(bloco, Boolean.TRUE);
+        descartarExcedentes(bloco);
+
+        if (quantidadeAnterior > 0 || !novos.isEmpty()) {
+            beginChange();
+            nextReplace(inicio, inicio + novos.size(), anteriores);
+            endChange();
+        }
+    }
+
+    /**
+     * Libera os blocos usados há mais tempo; eles continuam ocupando suas
+     * posições e são relidos se voltarem a ser exibidos.
+     */
+    private void descartarExcedentes(Bloco<T> recente) {
+        Iterator<Bloco<T>> it = emMemoria.keySet().iterator();
+        while (emMemoria.size() > maxBlocosEmMemoria && it.hasNext()) {
+            Bloco<T> antigo = it.next();
+            if (antigo != recente && !antigo.carregando) {
+                antigo.itens = null;
+                it.remove();
+            }
+        }
+    }
+
+    private int blocoDaLinha(int index) {
+        int baixo = 0;
+        int alto = blocos.size() - 1;
+        while (baixo < alto) {
+            int meio = (baixo + alto + 1) >>> 1;
+            if (deslocamentos[meio] <= index) {
+                baixo = meio;
+            } else {
+                alto = meio - 1;
+            }
+        }
+        // O maior bloco que começa até index nunca é vazio, pois index < tamanho
+        return baixo;
+    }
+
+    private void recalcularDeslocamentos() {
+        if (deslocamentos.length < blocos.size()) {
+            deslocamentos = new int[Math.max(blocos.size(), deslocamentos.length * 2)];
+        }
+        int posicao = 0;
+        for (int b = 0; b < blocos.size(); b++) {
+            deslocamentos[b] = posicao;
+            posicao += blocos.get(b).quantidade;
+        }
+    }
+}
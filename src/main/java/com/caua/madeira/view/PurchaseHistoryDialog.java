@@ -1,43 +1,128 @@
 package com.caua.madeira.view;
 
-import com.caua.madeira.dao.QuoteDAO;
+import com.caua.madeira.dao.ClienteDAOAsync;
+import com.caua.madeira.dao.OrdemResumo;
+import com.caua.madeira.dao.Pagina;
+import com.caua.madeira.dao.QuoteDAOAsync;
+import com.caua.madeira.model.ClientQuoteTotals;
 import com.caua.madeira.model.Cliente;
 import com.caua.madeira.model.Quote;
 import com.caua.madeira.model.QuoteItem;
+import com.caua.madeira.model.QuoteSummary;
+import com.caua.madeira.util.FormatoBr;
+import com.caua.madeira.util.PontoFixo;
+import javafx.beans.property.ReadOnlyStringWrapper;
+import javafx.beans.value.ObservableValue;
 import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
-import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.*;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-import java.sql.SQLException;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 
+/**
+ * Histórico de orçamentos de um cliente. Os cabeçalhos são carregados em
+ * páginas conforme a rolagem, os itens só do orçamento selecionado (com os
+ * últimos vistos guardados) e os totais do cliente vêm de uma agregação no
+ * banco, então abrir o histórico custa o mesmo para qualquer cliente.
+ */
 public class PurchaseHistoryDialog extends Stage {
+    
+    private static final Logger log = LoggerFactory.getLogger(PurchaseHistoryDialog.class);
+
+    private static final int TAMANHO_BLOCO = 50;
+    private static final int MAX_BLOCOS_EM_MEMORIA = 10;
+    private static final int MAX_ORCAMENTOS_RECENTES = 20;
+    private static final DateTimeFormatter FORMATO_DATA = DateTimeFormatter.ofPattern("dd/MM/yyyy");
 
-    private final QuoteDAO quoteDAO;
-    private final Cliente cliente;
-    private final TableView<Quote> quoteTable;
+    private final QuoteDAOAsync quoteDAO;
+    private Cliente cliente;
+    private final TableView<QuoteSummary> quoteTable;
     private final TableView<QuoteItem> itemsTable;
-    private ObservableList<Quote> data;
+    private final ListaPaginada<QuoteSummary> paginas =
+            new ListaPaginada<>(TAMANHO_BLOCO, MAX_BLOCOS_EM_MEMORIA, QuoteSummary::getId);
+    // Orçamentos (com itens) vistos por último, para voltar a eles sem nova consulta
+    private final Map<Integer, Quote> orcamentosRecentes =
+        new LinkedHashMap<Integer, Quote>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Quote> maisAntigo) {
+                return size() > MAX_ORCAMENTOS_RECENTES;
+            }
+        };
+    // Ordenação do servidor escolhida pelo cabeçalho da tabela de orçamentos
+    private OrdemResumo ordemAtual = OrdemResumo.DATA;
+    private boolean crescenteAtual = false;
+    // Cliente cujo erro de carga já foi mostrado, para totais e página não abrirem dois alertas
+    private Cliente erroMostradoPara;
     private final Label totalLabel;
+    private final Label totaisClienteLabel;
+    private final Label titleLabel;
+    private final ComboBox<Cliente> clienteComboBox;
 
     public PurchaseHistoryDialog(Cliente cliente) {
         this.cliente = cliente;
-        this.quoteDAO = new QuoteDAO();
+        this.quoteDAO = new QuoteDAOAsync();
         this.quoteTable = new TableView<>();
         this.itemsTable = new TableView<>();
         this.totalLabel = new Label();
+        this.totaisClienteLabel = new Label();
+        this.titleLabel = new Label();
+        this.clienteComboBox = new ComboBox<>();
         
         initModality(Modality.APPLICATION_MODAL);
-        setTitle("Histórico de Compras - " + (cliente != null ? cliente.getNome() : "Cliente"));
+        atualizarTitulos();
         setScene(buildScene());
         setWidth(1000);
         setHeight(700);
+        carregarClientes();
+        refresh();
+    }
+    
+    private void atualizarTitulos() {
+        setTitle("Histórico de Compras - " + (cliente != null ? cliente.getNome() : "Cliente"));
+        titleLabel.setText("HISTÓRICO DE COMPRAS DO CLIENTE: " + 
+            (cliente != null ? cliente.getNome().toUpperCase() : ""));
+    }
+    
+    /**
+     * Preenche a troca de cliente a partir do ClienteCache (sem consulta ao
+     * banco depois que o cache estiver carregado).
+     */
+    private void carregarClientes() {
+        TarefasUI.aoConcluir(new ClienteDAOAsync().listarTodos(), clientes -> {
+            clienteComboBox.getItems().setAll(clientes);
+            if (cliente != null) {
+                for (Cliente c : clienteComboBox.getItems()) {
+                    if (c.getId() == cliente.getId()) {
+                        clienteComboBox.getSelectionModel().select(c);
+                        break;
+                    }
+                }
+            }
+            clienteComboBox.getSelectionModel().selectedItemProperty().addListener((obs, antigo, novo) -> {
+                if (novo != null && (cliente == null || novo.getId() != cliente.getId())) {
+                    trocarCliente(novo);
+                }
+            });
+        }, e -> log.error("Falha ao carregar a lista de clientes", e));
+    }
+    
+    private void trocarCliente(Cliente novo) {
+        cliente = novo;
+        atualizarTitulos();
+        itemsTable.setItems(FXCollections.observableArrayList());
+        totalLabel.setText("");
+        orcamentosRecentes.clear();
         refresh();
     }
 
@@ -46,9 +131,14 @@ public class PurchaseHistoryDialog extends Stage {
         root.setPadding(new Insets(10));
 
         // Title
-        Label title = new Label("HISTÓRICO DE COMPRAS DO CLIENTE: " + 
-            (cliente != null ? cliente.getNome().toUpperCase() : ""));
-        title.setStyle("-fx-font-size: 16px; -fx-font-weight: bold; -fx-text-fill: #2e7d32;");
+        titleLabel.setStyle("-fx-font-size: 16px; -fx-font-weight: bold; -fx-text-fill: #2e7d32;");
+        
+        // Troca de cliente; digitar com a lista focada seleciona pelo nome, sem acentos
+        clienteComboBox.setPromptText("Trocar cliente");
+        clienteComboBox.setPrefWidth(300);
+        BuscaClienteCombo.instalar(clienteComboBox);
+        HBox clienteBox = new HBox(10, new Label("Cliente:"), clienteComboBox);
+        clienteBox.setAlignment(javafx.geometry.Pos.CENTER_LEFT);
 
         // Configure quote table (master)
         setupQuoteTable();
@@ -59,12 +149,13 @@ public class PurchaseHistoryDialog extends Stage {
         // Selection model to update items table when quote is selected
         quoteTable.getSelectionModel().selectedItemProperty().addListener((obs, oldSelection, newSelection) -> {
             if (newSelection != null) {
-                updateItemsTable(newSelection);
+                carregarItens(newSelection);
             }
         });
 
         // Layout
-        VBox topBox = new VBox(10, title);
+        totaisClienteLabel.setStyle("-fx-font-weight: bold;");
+        VBox topBox = new VBox(10, titleLabel, clienteBox, totaisClienteLabel);
         topBox.setPadding(new Insets(0, 0, 10, 0));
         
         // Split pane to separate quote list and items
@@ -99,31 +190,46 @@ public class PurchaseHistoryDialog extends Stage {
     
     private void setupQuoteTable() {
         quoteTable.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
+        quoteTable.setItems(paginas);
         
         // Date column
-        TableColumn<Quote, String> dateCol = new TableColumn<>("Data");
+        TableColumn<QuoteSummary, String> dateCol = new TableColumn<>("Data");
         dateCol.setCellValueFactory(cell -> {
-            Quote q = cell.getValue();
-            String s = q.getDate() != null ? q.getFormattedDate() : "";
-            return new javafx.beans.property.SimpleStringProperty(s);
+            // Linha ainda não carregada pela ListaPaginada
+            QuoteSummary q = cell.getValue();
+            return new javafx.beans.property.SimpleStringProperty(q != null ? q.getFormattedDate() : "");
         });
         dateCol.setPrefWidth(100);
+        dateCol.setUserData(OrdemResumo.DATA);
         
         // Quote name column
-        TableColumn<Quote, String> nameCol = new TableColumn<>("Orçamento");
-        nameCol.setCellValueFactory(new PropertyValueFactory<>("name"));
+        TableColumn<QuoteSummary, String> nameCol = new TableColumn<>("Orçamento");
+        nameCol.setCellValueFactory(cell ->
+            cell.getValue() != null ? new ReadOnlyStringWrapper(cell.getValue().getName()) : null);
         nameCol.setPrefWidth(150);
+        nameCol.setUserData(OrdemResumo.NOME);
         
         // Total column with currency formatting
-        TableColumn<Quote, String> totalCol = new TableColumn<>("Total");
+        TableColumn<QuoteSummary, String> totalCol = new TableColumn<>("Total");
         totalCol.setCellValueFactory(cell -> {
-            Quote q = cell.getValue();
-            return new javafx.beans.property.SimpleStringProperty(String.format("R$ %.2f", q.getTotalValue()));
+            QuoteSummary q = cell.getValue();
+            return new javafx.beans.property.SimpleStringProperty(
+                q != null ? FormatoBr.moeda(q.getTotalValue()) : "");
         });
         totalCol.setStyle("-fx-alignment: CENTER-RIGHT;");
         totalCol.setPrefWidth(100);
+        totalCol.setUserData(OrdemResumo.TOTAL);
         
         quoteTable.getColumns().addAll(dateCol, nameCol, totalCol);
+        
+        // ListaPaginada não pode ser reordenada em memória: o clique no
+        // cabeçalho refaz a consulta na ordem da coluna
+        quoteTable.setSortPolicy(tabela -> {
+            if (lerOrdemDaTabela()) {
+                carregarOrcamentos();
+            }
+            return true;
+        });
     }
     
     private void setupItemsTable() {
@@ -131,88 +237,97 @@ public class PurchaseHistoryDialog extends Stage {
         
         // Code column
         TableColumn<QuoteItem, String> codeCol = new TableColumn<>("COD");
-        codeCol.setCellValueFactory(cell -> {
-            QuoteItem item = cell.getValue();
-            return new javafx.beans.property.SimpleStringProperty(
-                item.getCode() != null ? item.getCode() : ""
-            );
-        });
+        codeCol.setCellValueFactory(cell ->
+            formatar(cell.getValue(), item -> item.getCode() != null ? item.getCode() : ""));
         codeCol.setStyle("-fx-alignment: CENTER;");
         codeCol.setPrefWidth(60);
+        codeCol.setUserData(ItensOrdenados.Coluna.CODIGO);
         
         // Quantity column
-        TableColumn<QuoteItem, Integer> qtyCol = new TableColumn<>("QTD");
-        qtyCol.setCellValueFactory(new PropertyValueFactory<>("quantity"));
+        TableColumn<QuoteItem, Number> qtyCol = new TableColumn<>("QTD");
+        qtyCol.setCellValueFactory(cell -> cell.getValue() != null ? cell.getValue().quantityProperty() : null);
         qtyCol.setStyle("-fx-alignment: CENTER;");
         qtyCol.setPrefWidth(50);
+        qtyCol.setUserData(ItensOrdenados.Coluna.QUANTIDADE);
         
         // Width column
         TableColumn<QuoteItem, String> widthCol = new TableColumn<>("LARG.(cm)");
-        widthCol.setCellValueFactory(cell -> {
-            QuoteItem item = cell.getValue();
-            return new javafx.beans.property.SimpleStringProperty(
-                String.format("%.1f", item.getWidth())
-            );
-        });
+        widthCol.setCellValueFactory(cell -> formatar(cell.getValue(), item -> FormatoBr.numero(item.getWidth(), 1)));
         widthCol.setStyle("-fx-alignment: CENTER-RIGHT;");
         widthCol.setPrefWidth(70);
+        widthCol.setUserData(ItensOrdenados.Coluna.LARGURA);
         
         // Height column
         TableColumn<QuoteItem, String> heightCol = new TableColumn<>("ALT.(cm)");
-        heightCol.setCellValueFactory(cell -> {
-            QuoteItem item = cell.getValue();
-            return new javafx.beans.property.SimpleStringProperty(
-                String.format("%.1f", item.getHeight())
-            );
-        });
+        heightCol.setCellValueFactory(cell -> formatar(cell.getValue(), item -> FormatoBr.numero(item.getHeight(), 1)));
         heightCol.setStyle("-fx-alignment: CENTER-RIGHT;");
         heightCol.setPrefWidth(70);
+        heightCol.setUserData(ItensOrdenados.Coluna.ALTURA);
         
         // Length column
         TableColumn<QuoteItem, String> lengthCol = new TableColumn<>("COMP.(m)");
-        lengthCol.setCellValueFactory(cell -> {
-            QuoteItem item = cell.getValue();
-            return new javafx.beans.property.SimpleStringProperty(
-                String.format("%.2f", item.getLength())
-            );
-        });
+        lengthCol.setCellValueFactory(cell -> formatar(cell.getValue(), item -> FormatoBr.numero(item.getLength(), 2)));
         lengthCol.setStyle("-fx-alignment: CENTER-RIGHT;");
         lengthCol.setPrefWidth(70);
+        lengthCol.setUserData(ItensOrdenados.Coluna.COMPRIMENTO);
         
         // Cubic meters
         TableColumn<QuoteItem, String> m3Col = new TableColumn<>("M³");
-        m3Col.setCellValueFactory(cell -> {
-            QuoteItem item = cell.getValue();
-            return new javafx.beans.property.SimpleStringProperty(
-                String.format("%.3f", item.getCubicMeters())
-            );
-        });
+        m3Col.setCellValueFactory(cell -> formatar(cell.getValue(), item -> FormatoBr.m3(item.getCubicMeters())));
         m3Col.setStyle("-fx-alignment: CENTER-RIGHT;");
         m3Col.setPrefWidth(70);
+        m3Col.setUserData(ItensOrdenados.Coluna.M3);
         
         // Unit value
         TableColumn<QuoteItem, String> unitValueCol = new TableColumn<>("VALOR UND. (R$/m³)");
-        unitValueCol.setCellValueFactory(cell -> {
-            QuoteItem item = cell.getValue();
-            return new javafx.beans.property.SimpleStringProperty(
-                String.format("R$ %.2f", item.getUnitValue())
-            );
-        });
+        unitValueCol.setCellValueFactory(cell -> formatar(cell.getValue(), item -> FormatoBr.moeda(item.getUnitValue())));
         unitValueCol.setStyle("-fx-alignment: CENTER-RIGHT;");
         unitValueCol.setPrefWidth(120);
+        unitValueCol.setUserData(ItensOrdenados.Coluna.VALOR_UNITARIO);
         
         // Total value
         TableColumn<QuoteItem, String> totalCol = new TableColumn<>("TOTAL (R$)");
-        totalCol.setCellValueFactory(cell -> {
-            QuoteItem item = cell.getValue();
-            return new javafx.beans.property.SimpleStringProperty(
-                String.format("R$ %.2f", item.getTotal())
-            );
-        });
+        totalCol.setCellValueFactory(cell -> formatar(cell.getValue(), item -> FormatoBr.moeda(item.getTotal())));
         totalCol.setStyle("-fx-alignment: CENTER-RIGHT;");
         totalCol.setPrefWidth(100);
+        totalCol.setUserData(ItensOrdenados.Coluna.TOTAL);
         
         itemsTable.getColumns().addAll(codeCol, qtyCol, widthCol, heightCol, lengthCol, m3Col, unitValueCol, totalCol);
+        
+        // O clique no cabeçalho reordena só as posições de ItensOrdenados,
+        // pelos valores das colunas, sem criar as visões do BlocoItens
+        itemsTable.setSortPolicy(tabela -> {
+            if (tabela.getItems() instanceof ItensOrdenados) {
+                ((ItensOrdenados) tabela.getItems()).ordenar(tabela.getSortOrder());
+            }
+            return true;
+        });
+    }
+    
+    private static ObservableValue<String> formatar(QuoteItem item, Function<QuoteItem, String> formato) {
+        return item != null ? new ReadOnlyStringWrapper(formato.apply(item)) : null;
+    }
+    
+    private void carregarItens(QuoteSummary resumo) {
+        Quote recente = orcamentosRecentes.get(resumo.getId());
+        if (recente != null) {
+            updateItemsTable(recente);
+            return;
+        }
+        itemsTable.setPlaceholder(new Label("Carregando itens..."));
+        
+        // Os itens só são buscados para o orçamento selecionado
+        int id = resumo.getId();
+        TarefasUI.aoConcluir(quoteDAO.buscarPorId(id), quote -> {
+            if (quote != null) {
+                orcamentosRecentes.put(id, quote);
+            }
+            // Ignora a resposta se o usuário já selecionou outro orçamento
+            QuoteSummary selecionado = quoteTable.getSelectionModel().getSelectedItem();
+            if (selecionado != null && selecionado.getId() == id) {
+                updateItemsTable(quote);
+            }
+        }, e -> showError("Erro ao carregar itens do orçamento", e));
     }
     
     private void updateItemsTable(Quote quote) {
@@ -222,47 +337,130 @@ public class PurchaseHistoryDialog extends Stage {
             return;
         }
         
-        itemsTable.setItems(FXCollections.observableArrayList(quote.getItems()));
+        // Ordena sem copiar: só as linhas mostradas viram visões do BlocoItens
+        ItensOrdenados itens = new ItensOrdenados(quote.getItems());
+        itens.ordenar(itemsTable.getSortOrder());
+        itemsTable.setItems(itens);
         
         // Calculate and display totals
-        double subtotal = quote.getItems().stream()
-                .mapToDouble(QuoteItem::getTotal)
-                .sum();
-        
-        double total = subtotal + quote.getShippingValue();
-        
-        totalLabel.setText(String.format(
-            "Subtotal: R$ %.2f   |   Frete: R$ %.2f   |   Total: R$ %.2f",
-            subtotal,
-            quote.getShippingValue(),
-            total
-        ));
+        long subtotalCentavos = quote.getSubtotalCentavos();
+        double subtotal = PontoFixo.reais(subtotalCentavos);
+        double total = PontoFixo.reais(subtotalCentavos + PontoFixo.centavos(quote.getShippingValue()));
+        
+        StringBuilder texto = new StringBuilder(80);
+        FormatoBr.anexarMoeda(texto.append("Subtotal: "), subtotal);
+        FormatoBr.anexarMoeda(texto.append("   |   Frete: "), quote.getShippingValue());
+        FormatoBr.anexarMoeda(texto.append("   |   Total: "), total);
+        totalLabel.setText(texto.toString());
         totalLabel.setStyle("-fx-font-weight: bold; -fx-font-size: 14px; -fx-padding: 10 0 0 0;");
     }
 
     private void refresh() {
         if (cliente == null || cliente.getId() <= 0) {
-            quoteTable.setItems(FXCollections.observableArrayList());
+            paginas.reiniciar((inicio, fim, limite) -> CompletableFuture.completedFuture(new Pagina<>(List.of(), null)));
             itemsTable.setItems(FXCollections.observableArrayList());
+            totaisClienteLabel.setText("");
             return;
         }
         
-        try {
-            List<Quote> quotes = quoteDAO.listarPorCliente(cliente.getId());
-            data = FXCollections.observableArrayList(quotes);
-            quoteTable.setItems(data);
-            
-            // Select first quote if available
-            if (!quotes.isEmpty()) {
-                quoteTable.getSelectionModel().select(0);
-                updateItemsTable(quotes.get(0));
+        totaisClienteLabel.setText("");
+        
+        Cliente consultado = cliente;
+        int clientId = cliente.getId();
+        TarefasUI.aoConcluir(quoteDAO.totalizarPorCliente(clientId), totais -> {
+            if (consultado == cliente) {
+                mostrarTotaisCliente(totais);
             }
-        } catch (SQLException e) {
-            showError("Erro ao carregar histórico", e);
+        }, e -> {
+            if (consultado == cliente) {
+                totaisClienteLabel.setText("Não foi possível carregar os totais");
+                falhaAoCarregarHistorico(consultado, e);
+            }
+        });
+        
+        carregarOrcamentos();
+    }
+    
+    /**
+     * Relê os orçamentos do cliente na ordem atual. Só a primeira página é
+     * lida agora; as demais chegam com a rolagem.
+     */
+    private void carregarOrcamentos() {
+        if (cliente == null || cliente.getId() <= 0) {
+            return;
+        }
+        quoteTable.setPlaceholder(new Label("Carregando histórico..."));
+        erroMostradoPara = null;
+        
+        Cliente consultado = cliente;
+        int clientId = cliente.getId();
+        OrdemResumo ordem = ordemAtual;
+        boolean crescente = crescenteAtual;
+        TarefasUI.aoConcluir(
+            paginas.reiniciar((inicio, fim, limite) ->
+                quoteDAO.listarResumosPorCliente(clientId, ordem, crescente, inicio, fim, limite)),
+            ok -> {
+                if (consultado != cliente) {
+                    return; // O usuário trocou de cliente nesse meio tempo
+                }
+                quoteTable.setPlaceholder(new Label("Nenhum orçamento para este cliente"));
+                // Select first quote if available (o listener carrega os itens)
+                if (!paginas.isEmpty()) {
+                    quoteTable.getSelectionModel().select(0);
+                }
+            }, e -> {
+                if (consultado == cliente) {
+                    quoteTable.setPlaceholder(new Label("Não foi possível carregar o histórico"));
+                    falhaAoCarregarHistorico(consultado, e);
+                }
+            });
+    }
+    
+    /**
+     * Atualiza a ordenação do servidor a partir da coluna clicada (padrão: data
+     * decrescente). Devolve {@code true} se ela mudou.
+     */
+    private boolean lerOrdemDaTabela() {
+        OrdemResumo ordem = OrdemResumo.DATA;
+        boolean crescente = false;
+        if (!quoteTable.getSortOrder().isEmpty()) {
+            TableColumn<QuoteSummary, ?> coluna = quoteTable.getSortOrder().get(0);
+            ordem = (OrdemResumo) coluna.getUserData();
+            crescente = coluna.getSortType() == TableColumn.SortType.ASCENDING;
+        }
+        boolean mudou = ordem != ordemAtual || crescente != crescenteAtual;
+        ordemAtual = ordem;
+        crescenteAtual = crescente;
+        return mudou;
+    }
+    
+    private void mostrarTotaisCliente(ClientQuoteTotals totais) {
+        if (totais.getQuoteCount() == 0) {
+            totaisClienteLabel.setText("Nenhum orçamento registrado");
+            return;
+        }
+        StringBuilder texto = new StringBuilder(80);
+        texto.append(totais.getQuoteCount()).append(" orçamento(s)   |   Total: ");
+        FormatoBr.anexarMoeda(texto, totais.getTotalValue()).append("   |   Último: ");
+        texto.append(totais.getLastDate() != null ? totais.getLastDate().format(FORMATO_DATA) : "-");
+        totaisClienteLabel.setText(texto.toString());
+    }
+    
+    /**
+     * Registra a falha e mostra o alerta uma vez por cliente, mesmo que a
+     * página e os totais falhem juntos.
+     */
+    private void falhaAoCarregarHistorico(Cliente consultado, Throwable e) {
+        if (erroMostradoPara == consultado) {
+            log.error("Falha ao carregar o histórico do cliente {}", consultado.getId(), e);
+            return;
         }
+        erroMostradoPara = consultado;
+        showError("Erro ao carregar histórico", e);
     }
     
-    private void showError(String message, Exception e) {
+    private void showError(String message, Throwable e) {
+        log.error(message, e);
         Alert alert = new Alert(Alert.AlertType.ERROR);
         alert.setTitle("Erro");
         alert.setHeaderText(message);
@@ -1,11 +1,14 @@
 package com.caua.madeira.view;
 
-import com.caua.madeira.dao.ClienteDAO;
-import com.caua.madeira.dao.QuoteDAO;
+import com.caua.madeira.dao.ClienteDAOAsync;
+import com.caua.madeira.dao.QuoteDAOAsync;
 import com.caua.madeira.model.Cliente;
 import com.caua.madeira.model.Quote;
+import com.caua.madeira.model.QuoteChangeEvent;
 import com.caua.madeira.model.QuoteItem;
+import com.caua.madeira.util.FormatoBr;
 import com.caua.madeira.util.NumberUtils;
+import com.caua.madeira.util.PontoFixo;
 
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -14,17 +17,14 @@ import javafx.geometry.Insets;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
 import javafx.scene.control.ButtonType;
-import javafx.scene.control.ComboBox;
 import javafx.scene.control.Label;
-import javafx.scene.control.ListCell;
+import javafx.scene.control.TableCell;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
 import javafx.scene.control.TextArea;
 import javafx.scene.control.TextField;
 import javafx.scene.control.TextFormatter;
-import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.control.cell.TextFieldTableCell;
-import javafx.beans.property.SimpleStringProperty;
 import javafx.scene.layout.GridPane;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.Priority;
@@ -46,11 +46,12 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
 
-import java.sql.SQLException;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
-import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.DoubleFunction;
 
 public class QuoteForm extends VBox {
     
@@ -145,27 +146,31 @@ public class QuoteForm extends VBox {
     private TextField shippingValueField;
     private TextField discountField;
     private TextArea complementoField;
-    private ComboBox<Cliente> clientComboBox;
+    private SeletorCliente clientComboBox;
     private Label totalItensLabel;
     private Label totalM3Label;
     private Label totalGeralLabel;
     private TableView<QuoteItem> itemsTable;
     private ObservableList<QuoteItem> itemsData;
+    private final TotaisOrcamento totais = new TotaisOrcamento(this::atualizarTotais);
     private Button printButton;
-    private final QuoteDAO quoteDAO;
-    private final ClienteDAO clienteDAO;
+    private final QuoteDAOAsync quoteDAO;
+    private final ClienteDAOAsync clienteDAO;
     private Quote quoteAtual;
-    private final Runnable onSaveCallback;
+    private final Consumer<QuoteChangeEvent> onQuoteChanged;
     private Button deleteButton;
-    private ObservableList<Cliente> allClients;
     
-    public QuoteForm(Runnable onSaveCallback) {
-        this.quoteDAO = new QuoteDAO();
-        this.clienteDAO = new ClienteDAO();
-        this.onSaveCallback = onSaveCallback;
+    /**
+     * @param onQuoteChanged recebe cada orçamento criado, atualizado ou excluído
+     */
+    public QuoteForm(Consumer<QuoteChangeEvent> onQuoteChanged) {
+        this.quoteDAO = new QuoteDAOAsync();
+        this.clienteDAO = new ClienteDAOAsync();
+        this.onQuoteChanged = onQuoteChanged;
         this.itemsData = FXCollections.observableArrayList();
+        // As somas acompanham a lista e as propriedades de cada item
+        itemsData.addListener(totais);
         initializeUI();
-        carregarClientes();
     }
     
     public void carregarOrcamento(Quote quote) {
@@ -176,16 +181,15 @@ public class QuoteForm extends VBox {
         
         this.quoteAtual = quote;
         quoteNameField.setText(quote.getName());
-        shippingValueField.setText(String.format("%.2f", quote.getShippingValue()).replace(".", ","));
-        discountField.setText(String.format("%.2f", quote.getDiscount()));
+        shippingValueField.setText(FormatoBr.semMilhar(quote.getShippingValue(), 2));
+        discountField.setText(FormatoBr.semMilhar(quote.getDiscount(), 2));
         complementoField.setText(quote.getComplemento());
         
         // Carrega o cliente selecionado
         if (quote.getClientId() > 0) {
-            clientComboBox.getItems().stream()
-                .filter(c -> c.getId() == quote.getClientId())
-                .findFirst()
-                .ifPresent(clientComboBox.getSelectionModel()::select);
+            clientComboBox.selecionarPorId(quote.getClientId());
+        } else {
+            clientComboBox.limpar();
         }
         
         // Carrega os itens
@@ -199,27 +203,6 @@ public class QuoteForm extends VBox {
         printButton.setDisable(false);
     }
     
-    private void carregarClientes() {
-        try {
-            List<Cliente> clientes = clienteDAO.listarTodos();
-            if (allClients == null) {
-                allClients = FXCollections.observableArrayList();
-            }
-            allClients.setAll(clientes);
-            // Se já houver um orçamento com cliente definido, seleciona-o na ComboBox
-            if (quoteAtual != null && quoteAtual.getClientId() > 0) {
-                for (Cliente c : allClients) {
-                    if (c.getId() == quoteAtual.getClientId()) {
-                        clientComboBox.getSelectionModel().select(c);
-                        break;
-                    }
-                }
-            }
-        } catch (SQLException e) {
-            showAlert("Erro", "Erro ao carregar clientes: " + e.getMessage(), Alert.AlertType.ERROR);
-        }
-    }
-    
     private void initializeUI() {
         setSpacing(15);
         setPadding(new Insets(20));
@@ -252,13 +235,11 @@ public class QuoteForm extends VBox {
         shippingValueField.focusedProperty().addListener((obs, oldVal, newVal) -> {
             if (!newVal) { // When focus is lost
                 try {
-                    String text = shippingValueField.getText().replace(".", "").replace(",", ".");
-                    double value = Double.parseDouble(text);
-                    shippingValueField.setText(String.format("%.2f", value).replace(".", ","));
+                    double value = FormatoBr.ler(shippingValueField.getText());
+                    shippingValueField.setText(FormatoBr.semMilhar(value, 2));
                 } catch (NumberFormatException e) {
                     shippingValueField.setText("0,00");
                 }
-                atualizarTotais();
             }
         });
         
@@ -276,61 +257,21 @@ public class QuoteForm extends VBox {
         discountField.focusedProperty().addListener((obs, oldVal, newVal) -> {
             if (!newVal) { // When focus is lost
                 try {
-                    String text = discountField.getText().replace(".", "").replace(",", ".");
-                    double value = Double.parseDouble(text);
+                    double value = FormatoBr.ler(discountField.getText());
                     if (value < 0) value = 0;
                     if (value > 100) value = 100;
-                    discountField.setText(String.format("%.2f", value).replace(".", ","));
+                    discountField.setText(FormatoBr.semMilhar(value, 2));
                 } catch (NumberFormatException e) {
                     discountField.setText("0,00");
                 }
-                atualizarTotais();
             }
         });
         
         // Client selection
         Label clientLabel = new Label("SELECIONE O CLIENTE *");
-        clientComboBox = new ComboBox<>();
-        clientComboBox.setPromptText("Selecione um cliente");
+        // Busca os clientes conforme a digitação, sem carregar a lista inteira
+        clientComboBox = new SeletorCliente();
         clientComboBox.setPrefWidth(300);
-        
-        // Initialize client list
-        allClients = FXCollections.observableArrayList();
-        clientComboBox.setItems(allClients);
-        
-        // Set up the StringConverter for the ComboBox
-        clientComboBox.setConverter(new StringConverter<Cliente>() {
-            @Override
-            public String toString(Cliente c) {
-                return c != null && c.getNome() != null ? c.getNome() : "";
-            }
-            
-            @Override
-            public Cliente fromString(String string) {
-                return null; // Not used for non-editable ComboBox
-            }
-        });
-        
-        // Make ComboBox non-editable
-        clientComboBox.setEditable(false);
-        
-        // Custom cell factory to show only the name
-        clientComboBox.setCellFactory(lv -> new ListCell<Cliente>() {
-            @Override
-            protected void updateItem(Cliente cliente, boolean empty) {
-                super.updateItem(cliente, empty);
-                setText(empty || cliente == null ? "" : (cliente.getNome() != null ? cliente.getNome() : ""));
-            }
-        });
-
-        // Configure button cell to show only the name
-        clientComboBox.setButtonCell(new ListCell<Cliente>() {
-            @Override
-            protected void updateItem(Cliente cliente, boolean empty) {
-                super.updateItem(cliente, empty);
-                setText(empty || cliente == null ? "" : (cliente.getNome() != null ? cliente.getNome() : ""));
-            }
-        });
 
         // Complemento
         Label complementoLabel = new Label("COMPLEMENTO");
@@ -342,20 +283,13 @@ public class QuoteForm extends VBox {
         // Botão de histórico do cliente
         Button historyButton = new Button("Histórico");
         historyButton.setOnAction(e -> {
-            Cliente clienteSel = clientComboBox.getSelectionModel().getSelectedItem();
+            Cliente clienteSel = clientComboBox.getValue();
             if (clienteSel == null && quoteAtual != null && quoteAtual.getClientId() > 0) {
-                try {
-                    clienteSel = clienteDAO.buscarPorId(quoteAtual.getClientId());
-                } catch (SQLException ex) {
-                    showAlert("Erro", "Não foi possível carregar o cliente: " + ex.getMessage(), Alert.AlertType.ERROR);
-                }
-            }
-            if (clienteSel == null) {
-                showAlert("Atenção", "Selecione um cliente para ver o histórico.", Alert.AlertType.INFORMATION);
+                TarefasUI.aoConcluir(clienteDAO.buscarPorId(quoteAtual.getClientId()), this::abrirHistorico,
+                    ex -> showAlert("Erro", "Não foi possível carregar o cliente: " + ex.getMessage(), Alert.AlertType.ERROR));
                 return;
             }
-            PurchaseHistoryDialog dialog = new PurchaseHistoryDialog(clienteSel);
-            dialog.showAndWait();
+            abrirHistorico(clienteSel);
         });
 
         HBox clientBox = new HBox(10, clientComboBox, historyButton);
@@ -452,8 +386,13 @@ public class QuoteForm extends VBox {
         GridPane.setColumnSpan(separator, 2);
         totaisGrid.add(separator, 0, 3, 2, 1);
         
-        // Configura o campo de frete para atualizar os totais quando alterado
+        // Frete e desconto são convertidos uma vez por alteração do texto
         shippingValueField.textProperty().addListener((obs, oldValue, newValue) -> {
+            totais.setFrete(lerValor(newValue));
+            atualizarTotais();
+        });
+        discountField.textProperty().addListener((obs, oldValue, newValue) -> {
+            totais.setDesconto(lerValor(newValue));
             atualizarTotais();
         });
         
@@ -464,6 +403,15 @@ public class QuoteForm extends VBox {
         VBox.setVgrow(tableWithButtons, Priority.ALWAYS);
     }
     
+    private void abrirHistorico(Cliente cliente) {
+        if (cliente == null) {
+            showAlert("Atenção", "Selecione um cliente para ver o histórico.", Alert.AlertType.INFORMATION);
+            return;
+        }
+        PurchaseHistoryDialog dialog = new PurchaseHistoryDialog(cliente);
+        dialog.showAndWait();
+    }
+    
     private VBox createItemsTable() {
         itemsTable = new TableView<>();
         itemsTable.setEditable(true);
@@ -471,7 +419,7 @@ public class QuoteForm extends VBox {
         
         // Code column (editável com suporte a Tab)
         TableColumn<QuoteItem, String> codeCol = new TableColumn<>("COD");
-        codeCol.setCellValueFactory(new PropertyValueFactory<>("code"));
+        codeCol.setCellValueFactory(cell -> cell.getValue() != null ? cell.getValue().codeProperty() : null);
         codeCol.setCellFactory(column -> {
             return new TabAwareTextFieldTableCell<QuoteItem, String>(new StringConverter<String>() {
                 @Override
@@ -493,90 +441,79 @@ public class QuoteForm extends VBox {
         
         // Quantity column (editável com suporte a Tab)
         TableColumn<QuoteItem, Integer> quantityCol = new TableColumn<>("QUANT");
-        quantityCol.setCellValueFactory(new PropertyValueFactory<>("quantity"));
+        quantityCol.setCellValueFactory(cell ->
+            cell.getValue() != null ? cell.getValue().quantityProperty().asObject() : null);
         quantityCol.setCellFactory(column -> {
             return new TabAwareTextFieldTableCell<QuoteItem, Integer>(new IntegerStringConverter());
         });
         quantityCol.setOnEditCommit(event -> {
             QuoteItem item = event.getRowValue();
             item.setQuantity(event.getNewValue());
-            item.calculateTotal();
-            atualizarTotais();
-            itemsTable.refresh();
         });
         quantityCol.setPrefWidth(60);
         
         // Width column (editável com suporte a Tab)
         TableColumn<QuoteItem, Double> widthCol = new TableColumn<>("LARGURA(cm)");
-        widthCol.setCellValueFactory(new PropertyValueFactory<>("width"));
+        widthCol.setCellValueFactory(cell ->
+            cell.getValue() != null ? cell.getValue().widthProperty().asObject() : null);
         widthCol.setCellFactory(column -> {
             return new TabAwareTextFieldTableCell<QuoteItem, Double>(NumberUtils.createDoubleStringConverter());
         });
         widthCol.setOnEditCommit(event -> {
             QuoteItem item = event.getRowValue();
-            item.setWidth(NumberUtils.parseDouble(event.getNewValue().toString()));
-            atualizarTotais();
-            itemsTable.refresh();
+            item.setWidth(event.getNewValue() != null ? event.getNewValue() : 0.0);
         });
         widthCol.setPrefWidth(80);
         
         // Height column (editável com suporte a Tab)
         TableColumn<QuoteItem, Double> heightCol = new TableColumn<>("ESPESSURA(cm)");
-        heightCol.setCellValueFactory(new PropertyValueFactory<>("height"));
+        heightCol.setCellValueFactory(cell ->
+            cell.getValue() != null ? cell.getValue().heightProperty().asObject() : null);
         heightCol.setCellFactory(column -> {
             return new TabAwareTextFieldTableCell<QuoteItem, Double>(NumberUtils.createDoubleStringConverter());
         });
         heightCol.setOnEditCommit(event -> {
             QuoteItem item = event.getRowValue();
-            item.setHeight(NumberUtils.parseDouble(event.getNewValue().toString()));
-            atualizarTotais();
-            itemsTable.refresh();
+            item.setHeight(event.getNewValue() != null ? event.getNewValue() : 0.0);
         });
         heightCol.setPrefWidth(80);
         
         // Length column (editável com suporte a Tab)
         TableColumn<QuoteItem, Double> lengthCol = new TableColumn<>("COMP(m)");
-        lengthCol.setCellValueFactory(new PropertyValueFactory<>("length"));
+        lengthCol.setCellValueFactory(cell ->
+            cell.getValue() != null ? cell.getValue().lengthProperty().asObject() : null);
         lengthCol.setCellFactory(column -> {
             return new TabAwareTextFieldTableCell<QuoteItem, Double>(NumberUtils.createDoubleStringConverter());
         });
         lengthCol.setOnEditCommit(event -> {
             QuoteItem item = event.getRowValue();
-            item.setLength(NumberUtils.parseDouble(event.getNewValue().toString()));
-            atualizarTotais();
-            itemsTable.refresh();
+            item.setLength(event.getNewValue() != null ? event.getNewValue() : 0.0);
         });
         lengthCol.setPrefWidth(120);
         
-        // M3 column (não editável)
-        TableColumn<QuoteItem, String> m3Col = new TableColumn<>("M3");
-        m3Col.setCellValueFactory(cellData -> {
-            double m3 = cellData.getValue().getCubicMeters();
-            return new SimpleStringProperty(String.format("%.3f", m3).replace('.', ','));
-        });
+        // M3 column (não editável); acompanha a propriedade derivada do item
+        TableColumn<QuoteItem, Number> m3Col = new TableColumn<>("M3");
+        m3Col.setCellValueFactory(cell -> cell.getValue() != null ? cell.getValue().cubicMetersProperty() : null);
+        m3Col.setCellFactory(column -> celulaNumerica(FormatoBr::m3));
         m3Col.setPrefWidth(90);
         
         // Unit value column (editável com suporte a Tab)
         TableColumn<QuoteItem, Double> unitValueCol = new TableColumn<>("VALOR UNIT(R$/m³)");
-        unitValueCol.setCellValueFactory(new PropertyValueFactory<>("unitValue"));
+        unitValueCol.setCellValueFactory(cell ->
+            cell.getValue() != null ? cell.getValue().unitValueProperty().asObject() : null);
         unitValueCol.setCellFactory(column -> {
             return new TabAwareTextFieldTableCell<QuoteItem, Double>(NumberUtils.createCurrencyStringConverter());
         });
         unitValueCol.setOnEditCommit(event -> {
             QuoteItem item = event.getRowValue();
             item.setUnitValue(event.getNewValue());
-            item.calculateTotal();
-            atualizarTotais();
-            itemsTable.refresh();
         });
         unitValueCol.setPrefWidth(150);
         
         // Total column (não editável)
-        TableColumn<QuoteItem, String> totalCol = new TableColumn<>("TOTAL(R$)");
-        totalCol.setCellValueFactory(cellData -> {
-            double total = cellData.getValue().getTotal();
-            return new SimpleStringProperty(String.format("R$ %.2f", total));
-        });
+        TableColumn<QuoteItem, Number> totalCol = new TableColumn<>("TOTAL(R$)");
+        totalCol.setCellValueFactory(cell -> cell.getValue() != null ? cell.getValue().totalProperty() : null);
+        totalCol.setCellFactory(column -> celulaNumerica(FormatoBr::moeda));
         totalCol.setPrefWidth(120);
         
         // Configura a tabela
@@ -645,50 +582,54 @@ public class QuoteForm extends VBox {
         QuoteItem itemSelecionado = itemsTable.getSelectionModel().getSelectedItem();
         if (itemSelecionado != null) {
             itemsData.remove(itemSelecionado);
-            atualizarTotais();
         }
     }
 
+    /**
+     * Célula somente leitura que formata o valor numérico da coluna.
+     */
+    private static TableCell<QuoteItem, Number> celulaNumerica(DoubleFunction<String> formato) {
+        return new TableCell<QuoteItem, Number>() {
+            @Override
+            protected void updateItem(Number valor, boolean empty) {
+                super.updateItem(valor, empty);
+                setText(empty || valor == null ? null : formato.apply(valor.doubleValue()));
+            }
+        };
+    }
+    
+    /**
+     * Mostra os totais a partir das somas correntes, sem percorrer os itens.
+     */
     private void atualizarTotais() {
-        double totalItens = itemsData.stream()
-                .mapToDouble(QuoteItem::getTotal)
-                .sum();
-        double totalM3 = itemsData.stream()
-                .mapToDouble(QuoteItem::getCubicMeters)
-                .sum();
-        
-        totalItensLabel.setText(String.format("Total dos Itens: R$ %.2f", totalItens));
-        if (totalM3Label != null) {
-            totalM3Label.setText(String.format("%.3f", totalM3).replace('.', ','));
+        if (totalItensLabel == null) {
+            return;
         }
+        double totalItens = totais.getTotalItens();
+        double totalGeral = totais.getTotalGeral();
         
-        double frete = 0.0;
-        double desconto = 0.0;
-        
-        try {
-            String freteText = shippingValueField.getText().replace(".", "").replace(",", ".");
-            String descontoText = discountField.getText().replace(".", "").replace(",", ".");
-            frete = freteText.isEmpty() ? 0.0 : Double.parseDouble(freteText);
-            desconto = descontoText.isEmpty() ? 0.0 : Double.parseDouble(descontoText);
-            
-            // Aplica o desconto se for maior que zero
-            if (desconto > 0) {
-                totalItens = totalItens - (totalItens * (desconto / 100.0));
-            }
-        } catch (NumberFormatException e) {
-            // Valores inválidos, mantêm 0
+        StringBuilder texto = new StringBuilder(64);
+        totalItensLabel.setText(FormatoBr.anexarMoeda(texto.append("Total dos Itens: "), totalItens).toString());
+        if (totalM3Label != null) {
+            totalM3Label.setText(FormatoBr.m3(totais.getTotalM3()));
         }
-        
-        double totalGeral = totalItens + frete;
-        totalGeralLabel.setText(String.format("Total Geral: R$ %.2f (%.2f%% de desconto aplicado)", 
-            totalGeral, desconto));
+        texto.setLength(0);
+        FormatoBr.anexarMoeda(texto.append("Total Geral: "), totalGeral).append(" (");
+        FormatoBr.anexarNumero(texto, totais.getDesconto(), 2, true, false).append("% de desconto aplicado)");
+        totalGeralLabel.setText(texto.toString());
         
         if (quoteAtual != null) {
-            quoteAtual.setShippingValue(frete);
-            quoteAtual.setDiscount(desconto);
-            quoteAtual.setTotalValue(totalGeral);
+            quoteAtual.setShippingValue(totais.getFrete());
+            quoteAtual.setDiscount(totais.getDesconto());
         }
     }
+    
+    /**
+     * Converte o texto de frete ou desconto ("1.234,56"); inválido ou vazio vale zero.
+     */
+    private static double lerValor(String texto) {
+        return FormatoBr.ler(texto, 0.0);
+    }
 
     private void imprimirOrcamento() {
         if (quoteAtual == null || quoteAtual.getId() <= 0) {
@@ -696,16 +637,18 @@ public class QuoteForm extends VBox {
             return;
         }
         
+        // Busca o cliente completo do orçamento (sem ele, o PDF usa só o nome gravado)
+        Quote quote = quoteAtual;
+        CompletableFuture<Cliente> clienteFuturo = quote.getClientId() > 0
+            ? clienteDAO.buscarPorId(quote.getClientId()).exceptionally(ex -> null)
+            : CompletableFuture.completedFuture(null);
+        
+        TarefasUI.aoConcluir(clienteFuturo, cliente -> gerarEAbrirPdf(quote, cliente), ex -> { });
+    }
+    
+    private void gerarEAbrirPdf(Quote quote, Cliente cliente) {
         try {
-            // Busca o cliente completo do orçamento
-            Cliente cliente = null;
-            if (quoteAtual.getClientId() > 0) {
-                try {
-                    cliente = clienteDAO.buscarPorId(quoteAtual.getClientId());
-                } catch (SQLException ignored) { }
-            }
-
-            Path pdfFile = gerarPdfOrcamento(quoteAtual, cliente);
+            Path pdfFile = gerarPdfOrcamento(quote, cliente);
 
             // Tenta abrir o PDF automaticamente
             try {
@@ -908,21 +851,22 @@ public class QuoteForm extends VBox {
             addHeaderCell(itensTable, "VALOR UND. (R$/m³)", boldFont);
             addHeaderCell(itensTable, "TOTAL (R$)", boldFont);
 
-            double subtotal = 0.0;
-            double totalM3Pdf = 0.0;
+            // Somas em ponto fixo: os mesmos centavos mostrados na tela e gravados no banco
+            long subtotalCentavos = 0L;
+            long totalMicroM3 = 0L;
             int renderedRows = 0;
             if (quote.getItems() != null) {
                 for (QuoteItem item : quote.getItems()) {
                     itensTable.addCell(new Phrase(valorOuVazio(item.getCode()), normalFont));
                     itensTable.addCell(new Phrase(String.valueOf(item.getQuantity()), normalFont));
-                    itensTable.addCell(new Phrase(QuoteItem.formatDoubleBr(item.getWidth()), normalFont));
-                    itensTable.addCell(new Phrase(QuoteItem.formatDoubleBr(item.getHeight()), normalFont));
-                    itensTable.addCell(new Phrase(QuoteItem.formatDoubleBr(item.getLength()), normalFont));
-                    itensTable.addCell(new Phrase(String.format("%.3f", item.getCubicMeters()).replace('.', ','), normalFont));
-                    itensTable.addCell(new Phrase(String.format("%.2f", item.getUnitValue()).replace('.', ','), normalFont));
-                    itensTable.addCell(new Phrase(String.format("R$ %.2f", item.getTotal()).replace('.', ','), normalFont));
-                    subtotal += item.getTotal();
-                    totalM3Pdf += item.getCubicMeters();
+                    itensTable.addCell(new Phrase(FormatoBr.medida(item.getWidth(), 3), normalFont));
+                    itensTable.addCell(new Phrase(FormatoBr.medida(item.getHeight(), 3), normalFont));
+                    itensTable.addCell(new Phrase(FormatoBr.medida(item.getLength(), 3), normalFont));
+                    itensTable.addCell(new Phrase(FormatoBr.m3(item.getCubicMeters()), normalFont));
+                    itensTable.addCell(new Phrase(FormatoBr.numero(item.getUnitValue(), 2), normalFont));
+                    itensTable.addCell(new Phrase(FormatoBr.moeda(item.getTotal()), normalFont));
+                    subtotalCentavos += item.getTotalCentavos();
+                    totalMicroM3 += item.getVolumeMicroM3();
                     renderedRows++;
                 }
             }
@@ -950,7 +894,7 @@ public class QuoteForm extends VBox {
                 itensTable.addCell(empty);
             }
             // M3 total
-            PdfPCell m3TotalCell = new PdfPCell(new Phrase(String.format("%.3f", totalM3Pdf).replace('.', ','), footerBold));
+            PdfPCell m3TotalCell = new PdfPCell(new Phrase(FormatoBr.m3(PontoFixo.m3(totalMicroM3)), footerBold));
             m3TotalCell.setBackgroundColor(footerBg);
             m3TotalCell.setHorizontalAlignment(Element.ALIGN_CENTER);
             itensTable.addCell(m3TotalCell);
@@ -959,17 +903,17 @@ public class QuoteForm extends VBox {
             unitEmpty.setBackgroundColor(footerBg);
             itensTable.addCell(unitEmpty);
             // TOTAL subtotal
-            PdfPCell subtotalCell = new PdfPCell(new Phrase(String.format("R$ %.2f", subtotal).replace('.', ','), footerBold));
+            PdfPCell subtotalCell = new PdfPCell(new Phrase(FormatoBr.moeda(PontoFixo.reais(subtotalCentavos)), footerBold));
             subtotalCell.setBackgroundColor(footerBg);
             subtotalCell.setHorizontalAlignment(Element.ALIGN_CENTER);
             itensTable.addCell(subtotalCell);
             containerCell.addElement(itensTable);
 
             // Totais
-            double desconto = quote.getDiscount(); // percentual
-            double valorDesconto = desconto > 0 ? (subtotal * (desconto / 100.0)) : 0.0; // em R$
-            double subtotalComDesconto = subtotal - valorDesconto;
-            double totalGeral = subtotalComDesconto + quote.getShippingValue();
+            long freteCentavos = PontoFixo.centavos(quote.getShippingValue());
+            double subtotal = PontoFixo.reais(subtotalCentavos);
+            double valorDesconto = PontoFixo.reais(PontoFixo.desconto(subtotalCentavos, quote.getDiscount())); // em R$
+            double totalGeral = PontoFixo.reais(PontoFixo.totalGeral(subtotalCentavos, quote.getDiscount(), freteCentavos));
 
             // Tabela de totais alinhada aos 2 últimos campos (UNIT e TOTAL) da tabela de itens
             float availableWidth = (float) (document.getPageSize().getWidth() - document.leftMargin() - document.rightMargin());
@@ -1143,7 +1087,7 @@ public class QuoteForm extends VBox {
     private String valorOuVazio(String v) { return v == null ? "" : v; }
 
     private String formatCurrency(double v) {
-        return ("R$ " + String.format("%.2f", v)).replace('.', ',');
+        return FormatoBr.moeda(v);
     }
     
     private void excluirOrcamento() {
@@ -1159,16 +1103,19 @@ public class QuoteForm extends VBox {
             
             alert.showAndWait().ifPresent(buttonType -> {
                 if (buttonType == ButtonType.YES) {
-                    try {
-                        quoteDAO.excluir(quoteAtual.getId());
+                    setDisable(true);
+                    int idExcluido = quoteAtual.getId();
+                    TarefasUI.aoConcluir(quoteDAO.excluir(idExcluido), ignorado -> {
+                        setDisable(false);
                         showAlert("Sucesso", "Orçamento excluído com sucesso!", Alert.AlertType.INFORMATION);
                         limparFormulario();
-                        if (onSaveCallback != null) {
-                            onSaveCallback.run();
+                        if (onQuoteChanged != null) {
+                            onQuoteChanged.accept(QuoteChangeEvent.deleted(idExcluido));
                         }
-                    } catch (SQLException e) {
+                    }, e -> {
+                        setDisable(false);
                         showAlert("Erro", "Erro ao excluir orçamento: " + e.getMessage(), Alert.AlertType.ERROR);
-                    }
+                    });
                 }
             });
         }
@@ -1186,42 +1133,50 @@ public class QuoteForm extends VBox {
                 quoteAtual.setName(quoteNameField.getText());
                 
                 // Formata e define o valor do frete
-                String freteText = shippingValueField.getText().replace(".", "").replace(",", ".");
-                double frete = freteText.isEmpty() ? 0.0 : Double.parseDouble(freteText);
+                double frete = FormatoBr.ler(shippingValueField.getText());
                 quoteAtual.setShippingValue(frete);
                 
                 // Formata e define o desconto
-                String descontoText = discountField.getText().replace(".", "").replace(",", ".");
-                double desconto = descontoText.isEmpty() ? 0.0 : Double.parseDouble(descontoText);
+                double desconto = FormatoBr.ler(discountField.getText());
                 quoteAtual.setDiscount(desconto);
                 
                 quoteAtual.setComplemento(complementoField.getText());
                 quoteAtual.setItems(new ArrayList<>(itemsData));
                 
                 // Atualiza o cliente selecionado (id e nome)
-                Cliente clienteSelecionado = clientComboBox.getSelectionModel().getSelectedItem();
+                Cliente clienteSelecionado = clientComboBox.getValue();
                 if (clienteSelecionado != null) {
                     quoteAtual.setClientId(clienteSelecionado.getId());
                     quoteAtual.setClientName(clienteSelecionado.getNome());
                 }
                 
-                // Salva ou atualiza o orçamento
-                if (quoteAtual.getId() > 0) {
-                    quoteDAO.atualizar(quoteAtual);
-                    showAlert("Sucesso", "Orçamento atualizado com sucesso!", Alert.AlertType.INFORMATION);
-                } else {
-                    quoteDAO.salvar(quoteAtual);
-                    showAlert("Sucesso", "Orçamento salvo com sucesso!", Alert.AlertType.INFORMATION);
-                }
+                // Salva ou atualiza o orçamento; o formulário fica bloqueado até terminar
+                boolean atualizacao = quoteAtual.getId() > 0;
+                Quote gravado = quoteAtual;
+                CompletableFuture<Void> gravacao = atualizacao
+                    ? quoteDAO.atualizar(gravado)
+                    : quoteDAO.salvar(gravado);
+                setDisable(true);
                 
-                if (onSaveCallback != null) {
-                    onSaveCallback.run();
-                }
+                TarefasUI.aoConcluir(gravacao, ignorado -> {
+                    setDisable(false);
+                    // O formulário continua com o orçamento, agora com id: novas gravações o atualizam
+                    deleteButton.setDisable(false);
+                    printButton.setDisable(false);
+                    if (onQuoteChanged != null) {
+                        onQuoteChanged.accept(atualizacao
+                            ? QuoteChangeEvent.updated(gravado)
+                            : QuoteChangeEvent.created(gravado));
+                    }
+                    showAlert("Sucesso", atualizacao ? "Orçamento atualizado com sucesso!" : "Orçamento salvo com sucesso!",
+                            Alert.AlertType.INFORMATION);
+                }, e -> {
+                    setDisable(false);
+                    e.printStackTrace();
+                    showAlert("Erro", "Não foi possível salvar o orçamento: " + e.getMessage(), 
+                            Alert.AlertType.ERROR);
+                });
                 
-            } catch (SQLException e) {
-                e.printStackTrace();
-                showAlert("Erro", "Não foi possível salvar o orçamento: " + e.getMessage(), 
-                        Alert.AlertType.ERROR);
             } catch (NumberFormatException e) {
                 showAlert("Erro", "Verifique os valores numéricos informados.", 
                         Alert.AlertType.ERROR);
@@ -1236,7 +1191,7 @@ public class QuoteForm extends VBox {
             return false;
         }
         
-        if (clientComboBox.getSelectionModel().isEmpty()) {
+        if (clientComboBox.getValue() == null) {
             showAlert("Atenção", "Selecione um cliente.", Alert.AlertType.WARNING);
             clientComboBox.requestFocus();
             return false;
@@ -1245,20 +1200,14 @@ public class QuoteForm extends VBox {
         try {
             // Valida valor do frete
             try {
-                String freteText = shippingValueField.getText().replace(".", "").replace(",", ".");
-                if (!freteText.isEmpty()) {
-                    Double.parseDouble(freteText);
-                }
+                FormatoBr.ler(shippingValueField.getText());
                 
-                // Valida desconto, se informado
-                String descontoText = discountField.getText().replace(".", "").replace(",", ".");
-                if (!descontoText.isEmpty()) {
-                    double desconto = Double.parseDouble(descontoText);
-                    if (desconto < 0 || desconto > 100) {
-                        showAlert("Atenção", "O desconto deve estar entre 0 e 100%.", Alert.AlertType.WARNING);
-                        discountField.requestFocus();
-                        return false;
-                    }
+                // Valida desconto, se informado (vazio vale zero)
+                double desconto = FormatoBr.ler(discountField.getText());
+                if (desconto < 0 || desconto > 100) {
+                    showAlert("Atenção", "O desconto deve estar entre 0 e 100%.", Alert.AlertType.WARNING);
+                    discountField.requestFocus();
+                    return false;
                 }
             } catch (NumberFormatException e) {
                 showAlert("Atenção", "Valores numéricos inválidos. Verifique os campos de frete e desconto.", Alert.AlertType.WARNING);
@@ -1291,12 +1240,12 @@ public class QuoteForm extends VBox {
      * Prepara o formulário para um novo orçamento
      */
     private void novoOrcamento() {
-        // Cria uma nova instância de Quote
-        quoteAtual = new Quote();
-        
         // Limpa todos os campos
         limparFormulario();
         
+        // Cria uma nova instância de Quote
+        quoteAtual = new Quote();
+        
         // Define o foco no campo de nome do orçamento
         quoteNameField.requestFocus();
     }
@@ -1305,6 +1254,9 @@ public class QuoteForm extends VBox {
      * Limpa todos os campos do formulário
      */
     private void limparFormulario() {
+        // O formulário deixa de apontar para o orçamento carregado
+        quoteAtual = null;
+        
         // Limpa os campos
         quoteNameField.clear();
         shippingValueField.setText("0,00");
@@ -1312,7 +1264,7 @@ public class QuoteForm extends VBox {
         complementoField.clear();
         
         // Limpa a seleção do cliente, mantendo o texto de prompt
-        clientComboBox.setValue(null);
+        clientComboBox.limpar();
         
         // Limpa a lista de itens
         itemsData.clear();
@@ -1,33 +1,78 @@
 package com.caua.madeira.view;
 
-import com.caua.madeira.dao.QuoteDAO;
+import com.caua.madeira.dao.ConsultaCancelavel;
+import com.caua.madeira.dao.OrdemResumo;
+import com.caua.madeira.dao.QuoteDAOAsync;
+import com.caua.madeira.database.Alteracao;
+import com.caua.madeira.database.OuvinteNotificacoes;
 import com.caua.madeira.model.Quote;
+import com.caua.madeira.model.QuoteChangeEvent;
+import com.caua.madeira.model.QuoteSummary;
+import com.caua.madeira.util.FormatoBr;
+import com.caua.madeira.util.TextUtils;
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.beans.property.ReadOnlyStringWrapper;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.scene.control.*;
-import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.Priority;
 import javafx.scene.layout.VBox;
 import javafx.geometry.Insets;
+import javafx.util.Duration;
 
-import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
 
 public class QuoteList extends VBox {
     
-    private final TableView<Quote> quoteTable;
-    private ObservableList<Quote> quoteData;
-    private final QuoteDAO quoteDAO;
+    private static final int LIMITE_BUSCA = 100;
+    // Linhas por consulta e quantos blocos ficam em memória ao rolar a lista
+    private static final int TAMANHO_BLOCO = 100;
+    private static final int MAX_BLOCOS_EM_MEMORIA = 20;
+    // Pausa na digitação antes de buscar
+    private static final Duration ATRASO_BUSCA = Duration.millis(300);
+    
+    private final TableView<QuoteSummary> quoteTable;
+    // Lista completa, carregada sob demanda e ordenada no servidor
+    private final ListaPaginada<QuoteSummary> paginas =
+            new ListaPaginada<>(TAMANHO_BLOCO, MAX_BLOCOS_EM_MEMORIA, QuoteSummary::getId);
+    private OrdemResumo ordemAtual = OrdemResumo.DATA;
+    private boolean crescenteAtual;
+    // Resultado da busca (limitado a LIMITE_BUSCA linhas), ordenado em memória
+    private ObservableList<QuoteSummary> quoteData;
+    // Cópia da lista completa usada para filtrar em memória durante a busca, ou
+    // null quando ela não estava toda carregada e a busca vai ao servidor
+    private List<QuoteSummary> listaCompletaEmMemoria;
+    private final QuoteDAOAsync quoteDAO;
+    // Descarta respostas de consultas anteriores que chegarem fora de ordem
+    private int geracaoConsulta;
+    // Termo da busca exibida, ou null quando a lista completa está na tela
+    private String termoAtual;
+    // Orçamentos com releitura já pedida, para agrupar notificações seguidas
+    private final Set<Integer> releiturasPendentes = new HashSet<>();
+    private final PauseTransition atrasoBusca = new PauseTransition(ATRASO_BUSCA);
+    // Busca no servidor em andamento, cancelada quando o termo muda
+    private ConsultaCancelavel consultaBusca;
     private final Consumer<Quote> onQuoteSelected;
     
     public QuoteList(Consumer<Quote> onQuoteSelected) {
         this.onQuoteSelected = onQuoteSelected;
-        this.quoteDAO = new QuoteDAO();
+        this.quoteDAO = new QuoteDAOAsync();
         this.quoteTable = new TableView<>();
         initializeUI();
         refreshQuoteList();
+        // Continua inscrita enquanto oculta, para estar em dia ao voltar à tela
+        OuvinteNotificacoes.getInstance().inscrever(
+            alteracao -> Platform.runLater(() -> aplicarAlteracao(alteracao)));
     }
     
     private void initializeUI() {
@@ -42,42 +87,68 @@ public class QuoteList extends VBox {
         quoteTable.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
         
         // Create columns
-        TableColumn<Quote, String> nameCol = new TableColumn<>("Nome do Orçamento");
-        nameCol.setCellValueFactory(new PropertyValueFactory<>("name"));
+        TableColumn<QuoteSummary, String> nameCol = new TableColumn<>("Nome do Orçamento");
+        // Linhas de blocos ainda não carregados chegam como null
+        nameCol.setCellValueFactory(cell ->
+            cell.getValue() != null ? new ReadOnlyStringWrapper(cell.getValue().getName()) : null);
+        nameCol.setUserData(OrdemResumo.NOME);
         
-        TableColumn<Quote, String> clientCol = new TableColumn<>("Cliente");
-        clientCol.setCellValueFactory(new PropertyValueFactory<>("clientName"));
+        TableColumn<QuoteSummary, String> clientCol = new TableColumn<>("Cliente");
+        clientCol.setCellValueFactory(cell ->
+            cell.getValue() != null ? new ReadOnlyStringWrapper(cell.getValue().getClientName()) : null);
+        clientCol.setUserData(OrdemResumo.CLIENTE);
         
-        TableColumn<Quote, String> dateCol = new TableColumn<>("Data");
-        dateCol.setCellValueFactory(new PropertyValueFactory<>("date"));
+        TableColumn<QuoteSummary, LocalDate> dateCol = new TableColumn<>("Data");
+        dateCol.setCellValueFactory(cell ->
+            cell.getValue() != null ? new ReadOnlyObjectWrapper<>(cell.getValue().getDate()) : null);
+        dateCol.setUserData(OrdemResumo.DATA);
         
-        TableColumn<Quote, Double> totalCol = new TableColumn<>("Valor Total");
-        totalCol.setCellValueFactory(new PropertyValueFactory<>("totalValue"));
+        TableColumn<QuoteSummary, Double> totalCol = new TableColumn<>("Valor Total");
+        totalCol.setCellValueFactory(cell ->
+            cell.getValue() != null ? new ReadOnlyObjectWrapper<>(cell.getValue().getTotalValue()) : null);
+        totalCol.setCellFactory(column -> new TableCell<QuoteSummary, Double>() {
+            @Override
+            protected void updateItem(Double total, boolean empty) {
+                super.updateItem(total, empty);
+                setText(empty || total == null ? null : FormatoBr.moeda(total));
+            }
+        });
+        totalCol.setStyle("-fx-alignment: CENTER-RIGHT;");
+        totalCol.setUserData(OrdemResumo.TOTAL);
         
         // Adiciona as colunas à tabela de forma segura
         @SuppressWarnings("unchecked")
-        TableColumn<Quote, ?>[] columns = new TableColumn[] {
+        TableColumn<QuoteSummary, ?>[] columns = new TableColumn[] {
             nameCol, clientCol, dateCol, totalCol
         };
         quoteTable.getColumns().addAll(columns);
         
+        // A lista completa é ordenada no servidor; só o resultado da busca é ordenado em memória
+        quoteTable.setSortPolicy(tabela -> {
+            if (termoAtual != null) {
+                return TableView.DEFAULT_SORT_POLICY.call(tabela);
+            }
+            if (lerOrdemDaTabela()) {
+                refreshQuoteList();
+            }
+            return true;
+        });
+        
         // Configura a fábrica de linhas para manipular seleção
         quoteTable.setRowFactory(tv -> {
-            TableRow<Quote> row = new TableRow<>();
+            TableRow<QuoteSummary> row = new TableRow<>();
             row.setOnMouseClicked(event -> {
-                if (event.getClickCount() == 2 && !row.isEmpty()) {
+                // Linhas de blocos ainda não carregados não têm item
+                if (event.getClickCount() == 2 && !row.isEmpty() && row.getItem() != null) {
                     // Carrega os dados do orçamento no formulário quando a linha for clicada duas vezes
-                    Quote selectedQuote = row.getItem();
+                    QuoteSummary selectedQuote = row.getItem();
                     if (onQuoteSelected != null) {
-                        try {
-                            // Busca o orçamento completo do banco de dados
-                            Quote quoteCompleto = quoteDAO.buscarPorId(selectedQuote.getId());
-                            onQuoteSelected.accept(quoteCompleto);
-                        } catch (SQLException e) {
+                        // Busca o orçamento completo do banco de dados
+                        TarefasUI.aoConcluir(quoteDAO.buscarPorId(selectedQuote.getId()), onQuoteSelected, e -> {
                             e.printStackTrace();
                             showAlert("Erro", "Não foi possível carregar os detalhes do orçamento: " + e.getMessage(), 
                                     Alert.AlertType.ERROR);
-                        }
+                        });
                     }
                 }
             });
@@ -88,6 +159,23 @@ public class QuoteList extends VBox {
         TextField searchField = new TextField();
         searchField.setPromptText("Buscar orçamento...");
         searchField.setPrefWidth(300);
+        // Busca enquanto digita, após uma pausa; Enter busca na hora e apagar o
+        // texto volta à lista completa
+        atrasoBusca.setOnFinished(e -> buscarOrcamentos(searchField.getText()));
+        searchField.setOnAction(e -> {
+            atrasoBusca.stop();
+            buscarOrcamentos(searchField.getText());
+        });
+        searchField.textProperty().addListener((obs, oldText, newText) -> {
+            if (newText == null || newText.isBlank()) {
+                atrasoBusca.stop();
+                if (termoAtual != null) {
+                    refreshQuoteList();
+                }
+            } else {
+                atrasoBusca.playFromStart();
+            }
+        });
         
         // Add components to layout
         HBox searchBox = new HBox(10);
@@ -99,18 +187,257 @@ public class QuoteList extends VBox {
         VBox.setVgrow(quoteTable, Priority.ALWAYS);
     }
     
+    /**
+     * Volta à lista completa. Só o primeiro bloco é consultado; os demais são
+     * buscados conforme a rolagem, então o custo não depende do total de orçamentos.
+     */
     public void refreshQuoteList() {
-        try {
-            List<Quote> quotes = quoteDAO.listarTodos();
-            quoteData = FXCollections.observableArrayList(quotes);
+        cancelarBusca();
+        lerOrdemDaTabela();
+        termoAtual = null;
+        quoteData = null;
+        int geracao = ++geracaoConsulta;
+        quoteTable.setPlaceholder(new Label("Carregando orçamentos..."));
+        quoteTable.setItems(paginas);
+        
+        OrdemResumo ordem = ordemAtual;
+        boolean crescente = crescenteAtual;
+        // Apenas os cabeçalhos; os itens são carregados ao abrir o orçamento
+        paginas.reiniciar((inicio, fim, limite) -> quoteDAO.listarResumos(ordem, crescente, inicio, fim, limite))
+            .whenComplete((ok, e) -> {
+                if (geracao != geracaoConsulta) {
+                    return;
+                }
+                if (e == null) {
+                    quoteTable.setPlaceholder(new Label("Nenhum orçamento encontrado"));
+                } else {
+                    e.printStackTrace();
+                    quoteTable.setPlaceholder(new Label("Não foi possível carregar os orçamentos"));
+                    showAlert("Erro", "Não foi possível carregar a lista de orçamentos: " + e.getMessage(),
+                            Alert.AlertType.ERROR);
+                }
+            });
+    }
+    
+    /**
+     * Atualiza a ordenação do servidor a partir da coluna clicada (padrão: data
+     * decrescente). Devolve {@code true} se ela mudou.
+     */
+    private boolean lerOrdemDaTabela() {
+        OrdemResumo ordem = OrdemResumo.DATA;
+        boolean crescente = false;
+        if (!quoteTable.getSortOrder().isEmpty()) {
+            TableColumn<QuoteSummary, ?> coluna = quoteTable.getSortOrder().get(0);
+            ordem = (OrdemResumo) coluna.getUserData();
+            crescente = coluna.getSortType() == TableColumn.SortType.ASCENDING;
+        }
+        boolean mudou = ordem != ordemAtual || crescente != crescenteAtual;
+        ordemAtual = ordem;
+        crescenteAtual = crescente;
+        return mudou;
+    }
+    
+    private void buscarOrcamentos(String termo) {
+        if (termo == null || termo.isBlank()) {
+            refreshQuoteList();
+            return;
+        }
+        
+        cancelarBusca();
+        boolean primeiraBusca = termoAtual == null;
+        termoAtual = termo;
+        
+        // Se a lista completa já está toda em memória, filtra sem ir ao banco
+        List<QuoteSummary> todas = primeiraBusca ? paginas.todasSeCompleta() : listaCompletaEmMemoria;
+        listaCompletaEmMemoria = todas;
+        if (todas != null) {
+            geracaoConsulta++;
+            quoteData = FXCollections.observableArrayList(filtrar(todas, termo));
             quoteTable.setItems(quoteData);
-        } catch (SQLException e) {
+            quoteTable.setPlaceholder(new Label("Nenhum orçamento encontrado"));
+            return;
+        }
+        
+        consultaBusca = new ConsultaCancelavel();
+        carregar(quoteDAO.buscarResumos(termo, LIMITE_BUSCA, consultaBusca), "Não foi possível buscar orçamentos: ");
+    }
+    
+    private void cancelarBusca() {
+        if (consultaBusca != null) {
+            consultaBusca.cancelar();
+            consultaBusca = null;
+        }
+    }
+    
+    /**
+     * Filtro usado quando a lista inteira já está em memória: trecho do nome
+     * do orçamento ou do cliente, sem acentos e sem diferença de maiúsculas
+     * ({@link TextUtils#normalizar}, a mesma dobra do índice de clientes), de
+     * modo que "joao" acha "João" aqui como acha no servidor. A intenção é ser
+     * o subconjunto das respostas do servidor: lá o ILIKE cobre o mesmo
+     * trecho, a similaridade de trigramas cobre acentos e erros de digitação,
+     * e só o servidor devolve as parecidas sem o trecho exato.
+     */
+    private static List<QuoteSummary> filtrar(List<QuoteSummary> quotes, String termo) {
+        String procurado = TextUtils.normalizar(termo.trim());
+        List<QuoteSummary> encontrados = new ArrayList<>();
+        for (QuoteSummary q : quotes) {
+            if (contem(q.getName(), procurado) || contem(q.getClientName(), procurado)) {
+                encontrados.add(q);
+            }
+        }
+        return encontrados;
+    }
+    
+    private static boolean contem(String texto, String procurado) {
+        return texto != null && TextUtils.normalizar(texto).contains(procurado);
+    }
+    
+    /**
+     * Aplica uma alteração feita no formulário desta estação sem consultar o
+     * banco: o resumo vem no próprio evento e só a linha afetada muda.
+     */
+    public void aplicarAlteracao(QuoteChangeEvent evento) {
+        int id = evento.getQuoteId();
+        QuoteSummary resumo = evento.getSummary();
+        
+        if (termoAtual != null) {
+            if (quoteData != null && evento.getType() != QuoteChangeEvent.Type.CREATED) {
+                substituirLinha(id, resumo);
+            }
+            return;
+        }
+        switch (evento.getType()) {
+            case CREATED:
+                paginas.inserir(resumo, comparadorAtual());
+                break;
+            case UPDATED:
+                // A posição pode mudar com a nova chave de ordenação
+                if (paginas.remover(id)) {
+                    paginas.inserir(resumo, comparadorAtual());
+                }
+                break;
+            case DELETED:
+                paginas.remover(id);
+                break;
+        }
+    }
+    
+    /**
+     * Mesma ordem usada pela consulta do servidor para a coluna atual. Textos
+     * comparados por código de caractere, como o COLLATE "C" de {@link OrdemResumo}.
+     */
+    private Comparator<QuoteSummary> comparadorAtual() {
+        Comparator<QuoteSummary> comparador;
+        switch (ordemAtual) {
+            case NOME:
+                comparador = Comparator.comparing(q -> q.getName() != null ? q.getName() : "");
+                break;
+            case CLIENTE:
+                comparador = Comparator.comparing(q -> q.getClientName() != null ? q.getClientName() : "");
+                break;
+            case TOTAL:
+                comparador = Comparator.comparingDouble(QuoteSummary::getTotalValue);
+                break;
+            default:
+                comparador = Comparator.comparing(QuoteSummary::getDate);
+                break;
+        }
+        comparador = comparador.thenComparingInt(QuoteSummary::getId);
+        return crescenteAtual ? comparador : comparador.reversed();
+    }
+    
+    /**
+     * Aplica uma alteração vinda do banco. Na lista completa relê apenas o bloco
+     * em memória que contém o orçamento (ou o primeiro, para um orçamento novo);
+     * durante uma busca relê só o cabeçalho afetado e atualiza as linhas exibidas.
+     */
+    private void aplicarAlteracao(Alteracao alteracao) {
+        if (alteracao.isResincronizar()) {
+            if (termoAtual != null) {
+                buscarOrcamentos(termoAtual);
+            } else {
+                refreshQuoteList();
+            }
+            return;
+        }
+        // Gravações desta estação já chegaram como QuoteChangeEvent
+        if (!alteracao.afetaOrcamento() || alteracao.isLocal()) {
+            return;
+        }
+        
+        int id = alteracao.getId();
+        if (termoAtual == null) {
+            boolean inclusao = alteracao.getTipo() == Alteracao.Tipo.INSERT
+                    && Alteracao.QUOTES.equals(alteracao.getTabela());
+            if (!paginas.recarregarBlocoCom(id) && inclusao) {
+                paginas.recarregarInicio();
+            }
+            return;
+        }
+        if (quoteData == null) {
+            return;
+        }
+        if (alteracao.isExclusao() && Alteracao.QUOTES.equals(alteracao.getTabela())) {
+            quoteData.removeIf(q -> q.getId() == id);
+            return;
+        }
+        if (!releiturasPendentes.add(id)) {
+            return;
+        }
+        int geracao = geracaoConsulta;
+        TarefasUI.aoConcluir(quoteDAO.buscarResumoPorId(id), resumo -> {
+            releiturasPendentes.remove(id);
+            if (geracao == geracaoConsulta) {
+                substituirLinha(id, resumo);
+            }
+        }, e -> {
+            releiturasPendentes.remove(id);
             e.printStackTrace();
-            showAlert("Erro", "Não foi possível carregar a lista de orçamentos: " + e.getMessage(), 
-                    Alert.AlertType.ERROR);
+        });
+    }
+    
+    private void substituirLinha(int id, QuoteSummary resumo) {
+        int existente = -1;
+        for (int i = 0; i < quoteData.size(); i++) {
+            if (quoteData.get(i).getId() == id) {
+                existente = i;
+                break;
+            }
+        }
+        if (resumo == null) {
+            if (existente >= 0) {
+                quoteData.remove(existente);
+            }
+            return;
+        }
+        // Busca ordenada por relevância: atualiza no lugar, sem incluir novos
+        if (existente >= 0) {
+            quoteData.set(existente, resumo);
         }
     }
     
+    private void carregar(CompletableFuture<List<QuoteSummary>> consulta, String mensagemErro) {
+        int geracao = ++geracaoConsulta;
+        quoteTable.setPlaceholder(new Label("Carregando orçamentos..."));
+        
+        TarefasUI.aoConcluir(consulta, quotes -> {
+            if (geracao != geracaoConsulta) {
+                return;
+            }
+            quoteData = FXCollections.observableArrayList(quotes);
+            quoteTable.setItems(quoteData);
+            quoteTable.setPlaceholder(new Label("Nenhum orçamento encontrado"));
+        }, e -> {
+            if (geracao != geracaoConsulta) {
+                return;
+            }
+            e.printStackTrace();
+            quoteTable.setPlaceholder(new Label("Não foi possível carregar os orçamentos"));
+            showAlert("Erro", mensagemErro + e.getMessage(), Alert.AlertType.ERROR);
+        });
+    }
+    
     private void showAlert(String title, String message, Alert.AlertType type) {
         Alert alert = new Alert(type);
         alert.setTitle(title);
@@ -0,0 +1,230 @@
+package com.caua.madeira.view;
+
+import com.caua.madeira.cache.ClienteCache;
+import com.caua.madeira.dao.ClienteDAOAsync;
+import com.caua.madeira.model.Cliente;
+import com.caua.madeira.util.TextUtils;
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.TextField;
+import javafx.util.Duration;
+import javafx.util.StringConverter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ComboBox editável para escolher um cliente digitando parte do nome,
+ * documento, telefone ou e-mail.
+ *
+ * A lista nunca contém todos os clientes: cada termo digitado (após uma
+ * pausa curta) busca no máximo {@link #LIMITE_SUGESTOES} resultados fora da
+ * thread da interface, e os termos mais recentes ficam guardados para que
+ * apagar e redigitar não repita a busca. Um cliente já conhecido pelo id é
+ * selecionado com {@link #selecionarPorId(int)}, sem percorrer lista alguma.
+ */
+final class SeletorCliente extends ComboBox<Cliente> {
+    
+    private static final Logger log = LoggerFactory.getLogger(SeletorCliente.class);
+    
+    private static final int LIMITE_SUGESTOES = 50;
+    private static final int MAX_BUSCAS_RECENTES = 32;
+    private static final Duration ATRASO_BUSCA = Duration.millis(150);
+    
+    private final ClienteDAOAsync clienteDAO = new ClienteDAOAsync();
+    private final PauseTransition atrasoBusca = new PauseTransition(ATRASO_BUSCA);
+    private final Map<String, List<Cliente>> buscasRecentes =
+        new LinkedHashMap<String, List<Cliente>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, List<Cliente>> maisAntiga) {
+                return size() > MAX_BUSCAS_RECENTES;
+            }
+        };
+    // Descarta respostas de buscas que já foram superadas por outra digitação
+    private int buscaAtual;
+    private boolean atualizandoItens;
+    
+    SeletorCliente() {
+        setEditable(true);
+        setPromptText("Digite para buscar o cliente");
+        setVisibleRowCount(12);
+        setConverter(new StringConverter<Cliente>() {
+            @Override
+            public String toString(Cliente c) {
+                return c != null && c.getNome() != null ? c.getNome() : "";
+            }
+            
+            @Override
+            public Cliente fromString(String texto) {
+                return resolverTexto(texto);
+            }
+        });
+        
+        TextField editor = getEditor();
+        atrasoBusca.setOnFinished(e -> buscar(editor.getText()));
+        editor.textProperty().addListener((obs, antigo, novo) -> {
+            if (atualizandoItens || !editor.isFocused()) {
+                return;
+            }
+            // O próprio ComboBox reescreve o editor ao selecionar um cliente
+            Cliente selecionado = getValue();
+            if (selecionado != null && getConverter().toString(selecionado).equals(novo)) {
+                return;
+            }
+            atrasoBusca.playFromStart();
+        });
+        
+        // Mantido enquanto a aplicação roda, como o formulário que o contém
+        ClienteCache.getInstance().adicionarOuvinte(new ClienteCache.Ouvinte() {
+            @Override
+            public void clienteAlterado(int id, Cliente cliente) {
+                Platform.runLater(() -> aplicarAlteracao(id, cliente));
+            }
+            
+            @Override
+            public void cacheInvalidado() {
+                Platform.runLater(buscasRecentes::clear);
+            }
+        });
+    }
+    
+    /**
+     * Seleciona o cliente pelo id: direto do cache quando já está em memória,
+     * senão por uma leitura da linha fora da thread da interface.
+     */
+    void selecionarPorId(int id) {
+        Cliente emCache = ClienteCache.getInstance().emCache(id);
+        if (emCache != null) {
+            selecionar(emCache);
+            return;
+        }
+        int busca = ++buscaAtual;
+        TarefasUI.aoConcluir(clienteDAO.buscarPorId(id), cliente -> {
+            if (busca == buscaAtual && cliente != null) {
+                selecionar(cliente);
+            }
+        }, e -> log.error("Falha ao buscar o cliente {}", id, e));
+    }
+    
+    void limpar() {
+        atrasoBusca.stop();
+        buscaAtual++;
+        hide();
+        setValue(null);
+        getItems().clear();
+    }
+    
+    private void selecionar(Cliente cliente) {
+        atrasoBusca.stop();
+        atualizandoItens = true;
+        try {
+            getItems().setAll(cliente);
+            setValue(cliente);
+        } finally {
+            atualizandoItens = false;
+        }
+    }
+    
+    private void buscar(String texto) {
+        String termo = TextUtils.normalizar(texto != null ? texto : "").trim();
+        if (termo.isEmpty()) {
+            buscaAtual++;
+            mostrarSugestoes(List.of());
+            return;
+        }
+        List<Cliente> recentes = buscasRecentes.get(termo);
+        if (recentes != null) {
+            buscaAtual++;
+            mostrarSugestoes(recentes);
+            return;
+        }
+        int busca = ++buscaAtual;
+        TarefasUI.aoConcluir(clienteDAO.buscar(termo, LIMITE_SUGESTOES), clientes -> {
+            if (busca != buscaAtual) {
+                return;
+            }
+            buscasRecentes.put(termo, clientes);
+            mostrarSugestoes(clientes);
+        }, e -> log.error("Falha ao buscar clientes por \"{}\"", termo, e));
+    }
+    
+    /**
+     * Troca as sugestões preservando o que o usuário está digitando: ao mudar
+     * os itens o ComboBox limpa a seleção e, com ela, o texto do editor.
+     */
+    private void mostrarSugestoes(List<Cliente> clientes) {
+        TextField editor = getEditor();
+        String texto = editor.getText();
+        int cursor = editor.getCaretPosition();
+        atualizandoItens = true;
+        try {
+            getItems().setAll(clientes);
+            editor.setText(texto);
+            editor.positionCaret(Math.min(cursor, texto != null ? texto.length() : 0));
+        } finally {
+            atualizandoItens = false;
+        }
+        if (clientes.isEmpty()) {
+            hide();
+        } else if (editor.isFocused()) {
+            // Reabre para o popup acompanhar a nova quantidade de linhas
+            hide();
+            show();
+        }
+    }
+    
+    /**
+     * Converte o texto do editor em cliente ao confirmar: o selecionado se o
+     * nome não mudou, senão a sugestão com esse nome. Texto que não
+     * corresponde a nenhum cliente deixa a seleção vazia.
+     */
+    private Cliente resolverTexto(String texto) {
+        if (texto == null || texto.trim().isEmpty()) {
+            return null;
+        }
+        Cliente selecionado = getValue();
+        if (selecionado != null && texto.equals(getConverter().toString(selecionado))) {
+            return selecionado;
+        }
+        String procurado = TextUtils.normalizar(texto).trim();
+        for (Cliente cliente : getItems()) {
+            if (cliente.getNome() != null && TextUtils.normalizar(cliente.getNome()).trim().equals(procurado)) {
+                return cliente;
+            }
+        }
+        return null;
+    }
+    
+    private void aplicarAlteracao(int id, Cliente cliente) {
+        // Os resultados guardados podem conter o cliente com os dados antigos
+        buscasRecentes.clear();
+        Cliente selecionado = getValue();
+        if (selecionado != null && selecionado.getId() == id) {
+            if (cliente != null) {
+                selecionar(cliente);
+            } else {
+                limpar();
+            }
+            return;
+        }
+        for (int i = 0; i < getItems().size(); i++) {
+            if (getItems().get(i).getId() == id) {
+                atualizandoItens = true;
+                try {
+                    if (cliente != null) {
+                        getItems().set(i, cliente);
+                    } else {
+                        getItems().remove(i);
+                    }
+                } finally {
+                    atualizandoItens = false;
+                }
+                break;
+            }
+        }
+    }
+}
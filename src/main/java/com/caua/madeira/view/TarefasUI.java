@@ -0,0 +1,45 @@
+package com.caua.madeira.view;
+
+import javafx.application.Platform;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+
+/**
+ * Entrega o resultado de uma operação assíncrona do DAO na thread da
+ * interface (FX Application Thread).
+ */
+final class TarefasUI {
+    
+    private TarefasUI() {
+    }
+    
+    /**
+     * Executa {@code sucesso} ou {@code erro} via Platform.runLater quando o
+     * futuro terminar. Futuros cancelados são ignorados.
+     */
+    static <T> void aoConcluir(CompletableFuture<T> futuro, Consumer<T> sucesso, Consumer<Throwable> erro) {
+        futuro.whenComplete((resultado, falha) -> {
+            Throwable causa = desembrulhar(falha);
+            if (causa instanceof CancellationException) {
+                return;
+            }
+            Platform.runLater(() -> {
+                if (causa == null) {
+                    sucesso.accept(resultado);
+                } else {
+                    erro.accept(causa);
+                }
+            });
+        });
+    }
+    
+    private static Throwable desembrulhar(Throwable falha) {
+        if (falha instanceof CompletionException && falha.getCause() != null) {
+            return falha.getCause();
+        }
+        return falha;
+    }
+}
@@ -0,0 +1,136 @@
+package com.caua.madeira.view;
+
+import com.caua.madeira.model.QuoteItem;
+import com.caua.madeira.util.PontoFixo;
+import javafx.beans.value.ChangeListener;
+import javafx.collections.ListChangeListener;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Somas correntes dos itens do orçamento em edição.
+ *
+ * Em vez de percorrer todos os itens a cada alteração, guarda a contribuição
+ * (total e m³) de cada item e aplica só a diferença quando ele entra ou sai
+ * da lista, ou quando as propriedades {@code total}/{@code cubicMeters} do
+ * item mudam. As somas são em ponto fixo (centavos e milionésimos de m³,
+ * ver {@link PontoFixo}), então somar e subtrair contribuições não acumula
+ * erro. Frete e desconto ficam guardados já convertidos. Deve ser usado
+ * apenas na thread da interface.
+ */
+final class TotaisOrcamento implements ListChangeListener<QuoteItem> {
+    
+    private static final class Contribuicao {
+        private long totalCentavos;
+        private long volumeMicroM3;
+        private ChangeListener<Number> ouvinte;
+    }
+    
+    private final Map<QuoteItem, Contribuicao> contribuicoes = new IdentityHashMap<>();
+    private final Runnable aoAlterar;
+    private long somaItensCentavos;
+    private long somaMicroM3;
+    private long freteCentavos;
+    private double desconto;
+    
+    /**
+     * @param aoAlterar chamado depois que as somas mudam
+     */
+    TotaisOrcamento(Runnable aoAlterar) {
+        this.aoAlterar = aoAlterar;
+    }
+    
+    /**
+     * Passa a acompanhar os itens adicionados e deixa de acompanhar os removidos.
+     */
+    @Override
+    public void onChanged(Change<? extends QuoteItem> change) {
+        while (change.next()) {
+            if (change.wasPermutated()) {
+                continue;
+            }
+            for (QuoteItem removido : change.getRemoved()) {
+                remover(removido);
+            }
+            for (QuoteItem adicionado : change.getAddedSubList()) {
+                adicionar(adicionado);
+            }
+        }
+        aoAlterar.run();
+    }
+    
+    private void adicionar(QuoteItem item) {
+        if (item == null) {
+            return;
+        }
+        Contribuicao contribuicao = contribuicoes.get(item);
+        if (contribuicao == null) {
+            contribuicao = new Contribuicao();
+            contribuicao.ouvinte = (obs, antigo, novo) -> {
+                recontar(item);
+                aoAlterar.run();
+            };
+            item.totalProperty().addListener(contribuicao.ouvinte);
+            item.cubicMetersProperty().addListener(contribuicao.ouvinte);
+            contribuicoes.put(item, contribuicao);
+        }
+        recontar(item);
+    }
+    
+    /**
+     * Troca a contribuição guardada do item pelos valores atuais.
+     */
+    private void recontar(QuoteItem item) {
+        Contribuicao contribuicao = contribuicoes.get(item);
+        if (contribuicao == null) {
+            return;
+        }
+        somaItensCentavos += item.getTotalCentavos() - contribuicao.totalCentavos;
+        somaMicroM3 += item.getVolumeMicroM3() - contribuicao.volumeMicroM3;
+        contribuicao.totalCentavos = item.getTotalCentavos();
+        contribuicao.volumeMicroM3 = item.getVolumeMicroM3();
+    }
+    
+    private void remover(QuoteItem item) {
+        Contribuicao contribuicao = item != null ? contribuicoes.remove(item) : null;
+        if (contribuicao == null) {
+            return;
+        }
+        item.totalProperty().removeListener(contribuicao.ouvinte);
+        item.cubicMetersProperty().removeListener(contribuicao.ouvinte);
+        somaItensCentavos -= contribuicao.totalCentavos;
+        somaMicroM3 -= contribuicao.volumeMicroM3;
+    }
+    
+    void setFrete(double frete) {
+        this.freteCentavos = PontoFixo.centavos(frete);
+    }
+    
+    void setDesconto(double desconto) {
+        this.desconto = desconto;
+    }
+    
+    double getFrete() {
+        return PontoFixo.reais(freteCentavos);
+    }
+    
+    double getDesconto() {
+        return desconto;
+    }
+    
+    double getTotalItens() {
+        return PontoFixo.reais(somaItensCentavos);
+    }
+    
+    double getTotalM3() {
+        return PontoFixo.m3(somaMicroM3);
+    }
+    
+    /**
+     * Total dos itens com o desconto percentual aplicado, mais o frete.
+     */
+    double getTotalGeral() {
+        return PontoFixo.reais(PontoFixo.totalGeral(somaItensCentavos, desconto, freteCentavos));
+    }
+}
@@ -0,0 +1,90 @@
+package com.caua.madeira.cache;
+
+import com.caua.madeira.model.Cliente;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Mede a carga e as consultas do {@link IndiceClientes} com 100 mil clientes
+ * sintéticos (nomes, e-mails, CPFs e telefones aleatórios). Não precisa de banco.
+ *
+ * Uso, depois de {@code mvn test-compile}:
+ * java -cp target/classes:target/test-classes com.caua.madeira.cache.IndiceClientesMedicao [quantidade]
+ */
+public class IndiceClientesMedicao {
+
+    private static final String[] NOMES = {"João", "Maria", "José", "Ana", "Antônio", "Francisca",
+        "Carlos", "Paulo", "Adriana", "Lucas", "Luíza", "Márcio", "Patrícia", "Cauã", "Sebastião"};
+    private static final String[] SOBRENOMES = {"Silva", "Santos", "Oliveira", "Souza", "Rodrigues",
+        "Ferreira", "Alves", "Pereira", "Lima", "Gomes", "Conceição", "Araújo", "Madeiras", "Ribeiro"};
+    private static final String[] CONSULTAS = {"jo", "joao", "silva", "joao silva", "conceicao",
+        "ira", "adeir", "exemplo", "123", "99", "xyzw", "maria souza 4"};
+    private static final int REPETICOES = 20;
+
+    public static void main(String[] args) {
+        int quantidade = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        List<Cliente> clientes = gerar(quantidade);
+
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        long memoriaAntes = runtime.totalMemory() - runtime.freeMemory();
+        long inicio = System.nanoTime();
+        IndiceClientes indice = new IndiceClientes();
+        for (Cliente cliente : clientes) {
+            indice.adicionar(cliente);
+        }
+        // A primeira consulta ordena as listas; faz parte da carga
+        indice.procurar("a");
+        long carga = System.nanoTime() - inicio;
+        System.gc();
+        long memoriaDepois = runtime.totalMemory() - runtime.freeMemory();
+        System.out.printf("%d clientes: carga %d ms, heap do índice ~%d MB%n", indice.tamanho(),
+            carga / 1_000_000, (memoriaDepois - memoriaAntes) / (1024 * 1024));
+
+        for (String consulta : CONSULTAS) {
+            // Aquecimento do JIT
+            for (int i = 0; i < 5; i++) {
+                indice.procurar(consulta);
+            }
+            int encontrados = 0;
+            long maior = 0;
+            long soma = 0;
+            for (int i = 0; i < REPETICOES; i++) {
+                long t = System.nanoTime();
+                encontrados = indice.procurar(consulta).length;
+                long tempo = System.nanoTime() - t;
+                soma += tempo;
+                maior = Math.max(maior, tempo);
+            }
+            System.out.printf("%-14s %7d encontrados  média %6.2f ms  pior %6.2f ms%n", "\"" + consulta + "\"",
+                encontrados, soma / (REPETICOES * 1e6), maior / 1e6);
+        }
+
+        long inicioRemocao = System.nanoTime();
+        for (int i = 0; i < 1_000; i++) {
+            indice.remover(clientes.get(i).getId());
+        }
+        System.out.printf("remover 1000 clientes: %d ms%n", (System.nanoTime() - inicioRemocao) / 1_000_000);
+    }
+
+    private static List<Cliente> gerar(int quantidade) {
+        Random random = new Random(42);
+        List<Cliente> clientes = new ArrayList<>(quantidade);
+        for (int i = 1; i <= quantidade; i++) {
+            String nome = NOMES[random.nextInt(NOMES.length)] + " "
+                + SOBRENOMES[random.nextInt(SOBRENOMES.length)] + " "
+                + SOBRENOMES[random.nextInt(SOBRENOMES.length)];
+            String email = "cliente" + i + "@exemplo.com.br";
+            String documento = String.format("%03d.%03d.%03d-%02d", random.nextInt(1000),
+                random.nextInt(1000), random.nextInt(1000), random.nextInt(100));
+            String telefone = String.format("(%02d) 9%04d-%04d", 11 + random.nextInt(89),
+                random.nextInt(10_000), random.nextInt(10_000));
+            Cliente cliente = new Cliente(nome, "Rua " + i, telefone, email, documento);
+            cliente.setId(i);
+            clientes.add(cliente);
+        }
+        return clientes;
+    }
+}
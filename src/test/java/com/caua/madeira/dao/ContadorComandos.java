@@ -0,0 +1,111 @@
+package com.caua.madeira.dao;
+
+import com.caua.madeira.database.Conexao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Conta os comandos enviados ao banco entre duas leituras, por dois caminhos:
+ *
+ * - no aplicativo, as chamadas a prepareStatement vistas pelo pool de
+ *   conexões (sempre disponível);
+ * - no servidor, a soma de {@code calls} em pg_stat_statements para os
+ *   comandos cujo texto casa com um padrão LIKE. Precisa da extensão
+ *   ({@code shared_preload_libraries = 'pg_stat_statements'} e
+ *   {@code CREATE EXTENSION pg_stat_statements}); sem ela só o primeiro
+ *   número é mostrado.
+ *
+ * As leituras do servidor usam uma conexão fora do pool, para não entrarem
+ * na contagem. Outras estações usando o mesmo banco durante a medição
+ * também entram no número do servidor.
+ */
+final class ContadorComandos implements AutoCloseable {
+    
+    private final Connection monitor;
+    private final boolean comExtensao;
+    private long preparadosAntes;
+    private long chamadasAntes;
+    private String padrao;
+    
+    ContadorComandos() throws SQLException {
+        monitor = Conexao.abrirDedicada();
+        try (PreparedStatement stmt = monitor.prepareStatement(
+                "SELECT 1 FROM pg_extension WHERE extname = 'pg_stat_statements'");
+             ResultSet rs = stmt.executeQuery()) {
+            comExtensao = rs.next();
+        }
+        if (!comExtensao) {
+            System.out.println("pg_stat_statements não instalada: só a contagem do pool será mostrada");
+        }
+    }
+    
+    /**
+     * Marca o início da medição para os comandos cujo texto casa com {@code padraoLike}.
+     */
+    void iniciar(String padraoLike) throws SQLException {
+        padrao = padraoLike;
+        preparadosAntes = preparados();
+        chamadasAntes = chamadasNoServidor();
+    }
+    
+    /**
+     * Statements preparados pelo aplicativo desde {@link #iniciar}.
+     */
+    long preparadosDesdeInicio() {
+        return preparados() - preparadosAntes;
+    }
+    
+    /**
+     * Execuções no servidor desde {@link #iniciar}, ou -1 sem pg_stat_statements.
+     */
+    long executadosDesdeInicio() throws SQLException {
+        return comExtensao ? chamadasNoServidor() - chamadasAntes : -1;
+    }
+    
+    /**
+     * Texto e execuções, no servidor, dos comandos que casam com {@code padraoLike}.
+     */
+    void listar(String padraoLike) throws SQLException {
+        if (!comExtensao) {
+            return;
+        }
+        try (PreparedStatement stmt = monitor.prepareStatement(
+                "SELECT calls, left(regexp_replace(query, '\\s+', ' ', 'g'), 120) AS texto " +
+                "FROM pg_stat_statements WHERE dbid = (SELECT oid FROM pg_database WHERE datname = current_database()) " +
+                "AND query LIKE ? ORDER BY calls DESC")) {
+            stmt.setString(1, padraoLike);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    System.out.printf("  %6d  %s%n", rs.getLong("calls"), rs.getString("texto"));
+                }
+            }
+        }
+    }
+    
+    @Override
+    public void close() throws SQLException {
+        monitor.close();
+    }
+    
+    private static long preparados() {
+        return Conexao.getPool().getAcertosCacheStatements() + Conexao.getPool().getFalhasCacheStatements();
+    }
+    
+    private long chamadasNoServidor() throws SQLException {
+        if (!comExtensao) {
+            return 0L;
+        }
+        try (PreparedStatement stmt = monitor.prepareStatement(
+                "SELECT COALESCE(SUM(calls), 0) FROM pg_stat_statements " +
+                "WHERE dbid = (SELECT oid FROM pg_database WHERE datname = current_database()) AND query LIKE ?")) {
+            stmt.setString(1, padrao);
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                return rs.getLong(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.caua.madeira.dao;
+
+import com.caua.madeira.database.Conexao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Cliente temporário das verificações contra o banco: criado antes da medição
+ * e apagado ao final, junto com os orçamentos e itens gravados para ele.
+ *
+ * Usa conexões fora do pool, para não entrar na contagem de
+ * {@link ContadorComandos}.
+ */
+final class FixturaOrcamentos {
+    
+    private FixturaOrcamentos() {
+    }
+    
+    static int criarCliente(String nome) throws SQLException {
+        try (Connection conn = Conexao.abrirDedicada();
+             PreparedStatement stmt = conn.prepareStatement("INSERT INTO clientes (nome) VALUES (?) RETURNING id")) {
+            stmt.setString(1, nome);
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        }
+    }
+    
+    /**
+     * Apaga o cliente e tudo o que foi gravado para ele; não faz nada se
+     * {@code clientId} não chegou a ser criado.
+     */
+    static void apagar(int clientId) throws SQLException {
+        if (clientId <= 0) {
+            return;
+        }
+        try (Connection conn = Conexao.abrirDedicada()) {
+            for (String sql : new String[]{
+                    "DELETE FROM quote_items WHERE quote_id IN (SELECT id FROM quotes WHERE client_id = ?)",
+                    "DELETE FROM quotes WHERE client_id = ?",
+                    "DELETE FROM clientes WHERE id = ?"}) {
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    stmt.setInt(1, clientId);
+                    stmt.executeUpdate();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.caua.madeira.dao;
+
+import com.caua.madeira.database.Conexao;
+import com.caua.madeira.model.Quote;
+import com.caua.madeira.model.QuoteItem;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Confere, contra o Postgres local de {@link Conexao}, que as listagens com
+ * itens ({@code buscarPorNome}, {@code listarPorCliente}) custam dois comandos
+ * (cabeçalhos + um {@code quote_id = ANY(?)}) e não um por orçamento, sem
+ * BEGIN/COMMIT em volta.
+ *
+ * Cria um cliente e {@code quantidade} orçamentos temporários, mede e apaga
+ * tudo ao final. Sai com código 1 se a contagem não bater.
+ *
+ * Uso, depois de {@code mvn test-compile} e com o banco de db/schema.sql no ar:
+ * java -cp target/classes:target/test-classes:(dependências) com.caua.madeira.dao.VerificacaoListagemQuotes [quantidade]
+ */
+public class VerificacaoListagemQuotes {
+    
+    private static final int ITENS_POR_ORCAMENTO = 3;
+    
+    public static void main(String[] args) throws SQLException {
+        int quantidade = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        String marcador = "VERIFICACAO-LISTAGEM-" + System.nanoTime();
+        QuoteDAO quoteDAO = new QuoteDAO();
+        boolean ok = true;
+        int clientId = 0;
+    
+        try (ContadorComandos contador = new ContadorComandos()) {
+            clientId = FixturaOrcamentos.criarCliente(marcador);
+            for (int i = 0; i < quantidade; i++) {
+                quoteDAO.salvar(novoOrcamento(marcador + " " + i, clientId, marcador));
+            }
+    
+            contador.iniciar("%FROM quote%");
+            List<Quote> porNome = quoteDAO.buscarPorNome(marcador);
+            ok &= conferir("buscarPorNome", porNome, quantidade, contador);
+    
+            contador.iniciar("%FROM quote%");
+            List<Quote> porCliente = quoteDAO.listarPorCliente(clientId);
+            ok &= conferir("listarPorCliente", porCliente, quantidade, contador);
+    
+            // Leituras rodam em autocommit: nenhum BEGIN vai ao servidor
+            contador.iniciar("BEGIN%");
+            quoteDAO.listarPorCliente(clientId);
+            long transacoes = contador.executadosDesdeInicio();
+            System.out.println("BEGINs enviados pela listagem: " + (transacoes >= 0 ? transacoes : "n/d"));
+            ok &= transacoes <= 0;
+    
+            System.out.println("Comandos no servidor que leem quotes/quote_items:");
+            contador.listar("%FROM quote%");
+        } finally {
+            FixturaOrcamentos.apagar(clientId);
+            Conexao.fechar();
+        }
+    
+        System.out.println(ok ? "OK" : "FALHOU");
+        if (!ok) {
+            System.exit(1);
+        }
+    }
+    
+    private static boolean conferir(String metodo, List<Quote> orcamentos, int quantidade,
+                                    ContadorComandos contador) throws SQLException {
+        long preparados = contador.preparadosDesdeInicio();
+        long executados = contador.executadosDesdeInicio();
+        int itens = 0;
+        for (Quote quote : orcamentos) {
+            itens += quote.getItems().size();
+        }
+        System.out.printf("%s: %d orçamentos, %d itens; statements preparados %d, executados no servidor %s%n",
+                metodo, orcamentos.size(), itens, preparados, executados >= 0 ? executados : "n/d");
+        return orcamentos.size() == quantidade
+            && itens == quantidade * ITENS_POR_ORCAMENTO
+            && preparados == 2
+            && (executados < 0 || executados == 2);
+    }
+    
+    private static Quote novoOrcamento(String nome, int clientId, String nomeCliente) {
+        List<QuoteItem> itens = new ArrayList<>(ITENS_POR_ORCAMENTO);
+        for (int i = 0; i < ITENS_POR_ORCAMENTO; i++) {
+            QuoteItem item = new QuoteItem(null, 10 + i, 15.0, 5.0, 3.0, 1850.0);
+            item.setCode("P" + i);
+            itens.add(item);
+        }
+        Quote quote = new Quote(0, nome, clientId, nomeCliente, LocalDate.now(), 0, 0, 0, null, null);
+        // setItems recalcula o total
+        quote.setItems(itens);
+        return quote;
+    }
+}
@@ -0,0 +1,111 @@
+package com.caua.madeira.dao;
+
+import com.caua.madeira.database.Conexao;
+import com.caua.madeira.model.Quote;
+import com.caua.madeira.model.QuoteItem;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Confere, contra o Postgres local de {@link Conexao}, o INSERT dos itens em
+ * {@code QuoteDAO.salvar}:
+ *
+ * - os ids gerados voltam para cada {@link QuoteItem}, na ordem dos itens;
+ * - o aplicativo prepara um único statement para os itens e, com
+ *   pg_stat_statements, o servidor executa um único INSERT em quote_items
+ *   (listado ao final), qualquer que seja a quantidade de itens.
+ *
+ * Cria um cliente e um orçamento temporários e apaga tudo ao final. Sai com
+ * código 1 se alguma conferência falhar.
+ *
+ * Uso, depois de {@code mvn test-compile} e com o banco de db/schema.sql no ar:
+ * java -cp target/classes:target/test-classes:(dependências) com.caua.madeira.dao.VerificacaoLoteItens [itens]
+ */
+public class VerificacaoLoteItens {
+
+    private static final String PADRAO_INSERT = "INSERT INTO quote_items%";
+
+    public static void main(String[] args) throws SQLException {
+        int quantidade = args.length > 0 ? Integer.parseInt(args[0]) : 300;
+        String marcador = "VERIFICACAO-LOTE-" + System.nanoTime();
+        QuoteDAO quoteDAO = new QuoteDAO();
+        boolean ok;
+        int clientId = 0;
+
+        try (ContadorComandos contador = new ContadorComandos()) {
+            clientId = FixturaOrcamentos.criarCliente(marcador);
+            Quote quote = novoOrcamento(marcador, clientId, quantidade);
+
+            contador.iniciar(PADRAO_INSERT);
+            long inicio = System.nanoTime();
+            quoteDAO.salvar(quote);
+            long tempo = System.nanoTime() - inicio;
+            long preparados = contador.preparadosDesdeInicio();
+            long executados = contador.executadosDesdeInicio();
+
+            System.out.printf("%d itens salvos em %d ms; statements preparados %d, INSERTs de itens executados no servidor: %s%n",
+                    quantidade, tempo / 1_000_000, preparados, executados >= 0 ? executados : "n/d");
+
+            boolean idsOk = conferirIds(quote);
+            System.out.println("ids gerados nos itens, na ordem do banco: " + (idsOk ? "sim" : "NÃO"));
+            // Um statement para o cabeçalho e outro para todos os itens
+            boolean loteOk = preparados == 2 && (executados < 0 || executados == 1);
+            System.out.println("Itens num único INSERT: " + (loteOk ? "sim" : "NÃO"));
+            contador.listar(PADRAO_INSERT);
+            ok = idsOk && loteOk;
+        } finally {
+            FixturaOrcamentos.apagar(clientId);
+            Conexao.fechar();
+        }
+
+        System.out.println(ok ? "OK" : "FALHOU");
+        if (!ok) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Os ids dos itens devem ser os do banco, na mesma ordem de inserção.
+     */
+    private static boolean conferirIds(Quote quote) throws SQLException {
+        List<Integer> gravados = new ArrayList<>();
+        try (Connection conn = Conexao.abrirDedicada();
+             PreparedStatement stmt = conn.prepareStatement("SELECT id FROM quote_items WHERE quote_id = ? ORDER BY id")) {
+            stmt.setInt(1, quote.getId());
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    gravados.add(rs.getInt(1));
+                }
+            }
+        }
+        List<QuoteItem> itens = quote.getItems();
+        if (gravados.size() != itens.size()) {
+            return false;
+        }
+        for (int i = 0; i < itens.size(); i++) {
+            if (!String.valueOf(gravados.get(i)).equals(itens.get(i).getId())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Quote novoOrcamento(String nome, int clientId, int quantidade) {
+        List<QuoteItem> itens = new ArrayList<>(quantidade);
+        for (int i = 0; i < quantidade; i++) {
+            QuoteItem item = new QuoteItem(null, 1 + i % 20, 15.0, 5.0, 3.0 + (i % 7) * 0.5, 1850.0);
+            item.setCode("P" + (i % 40));
+            itens.add(item);
+        }
+        Quote quote = new Quote(0, nome, clientId, nome, LocalDate.now(), 0, 0, 0, null, null);
+        // setItems recalcula o total
+        quote.setItems(itens);
+        return quote;
+    }
+}
@@ -0,0 +1,68 @@
+package com.caua.madeira.model;
+
+import javafx.beans.property.ReadOnlyDoubleProperty;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class QuoteTest {
+    
+    @Test
+    void totalSegueOsItensODescontoEOFrete() {
+        // 1 * 15 * 5 * 3 / 10000 = 0,0225 m³ a R$ 2000,00 = R$ 45,00
+        QuoteItem item = new QuoteItem(null, 1, 15.0, 5.0, 3.0, 2000.0);
+        Quote quote = new Quote();
+        quote.addItem(item);
+        ReadOnlyDoubleProperty total = quote.totalValueProperty();
+        assertEquals(45.0, total.get());
+        
+        item.setQuantity(2);
+        assertEquals(90.0, total.get());
+        quote.setDiscount(10.0);
+        assertEquals(81.0, total.get());
+        quote.setShippingValue(19.0);
+        assertEquals(100.0, total.get());
+        quote.removeItem(item);
+        assertEquals(19.0, total.get());
+        
+        // Item que saiu do orçamento não mexe mais no total
+        item.setQuantity(5);
+        assertEquals(19.0, quote.getTotalValue());
+    }
+    
+    @Test
+    void totalAcompanhaAListaTrocadaPorSetItems() {
+        Quote quote = new Quote();
+        ReadOnlyDoubleProperty total = quote.totalValueProperty();
+        QuoteItem antigo = new QuoteItem(null, 1, 15.0, 5.0, 3.0, 2000.0);
+        quote.setItems(new ArrayList<>(List.of(antigo)));
+        QuoteItem novo = new QuoteItem(null, 1, 10.0, 10.0, 1.0, 1000.0);
+        quote.setItems(new ArrayList<>(List.of(novo)));
+        assertEquals(10.0, total.get());
+        
+        antigo.setQuantity(10);
+        assertEquals(10.0, total.get());
+        novo.setUnitValue(1500.0);
+        assertEquals(15.0, total.get());
+    }
+    
+    @Test
+    void semPropriedadeOTotalECalculadoNaLeitura() {
+        QuoteItem item = new QuoteItem(null, 1, 15.0, 5.0, 3.0, 2000.0);
+        Quote quote = new Quote();
+        quote.setItems(new ArrayList<>(List.of(item)));
+        item.setQuantity(3);
+        assertEquals(135.0, quote.getTotalValue());
+    }
+    
+    @Test
+    void semItensValeOTotalGravado() {
+        Quote quote = new Quote(7, "Deck", 1, "Cliente", LocalDate.now(), 50.0, 1234.56, 0.0, null, null);
+        assertEquals(1234.56, quote.getTotalValue());
+        assertEquals(1234.56, quote.totalValueProperty().get());
+    }
+}
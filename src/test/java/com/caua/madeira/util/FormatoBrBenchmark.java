@@ -0,0 +1,106 @@
+package com.caua.madeira.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.text.NumberFormat;
+import java.text.ParseException;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link FormatoBr} contra o que as telas usavam antes: String.format para
+ * moeda e m³ e NumberFormat pt-BR para ler o texto digitado. Cada operação
+ * passa por um lote de 1000 valores.
+ *
+ * Uso, depois de {@code mvn test-compile}:
+ * java -cp target/classes:target/test-classes:(dependências) com.caua.madeira.util.FormatoBrBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FormatoBrBenchmark {
+    
+    private static final Locale PT_BR = new Locale("pt", "BR");
+    private static final int LOTE = 1000;
+    
+    private double[] valores;
+    private String[] textos;
+    private NumberFormat numberFormat;
+    
+    @Setup
+    public void preparar() {
+        Random random = new Random(42);
+        valores = new double[LOTE];
+        textos = new String[LOTE];
+        for (int i = 0; i < LOTE; i++) {
+            valores[i] = random.nextInt(100_000_000) / 100.0;
+            textos[i] = FormatoBr.numero(valores[i], 2);
+        }
+        numberFormat = NumberFormat.getNumberInstance(PT_BR);
+    }
+    
+    @Benchmark
+    public void moedaFormatoBr(Blackhole bh) {
+        for (double valor : valores) {
+            bh.consume(FormatoBr.moeda(valor));
+        }
+    }
+    
+    @Benchmark
+    public void moedaStringFormat(Blackhole bh) {
+        for (double valor : valores) {
+            bh.consume(String.format(PT_BR, "R$ %,.2f", valor));
+        }
+    }
+    
+    @Benchmark
+    public void m3FormatoBr(Blackhole bh) {
+        for (double valor : valores) {
+            bh.consume(FormatoBr.m3(valor));
+        }
+    }
+    
+    @Benchmark
+    public void m3StringFormat(Blackhole bh) {
+        for (double valor : valores) {
+            bh.consume(String.format("%.3f", valor).replace('.', ','));
+        }
+    }
+    
+    @Benchmark
+    public void lerFormatoBr(Blackhole bh) {
+        for (String texto : textos) {
+            bh.consume(FormatoBr.ler(texto));
+        }
+    }
+    
+    @Benchmark
+    public void lerNumberFormat(Blackhole bh) throws ParseException {
+        for (String texto : textos) {
+            bh.consume(numberFormat.parse(texto).doubleValue());
+        }
+    }
+    
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(FormatoBrBenchmark.class.getName())
+            .build()).run();
+    }
+}
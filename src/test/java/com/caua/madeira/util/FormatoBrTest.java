@@ -0,0 +1,110 @@
+package com.caua.madeira.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Confere a saída de {@link FormatoBr} contra {@link String#format} em pt-BR,
+ * que era o que as telas e o PDF usavam antes.
+ */
+class FormatoBrTest {
+    
+    private static final Locale PT_BR = new Locale("pt", "BR");
+    private static final int AMOSTRAS = 200_000;
+    
+    @Test
+    void moedaIgualAoStringFormat() {
+        Random random = new Random(11);
+        for (int i = 0; i < AMOSTRAS; i++) {
+            double valor = valorAleatorio(random);
+            assertEquals(String.format(PT_BR, "R$ %,.2f", valor), FormatoBr.moeda(valor), () -> "valor " + valor);
+        }
+    }
+    
+    @Test
+    void numeroIgualAoStringFormat() {
+        Random random = new Random(12);
+        for (int i = 0; i < AMOSTRAS; i++) {
+            double valor = valorAleatorio(random);
+            int casas = random.nextInt(5);
+            assertEquals(String.format(PT_BR, "%,." + casas + "f", valor), FormatoBr.numero(valor, casas),
+                () -> "valor " + valor + ", " + casas + " casas");
+            assertEquals(String.format(PT_BR, "%." + casas + "f", valor), FormatoBr.semMilhar(valor, casas),
+                () -> "valor " + valor + ", " + casas + " casas, sem milhar");
+        }
+    }
+    
+    @Test
+    void meiosDigitadosArredondamComoOStringFormat() {
+        for (double valor : new double[]{0.005, 0.015, 1.005, 1.115, 2.675, 1234.565, 999_999.995, 0.0005, 10.0625}) {
+            assertEquals(String.format(PT_BR, "R$ %,.2f", valor), FormatoBr.moeda(valor), () -> "valor " + valor);
+            assertEquals(String.format(PT_BR, "%,.3f", valor), FormatoBr.m3(valor), () -> "valor " + valor);
+        }
+    }
+    
+    @Test
+    void negativos() {
+        assertEquals("-R$ 1.234,56", FormatoBr.moeda(-1234.56));
+        assertEquals("R$ 0,00", FormatoBr.moeda(-0.004));
+        assertEquals("-12,5", FormatoBr.medida(-12.5, 2));
+        assertEquals("0", FormatoBr.medida(-0.0001, 2));
+    }
+    
+    @Test
+    void medidaSemZerosADireita() {
+        assertEquals("12,5", FormatoBr.medida(12.5, 2));
+        assertEquals("3", FormatoBr.medida(3.0, 2));
+        assertEquals("0,05", FormatoBr.medida(0.05, 2));
+        assertEquals("1.000", FormatoBr.medida(1000.0004, 3));
+    }
+    
+    @Test
+    void valoresGrandesUsamBigDecimal() {
+        double valor = 123_456_789_012_345.67;
+        assertEquals(String.format(PT_BR, "%,.2f", valor), FormatoBr.numero(valor, 2));
+    }
+    
+    @Test
+    void leituraDevolveOValorFormatado() {
+        Random random = new Random(13);
+        for (int i = 0; i < AMOSTRAS; i++) {
+            double valor = PontoFixo.reais(random.nextInt(1_000_000_000));
+            assertEquals(valor, FormatoBr.ler(FormatoBr.moeda(valor)));
+            assertEquals(valor, FormatoBr.ler(FormatoBr.semMilhar(valor, 2)));
+        }
+    }
+    
+    @Test
+    void leituraAceitaOsFormatosDigitados() {
+        assertEquals(1234.56, FormatoBr.ler("R$ 1.234,56"));
+        assertEquals(1.5, FormatoBr.ler("1.5"));
+        assertEquals(1_234_567.0, FormatoBr.ler("1.234.567"));
+        assertEquals(-3.25, FormatoBr.ler("-3,25"));
+        assertEquals(0.0, FormatoBr.ler(""));
+        assertEquals(0.0, FormatoBr.ler(null));
+        assertEquals(7.0, FormatoBr.ler("abc", 7.0));
+        assertThrows(NumberFormatException.class, () -> FormatoBr.ler("1,2,3"));
+        assertThrows(NumberFormatException.class, () -> FormatoBr.ler("-"));
+        assertThrows(NumberFormatException.class, () -> FormatoBr.ler("12a"));
+    }
+    
+    /**
+     * Mistura valores com poucas casas, como os digitados, e doubles quaisquer
+     * resultantes de contas.
+     */
+    private static double valorAleatorio(Random random) {
+        switch (random.nextInt(3)) {
+            case 0:
+                return random.nextInt(10_000_000) / 1000.0;
+            case 1:
+                return random.nextInt(100_000_000) / 100.0;
+            default:
+                return random.nextDouble() * Math.pow(10, random.nextInt(9));
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.caua.madeira.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Total de um orçamento (volume e total de cada item, subtotal, desconto e
+ * frete) por três caminhos: {@link PontoFixo}, {@link BigDecimal} com
+ * HALF_UP nas mesmas casas, e a conta em double que o modelo fazia antes.
+ *
+ * Uso, depois de {@code mvn test-compile}:
+ * java -cp target/classes:target/test-classes:(dependências) com.caua.madeira.util.PontoFixoBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PontoFixoBenchmark {
+    
+    private static final BigDecimal DEZ_MIL = BigDecimal.valueOf(10_000);
+    private static final BigDecimal CEM = BigDecimal.valueOf(100);
+    
+    @Param({"20", "500"})
+    private int itens;
+    
+    private int[] quantidades;
+    private double[] larguras;
+    private double[] alturas;
+    private double[] comprimentos;
+    private double[] valoresUnitarios;
+    private double desconto;
+    private double frete;
+    
+    @Setup
+    public void preparar() {
+        Random random = new Random(42);
+        quantidades = new int[itens];
+        larguras = new double[itens];
+        alturas = new double[itens];
+        comprimentos = new double[itens];
+        valoresUnitarios = new double[itens];
+        for (int i = 0; i < itens; i++) {
+            quantidades[i] = 1 + random.nextInt(50);
+            larguras[i] = 2.5 + random.nextInt(40) * 0.5;
+            alturas[i] = 2.5 + random.nextInt(40) * 0.5;
+            comprimentos[i] = 1.0 + random.nextInt(12) * 0.5;
+            valoresUnitarios[i] = 900 + random.nextInt(300_000) / 100.0;
+        }
+        desconto = 7.5;
+        frete = 350.0;
+    }
+    
+    @Benchmark
+    public long pontoFixo() {
+        long subtotal = 0L;
+        for (int i = 0; i < itens; i++) {
+            long volume = PontoFixo.volumeItem(quantidades[i], larguras[i], alturas[i], comprimentos[i]);
+            subtotal += PontoFixo.totalItem(volume, PontoFixo.centavos(valoresUnitarios[i]));
+        }
+        return PontoFixo.totalGeral(subtotal, desconto, PontoFixo.centavos(frete));
+    }
+    
+    @Benchmark
+    public BigDecimal bigDecimal() {
+        BigDecimal subtotal = BigDecimal.ZERO;
+        for (int i = 0; i < itens; i++) {
+            BigDecimal volume = BigDecimal.valueOf(quantidades[i])
+                .multiply(BigDecimal.valueOf(larguras[i]).setScale(3, RoundingMode.HALF_UP))
+                .multiply(BigDecimal.valueOf(alturas[i]).setScale(3, RoundingMode.HALF_UP))
+                .multiply(BigDecimal.valueOf(comprimentos[i]).setScale(3, RoundingMode.HALF_UP))
+                .divide(DEZ_MIL, 6, RoundingMode.HALF_UP);
+            BigDecimal valor = BigDecimal.valueOf(valoresUnitarios[i]).setScale(2, RoundingMode.HALF_UP);
+            subtotal = subtotal.add(volume.multiply(valor).setScale(2, RoundingMode.HALF_UP));
+        }
+        BigDecimal valorDesconto = subtotal.multiply(BigDecimal.valueOf(desconto).setScale(2, RoundingMode.HALF_UP))
+            .divide(CEM, 2, RoundingMode.HALF_UP);
+        return subtotal.subtract(valorDesconto).add(BigDecimal.valueOf(frete).setScale(2, RoundingMode.HALF_UP));
+    }
+    
+    @Benchmark
+    public double emDouble() {
+        double subtotal = 0.0;
+        for (int i = 0; i < itens; i++) {
+            double metrosCubicos = quantidades[i] * larguras[i] * alturas[i] * comprimentos[i] / 10000;
+            subtotal += metrosCubicos * valoresUnitarios[i];
+        }
+        subtotal = subtotal - (subtotal * (desconto / 100.0));
+        return subtotal + frete;
+    }
+    
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(PontoFixoBenchmark.class.getName())
+            .build()).run();
+    }
+}
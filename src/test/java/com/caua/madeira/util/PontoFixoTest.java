@@ -0,0 +1,126 @@
+package com.caua.madeira.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PontoFixoTest {
+    
+    @Test
+    void centavosArredondaMeioParaLongeDoZero() {
+        assertEquals(13L, PontoFixo.centavos(0.125));
+        assertEquals(-13L, PontoFixo.centavos(-0.125));
+        assertEquals(12L, PontoFixo.centavos(0.124));
+        // 1,005 e 2,675 ficam logo abaixo do meio em double, mas foram digitados com o meio
+        assertEquals(101L, PontoFixo.centavos(1.005));
+        assertEquals(-101L, PontoFixo.centavos(-1.005));
+        assertEquals(268L, PontoFixo.centavos(2.675));
+        assertEquals(100L, PontoFixo.centavos(1.004));
+    }
+    
+    @Test
+    void escalarSoTrataComoMeioOQueEraMeioNosDigitos() {
+        // 71533508,93794997 * 10^4 fica a poucos ulps de ,5 mas os dígitos dizem ,4997
+        assertEquals(715_335_089_379L, PontoFixo.escalar(7.153350893794997E7, 10_000L));
+        assertEquals(123_456_789_013L, PontoFixo.escalar(1_234_567_890.125, 100L));
+        assertEquals(-123_456_789_013L, PontoFixo.escalar(-1_234_567_890.125, 100L));
+    }
+    
+    @Test
+    void escalarRecusaValoresNaoNumericosOuGrandesDemais() {
+        assertThrows(ArithmeticException.class, () -> PontoFixo.centavos(Double.NaN));
+        assertThrows(ArithmeticException.class, () -> PontoFixo.centavos(Double.POSITIVE_INFINITY));
+        assertThrows(ArithmeticException.class, () -> PontoFixo.centavos(1e17));
+    }
+    
+    @Test
+    void multiplicarDividirArredondaMeioParaLongeDoZero() {
+        assertEquals(1L, PontoFixo.multiplicarDividir(5, 1, 10));
+        assertEquals(-1L, PontoFixo.multiplicarDividir(-5, 1, 10));
+        assertEquals(0L, PontoFixo.multiplicarDividir(4, 1, 10));
+        assertEquals(2L, PontoFixo.multiplicarDividir(15, 1, 10));
+        assertEquals(-2L, PontoFixo.multiplicarDividir(3, -5, 10));
+    }
+    
+    @Test
+    void multiplicarDividirRefazComBigIntegerQuandoOProdutoEstoura() {
+        // Long.MAX_VALUE * 10 estoura; /100 volta para dentro do long
+        assertEquals(esperado(Long.MAX_VALUE, 10, 100), PontoFixo.multiplicarDividir(Long.MAX_VALUE, 10, 100));
+        assertEquals(esperado(Long.MIN_VALUE + 1, 10, 100), PontoFixo.multiplicarDividir(Long.MIN_VALUE + 1, 10, 100));
+        // Resto exatamente meio no caminho BigInteger: (2^62 + 1) * 4 / 8
+        long a = (1L << 62) + 1;
+        assertEquals((1L << 61) + 1, PontoFixo.multiplicarDividir(a, 4, 8));
+        assertEquals(-((1L << 61) + 1), PontoFixo.multiplicarDividir(-a, 4, 8));
+    }
+    
+    @Test
+    void multiplicarDividirFalhaQuandoOResultadoNaoCabe() {
+        assertThrows(ArithmeticException.class, () -> PontoFixo.multiplicarDividir(Long.MAX_VALUE, 3, 2));
+    }
+    
+    @Test
+    void volumeItemArredondaEmMilionesimos() {
+        // 1 * 15 * 5 * 3 / 10000 = 0,0225 m³
+        assertEquals(22_500L, PontoFixo.volumeItem(1, 15.0, 5.0, 3.0));
+        // 1 * 0,001 * 0,001 * 5 / 10000 = 5e-10 m³: abaixo de meio milionésimo
+        assertEquals(0L, PontoFixo.volumeItem(1, 0.001, 0.001, 5.0));
+        // 1 * 0,1 * 0,5 * 0,1 / 10000 = 5e-7 m³: exatamente meio milionésimo
+        assertEquals(1L, PontoFixo.volumeItem(1, 0.1, 0.5, 0.1));
+    }
+    
+    @Test
+    void volumeItemRefazComBigIntegerQuandoOProdutoEstoura() {
+        // 2^31-1 peças de 1000 x 1000 cm x 10 m: o produto em milésimos passa de 10^25
+        long volume = PontoFixo.volumeItem(Integer.MAX_VALUE, 1000.0, 1000.0, 10.0);
+        BigDecimal referencia = BigDecimal.valueOf(Integer.MAX_VALUE)
+            .multiply(BigDecimal.valueOf(1000 * 1000 * 10))
+            .divide(BigDecimal.valueOf(10_000), 6, RoundingMode.HALF_UP)
+            .movePointRight(6);
+        assertEquals(referencia.longValueExact(), volume);
+        assertThrows(ArithmeticException.class, () -> PontoFixo.volumeItem(Integer.MAX_VALUE, 1e6, 1e6, 1e3));
+    }
+    
+    @Test
+    void totalGeralAplicaDescontoEFrete() {
+        assertEquals(9_500L, PontoFixo.totalGeral(10_000L, 10.0, 500L));
+        // Metade de 3,33 é 1,665: o desconto arredonda para 1,67
+        assertEquals(167L, PontoFixo.desconto(333L, 50.0));
+        assertEquals(166L, PontoFixo.totalGeral(333L, 50.0, 0L));
+        assertEquals(0L, PontoFixo.desconto(333L, -5.0));
+    }
+    
+    @Test
+    void totaisBatemComBigDecimalHalfUp() {
+        Random random = new Random(7);
+        for (int i = 0; i < 10_000; i++) {
+            int quantidade = 1 + random.nextInt(500);
+            double largura = random.nextInt(100_000) / 1000.0;
+            double altura = random.nextInt(100_000) / 1000.0;
+            double comprimento = random.nextInt(20_000) / 1000.0;
+            double valor = random.nextInt(1_000_000) / 100.0;
+            
+            BigDecimal volume = BigDecimal.valueOf(quantidade)
+                .multiply(BigDecimal.valueOf(largura))
+                .multiply(BigDecimal.valueOf(altura))
+                .multiply(BigDecimal.valueOf(comprimento))
+                .divide(BigDecimal.valueOf(10_000), 6, RoundingMode.HALF_UP);
+            BigDecimal total = volume.multiply(BigDecimal.valueOf(valor)).setScale(2, RoundingMode.HALF_UP);
+            
+            long microM3 = PontoFixo.volumeItem(quantidade, largura, altura, comprimento);
+            assertEquals(volume.movePointRight(6).longValueExact(), microM3);
+            assertEquals(total.movePointRight(2).longValueExact(), PontoFixo.totalItem(microM3, PontoFixo.centavos(valor)));
+        }
+    }
+    
+    private static long esperado(long a, long b, long divisor) {
+        return new BigDecimal(BigInteger.valueOf(a).multiply(BigInteger.valueOf(b)))
+            .divide(BigDecimal.valueOf(divisor), 0, RoundingMode.HALF_UP)
+            .longValueExact();
+    }
+}
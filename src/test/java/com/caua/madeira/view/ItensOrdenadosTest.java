@@ -0,0 +1,95 @@
+package com.caua.madeira.view;
+
+import com.caua.madeira.model.BlocoItens;
+import com.caua.madeira.model.QuoteItem;
+import javafx.collections.ListChangeListener;
+import javafx.scene.control.TableColumn;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ItensOrdenadosTest {
+    
+    @Test
+    void ordenaOBlocoPelosValoresDasColunas() {
+        BlocoItens bloco = new BlocoItens();
+        // Totais: P1 = 45,00; P2 = 10,00; P3 = 45,00; P4 = 200,00
+        bloco.adicionar(1, "P1", 1, 15.0, 5.0, 3.0, 2000.0);
+        bloco.adicionar(2, "P2", 1, 10.0, 10.0, 1.0, 1000.0);
+        bloco.adicionar(3, "P3", 1, 15.0, 5.0, 3.0, 2000.0);
+        bloco.adicionar(4, "P4", 2, 10.0, 10.0, 1.0, 10000.0);
+        ItensOrdenados itens = new ItensOrdenados(bloco);
+        
+        itens.ordenar(List.of(coluna(ItensOrdenados.Coluna.TOTAL, TableColumn.SortType.DESCENDING)));
+        // Empate entre P1 e P3 mantém a ordem original
+        assertArrayEquals(new String[]{"P4", "P1", "P3", "P2"}, codigos(itens));
+        
+        itens.ordenar(List.of(
+            coluna(ItensOrdenados.Coluna.LARGURA, TableColumn.SortType.ASCENDING),
+            coluna(ItensOrdenados.Coluna.QUANTIDADE, TableColumn.SortType.DESCENDING)));
+        assertArrayEquals(new String[]{"P4", "P2", "P1", "P3"}, codigos(itens));
+        
+        itens.ordenar(List.of());
+        assertArrayEquals(new String[]{"P1", "P2", "P3", "P4"}, codigos(itens));
+    }
+    
+    @Test
+    void ordenaListaComum() {
+        List<QuoteItem> lista = new ArrayList<>();
+        for (String codigo : new String[]{"C", null, "A", "B"}) {
+            QuoteItem item = new QuoteItem(null, 1, 1.0, 1.0, 1.0, 1.0);
+            item.setCode(codigo);
+            lista.add(item);
+        }
+        ItensOrdenados itens = new ItensOrdenados(lista);
+        itens.ordenar(List.of(coluna(ItensOrdenados.Coluna.CODIGO, TableColumn.SortType.ASCENDING)));
+        assertArrayEquals(new String[]{null, "A", "B", "C"}, codigos(itens));
+        assertTrue(itens.get(1) == lista.get(2));
+    }
+    
+    @Test
+    void avisaAReordenacaoComoPermutacao() {
+        BlocoItens bloco = new BlocoItens();
+        bloco.adicionar(1, "A", 3, 1.0, 1.0, 1.0, 1.0);
+        bloco.adicionar(2, "B", 1, 1.0, 1.0, 1.0, 1.0);
+        bloco.adicionar(3, "C", 2, 1.0, 1.0, 1.0, 1.0);
+        ItensOrdenados itens = new ItensOrdenados(bloco);
+        int[][] permutacao = new int[1][];
+        itens.addListener((ListChangeListener<QuoteItem>) change -> {
+            while (change.next()) {
+                assertTrue(change.wasPermutated());
+                permutacao[0] = new int[change.getTo() - change.getFrom()];
+                for (int i = change.getFrom(); i < change.getTo(); i++) {
+                    permutacao[0][i] = change.getPermutation(i);
+                }
+            }
+        });
+        itens.ordenar(List.of(coluna(ItensOrdenados.Coluna.QUANTIDADE, TableColumn.SortType.ASCENDING)));
+        // A (linha 0) vai para o fim, B sobe para o topo, C fica no meio
+        assertArrayEquals(new int[]{2, 0, 1}, permutacao[0]);
+        
+        permutacao[0] = null;
+        itens.ordenar(List.of(coluna(ItensOrdenados.Coluna.QUANTIDADE, TableColumn.SortType.ASCENDING)));
+        assertEquals(null, permutacao[0]);
+    }
+    
+    private static TableColumn<QuoteItem, ?> coluna(ItensOrdenados.Coluna valor, TableColumn.SortType direcao) {
+        TableColumn<QuoteItem, String> coluna = new TableColumn<>();
+        coluna.setUserData(valor);
+        coluna.setSortType(direcao);
+        return coluna;
+    }
+    
+    private static String[] codigos(List<QuoteItem> itens) {
+        String[] codigos = new String[itens.size()];
+        for (int i = 0; i < codigos.length; i++) {
+            codigos[i] = itens.get(i).getCode();
+        }
+        return codigos;
+    }
+}